@@ -1,29 +1,51 @@
 package com.phantask.attendance.controller;
 
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.authentication.InsufficientAuthenticationException;
 import org.springframework.security.core.Authentication;
 
+import com.phantask.attendance.dto.AttendanceCalendarResponse;
+import com.phantask.attendance.dto.AttendanceMarkResult;
 import com.phantask.attendance.dto.AttendancePercentageResponse;
 import com.phantask.attendance.dto.AttendanceReportRequest;
 import com.phantask.attendance.dto.AttendanceResponse;
+import com.phantask.attendance.dto.BulkMarkAttendanceRequest;
 import com.phantask.attendance.dto.MarkAttendanceRequest;
 import com.phantask.attendance.entity.Attendance;
+import com.phantask.attendance.service.AttendancePercentageCsv;
 import com.phantask.attendance.service.IAttendanceService;
+import com.phantask.exception.AttendanceAlreadyCompletedException;
+import com.phantask.exception.AttendanceAlreadyMarkedException;
 
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
@@ -34,8 +56,18 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class AttendanceController {
 
+    private static final int CSV_BUFFER_SIZE = 8192;
+    private static final int MIN_CALENDAR_YEAR = 2000;
+    private static final int DEFAULT_PAGE_SIZE = 31;
+
     private final IAttendanceService attendanceService;
 
+    @Value("${attendance.bulk-mark.max-tokens:500}")
+    private int maxBulkTokens;
+
+    @Value("${attendance.my-page.max-size:366}")
+    private int maxPageSize;
+
     /**
      * User navigates to Attendance for generating a QR-code
      */
@@ -94,6 +126,9 @@ public class AttendanceController {
             
         } catch (AccessDeniedException ex) {
             throw ex;
+        } catch (AttendanceAlreadyMarkedException | AttendanceAlreadyCompletedException ex) {
+            // mapped to 409 by GlobalExceptionHandler
+            throw ex;
         }catch (ExpiredJwtException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", "QR code expired. User needs to refresh."));
@@ -109,6 +144,45 @@ public class AttendanceController {
         }
     }
 
+    /**
+     * Gate scanners submit a batch of scanned QR tokens at once.
+     * Every token gets its own result; rejected tokens do not affect the others.
+     */
+    @PostMapping("/mark/bulk")
+    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('HR') or hasAuthority('MANAGER')")
+    public ResponseEntity<?> markAttendanceBulk(
+            @RequestBody BulkMarkAttendanceRequest request) {
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdminHrOrManager = auth.getAuthorities()
+                                          .stream()
+                                           .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN") 
+                                            || a.getAuthority().equals("ROLE_HR")
+                                            || a.getAuthority().equals("ROLE_MANAGER"));
+
+        if (!isAdminHrOrManager) {
+            throw new AccessDeniedException("Forbidden");
+        }
+        if (request.getTokens() == null || request.getTokens().isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "At least one QR token is required"));
+        }
+        if (request.getTokens().size() > maxBulkTokens) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "At most " + maxBulkTokens + " QR tokens per request"));
+        }
+
+        List<AttendanceMarkResult> results = attendanceService.markAttendanceBulk(request.getTokens());
+        long marked = results.stream().filter(AttendanceMarkResult::isSuccess).count();
+
+        return ResponseEntity.ok(Map.of(
+            "marked", marked,
+            "failed", results.size() - marked,
+            "timestamp", LocalDateTime.now(),
+            "results", results
+        ));
+    }
+
     /**
      * User views own attendance
      */
@@ -126,6 +200,61 @@ public class AttendanceController {
         }
     }
     
+    /**
+     * User views own attendance one page at a time, newest day first.
+     * Defaults to the last year up to today; pass the returned
+     * {@code nextCursor} as {@code before} for the next page. Unlike
+     * {@code /my}, the cost is per page and not per attendance history.
+     */
+    @GetMapping("/my/page")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> myAttendancePage(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate before,
+            @RequestParam(required = false) Integer size) {
+
+        LocalDate endDate = to != null ? to : LocalDate.now();
+        LocalDate startDate = from != null ? from : endDate.minusYears(1);
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+
+        if (startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "'from' must not be after 'to'"));
+        }
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Page size must be between 1 and " + maxPageSize));
+        }
+
+        return ResponseEntity.ok(attendanceService.getMyAttendancePage(startDate, endDate, before, pageSize));
+    }
+
+    /**
+     * User views own attendance for a year as a packed calendar
+     * (2-3 bits per day, see {@link AttendanceCalendarResponse}) for calendar
+     * and heatmap views. Defaults to the current year.
+     */
+    @GetMapping("/calendar/my")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> myAttendanceCalendar(
+            @RequestParam(required = false) Integer year) {
+
+        int currentYear = LocalDate.now().getYear();
+        int requested = year != null ? year : currentYear;
+        if (requested < MIN_CALENDAR_YEAR || requested > currentYear) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Year must be between " + MIN_CALENDAR_YEAR + " and " + currentYear));
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (requested < currentYear) {
+            // past years only change through corrections, let the browser keep them briefly
+            response.cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePrivate());
+        }
+        return response.body(attendanceService.getMyAttendanceCalendar(requested));
+    }
+
     @GetMapping("/percentage/my")
     @PreAuthorize("isAuthenticated()")
     public AttendancePercentageResponse getMyAttendancePercentage() {
@@ -144,11 +273,20 @@ public class AttendanceController {
      * Admin/HR downloads attendance report
      * 
      * CHANGED: hasRole() → hasAuthority()
+     *
+     * The CSV is streamed: rows are written to the response as they are read
+     * from a database cursor, so memory use does not grow with the number of
+     * users or the date range. The body is gzip-encoded when the client sends
+     * {@code Accept-Encoding: gzip}.
+     *
+     * The report is computed while the request is open; for long ranges use
+     * an asynchronous report job ({@code POST /api/reports/jobs}) instead.
      */
     @PostMapping("/percentage/download")
     @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('HR')")
-    public ResponseEntity<byte[]> downloadAttendancePercentage(
-            @RequestBody AttendanceReportRequest request
+    public ResponseEntity<StreamingResponseBody> downloadAttendancePercentage(
+            @RequestBody AttendanceReportRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
 
          try {
@@ -161,42 +299,41 @@ public class AttendanceController {
         	if (!isAdminOrHr) {
         	    throw new AccessDeniedException("Forbidden");
         	}
-             
-            List<AttendancePercentageResponse> data =
-                attendanceService.getAttendancePercentage(
-                        request.getStartDate(),
-                        request.getEndDate(),
-                        request.getUserId()
-                );
 
-            String csv = buildCsv(data);
+            boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+            StreamingResponseBody body = out -> {
+                OutputStream target = gzip ? new GZIPOutputStream(out, CSV_BUFFER_SIZE) : out;
+                Writer writer = new BufferedWriter(
+                        new OutputStreamWriter(target, StandardCharsets.UTF_8), CSV_BUFFER_SIZE);
+                writer.write(AttendancePercentageCsv.HEADER);
+                try {
+                    attendanceService.forEachAttendancePercentage(
+                            request.getStartDate(),
+                            request.getEndDate(),
+                            request.getUserId(),
+                            r -> AttendancePercentageCsv.writeRow(writer, r)
+                    );
+                } catch (UncheckedIOException ex) {
+                    throw ex.getCause();
+                }
+                writer.flush();
+                if (target instanceof GZIPOutputStream gz) {
+                    gz.finish();
+                }
+            };
 
-            return ResponseEntity.ok()
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                   .header("Content-Disposition",
                          "attachment; filename=attendance_percentage.csv")
                   .header("Content-Type", "text/csv")
-                  .body(csv.getBytes());
+                  .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (gzip) {
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return response.body(body);
          }catch (AccessDeniedException ex) {
             throw ex;
         }
     }
-    
-    private String buildCsv(List<AttendancePercentageResponse> data) {
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("User ID,Username,Total Days,Present Days,Absent Days,Leave Days,Attendance Percentage\n");
-
-        for (AttendancePercentageResponse r : data) {
-            sb.append(r.getUserId()).append(",")
-              .append(r.getUsername()).append(",")
-              .append(r.getTotalDays()).append(",")
-              .append(r.getPresentDays()).append(",")
-              .append(r.getAbsentDays()).append(",")
-              .append(r.getLeaveDays()).append(",")
-              .append(r.getAttendancePercentage())
-              .append("\n");
-        }
-
-        return sb.toString();
-    }
 }
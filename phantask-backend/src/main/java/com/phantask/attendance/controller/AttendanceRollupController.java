@@ -0,0 +1,88 @@
+package com.phantask.attendance.controller;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.phantask.attendance.service.impl.AttendanceRollupService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Daily per-department attendance counts for HR dashboards, served from the
+ * {@code attendance_daily_rollups} table instead of the raw attendance rows.
+ *
+ * <p>
+ * All endpoints are prefixed with "/api/attendance/rollups" and require the
+ * ADMIN or HR authority.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/attendance/rollups")
+@RequiredArgsConstructor
+public class AttendanceRollupController {
+
+    private final AttendanceRollupService rollupService;
+
+    @Value("${attendance.rollup.max-range-days:366}")
+    private int maxRangeDays;
+
+    /**
+     * Counts per day and department within the range, optionally for one
+     * department.
+     */
+    @GetMapping
+    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('HR')")
+    public ResponseEntity<?> getRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String department) {
+
+        String error = validateRange(from, to);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", error));
+        }
+        return ResponseEntity.ok(rollupService.find(from, to, department));
+    }
+
+    /**
+     * Materializes the rollups of the range now, e.g. after a correction or to
+     * backfill days before the rollup table existed.
+     */
+    @PostMapping("/materialize")
+    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('HR')")
+    public ResponseEntity<?> materialize(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        String error = validateRange(from, to);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", error));
+        }
+        int rows = rollupService.materialize(from, to);
+        return ResponseEntity.ok(Map.of(
+                "days", ChronoUnit.DAYS.between(from, to) + 1,
+                "rows", rows
+        ));
+    }
+
+    private String validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return "'from' must not be after 'to'";
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            return "At most " + maxRangeDays + " days per request";
+        }
+        return null;
+    }
+}
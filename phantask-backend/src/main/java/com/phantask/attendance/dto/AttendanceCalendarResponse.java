@@ -0,0 +1,29 @@
+package com.phantask.attendance.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One user's attendance for a calendar year, packed into {@code bitsPerDay}
+ * bits per day.
+ *
+ * <p>
+ * {@code days} is Base64 of the packed codes: day {@code d} of the year
+ * (1-based) is stored in bits {@code (d - 1) * bitsPerDay} and up, least
+ * significant bit first, with bit {@code i} in byte {@code i / 8} at position
+ * {@code i % 8}. A code is an index into {@code codes}; code 0 means that
+ * there is no attendance row for the day.
+ * </p>
+ */
+@Getter
+@AllArgsConstructor
+public class AttendanceCalendarResponse {
+
+    private Long userId;
+    private int year;
+    private int bitsPerDay;
+    private List<String> codes;
+    private String days;
+}
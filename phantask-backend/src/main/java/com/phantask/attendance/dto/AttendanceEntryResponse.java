@@ -0,0 +1,23 @@
+package com.phantask.attendance.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.phantask.attendance.enums.AttendanceStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One day of a user's attendance, projected by the database (no
+ * {@code Attendance} or {@code User} entities are loaded).
+ */
+@Getter
+@AllArgsConstructor
+public class AttendanceEntryResponse {
+
+    private LocalDate date;
+    private AttendanceStatus status;
+    private LocalDateTime checkInTime;
+    private LocalDateTime checkOutTime;
+}
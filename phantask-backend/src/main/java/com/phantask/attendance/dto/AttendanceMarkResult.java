@@ -0,0 +1,34 @@
+package com.phantask.attendance.dto;
+
+import lombok.Getter;
+
+/**
+ * Outcome of one token of a bulk scan: either the marked attendance or the
+ * reason the token was rejected.
+ */
+@Getter
+public class AttendanceMarkResult {
+
+    private final String token;
+    private final boolean success;
+    private final String username;
+    private final AttendanceResponse attendance;
+    private final String error;
+
+    private AttendanceMarkResult(String token, boolean success, String username,
+            AttendanceResponse attendance, String error) {
+        this.token = token;
+        this.success = success;
+        this.username = username;
+        this.attendance = attendance;
+        this.error = error;
+    }
+
+    public static AttendanceMarkResult marked(String token, String username, AttendanceResponse attendance) {
+        return new AttendanceMarkResult(token, true, username, attendance, null);
+    }
+
+    public static AttendanceMarkResult failed(String token, String error) {
+        return new AttendanceMarkResult(token, false, null, null, error);
+    }
+}
@@ -0,0 +1,21 @@
+package com.phantask.attendance.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One page of a user's attendance, newest day first. {@code nextCursor} is
+ * passed as {@code before} to fetch the next (older) page and is
+ * {@code null} on the last page.
+ */
+@Getter
+@AllArgsConstructor
+public class AttendancePageResponse {
+
+    private List<AttendanceEntryResponse> items;
+    private LocalDate nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,33 @@
+package com.phantask.attendance.dto;
+
+import java.time.LocalDate;
+
+import com.phantask.attendance.entity.AttendanceDailyRollup;
+
+import lombok.Getter;
+
+/**
+ * Attendance counts of one department on one day. {@code department} is
+ * {@code null} for users without a department.
+ */
+@Getter
+public class AttendanceRollupResponse {
+
+    private LocalDate date;
+    private String department;
+    private long totalCount;
+    private long presentCount;
+    private long wfhCount;
+    private long absentCount;
+    private long leaveCount;
+
+    public AttendanceRollupResponse(AttendanceDailyRollup rollup) {
+        this.date = rollup.getRollupDate();
+        this.department = rollup.getDepartment().isEmpty() ? null : rollup.getDepartment();
+        this.totalCount = rollup.getTotalCount();
+        this.presentCount = rollup.getPresentCount();
+        this.wfhCount = rollup.getWfhCount();
+        this.absentCount = rollup.getAbsentCount();
+        this.leaveCount = rollup.getLeaveCount();
+    }
+}
@@ -0,0 +1,10 @@
+package com.phantask.attendance.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+
+@Getter
+public class BulkMarkAttendanceRequest {
+    private List<String> tokens;
+}
@@ -0,0 +1,20 @@
+package com.phantask.attendance.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a user checks out before completing a full shift. Delivered
+ * to the manager by mail after the attendance change has been committed.
+ */
+@Getter
+@AllArgsConstructor
+public class EarlyCheckoutEvent {
+    private final String managerEmail;
+    private final String employeeName;
+    private final LocalDateTime checkIn;
+    private final LocalDateTime checkOut;
+    private final long workedMinutes;
+}
@@ -14,10 +14,12 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -26,6 +28,12 @@ import lombok.Setter;
     name = "attendance",
     uniqueConstraints = {
         @UniqueConstraint(columnNames = {"uid", "attendance_date"})
+    },
+    indexes = {
+        // org-wide reports filter by date range only
+        @Index(name = "idx_attendance_date", columnList = "attendance_date"),
+        // the rollup refresh looks for recently changed rows
+        @Index(name = "idx_attendance_updated_at", columnList = "updated_at")
     })
 @Getter
 @Setter
@@ -58,4 +66,21 @@ public class Attendance {
     @ManyToOne
     @JoinColumn(name = "marked_by")
     private User markedBy;
+
+    /**
+     * Optimistic lock: a check-out that was overtaken by a concurrent scan
+     * (e.g. on another node) fails instead of overwriting it. The column
+     * default covers rows written by the native bulk inserts.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
+    /**
+     * Last write of the row, maintained by MySQL (also for the native bulk
+     * statements). Used to find past days whose rollups are out of date.
+     */
+    @Column(name = "updated_at", insertable = false, updatable = false,
+            columnDefinition = "DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+    private LocalDateTime updatedAt;
 }
@@ -0,0 +1,38 @@
+package com.phantask.attendance.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Running attendance counts of one user, kept in step with the
+ * {@code attendance} table by {@code AttendanceCounterService} so the
+ * self-service percentage is a primary key read instead of an aggregate over
+ * the user's whole history. Present days are the statuses of
+ * {@code AttendanceStatus.isPresent()}.
+ */
+@Entity
+@Table(name = "attendance_counters")
+@Getter
+@Setter
+public class AttendanceCounter {
+
+    @Id
+    @Column(name = "uid")
+    private Long userId;
+
+    @Column(name = "total_days", nullable = false)
+    private long totalDays;
+
+    @Column(name = "present_days", nullable = false)
+    private long presentDays;
+
+    @Column(name = "absent_days", nullable = false)
+    private long absentDays;
+
+    @Column(name = "leave_days", nullable = false)
+    private long leaveDays;
+}
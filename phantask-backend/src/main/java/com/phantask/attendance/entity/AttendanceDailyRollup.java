@@ -0,0 +1,65 @@
+package com.phantask.attendance.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Attendance counts of one department on one day, materialized from the
+ * {@code attendance} table by {@code AttendanceRollupService} so that
+ * dashboards do not aggregate raw attendance rows. Users without a department
+ * are counted under the empty department.
+ */
+@Entity
+@Table(
+    name = "attendance_daily_rollups",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attendance_rollup_day_department",
+                columnNames = {"rollup_date", "department"})
+    })
+@Getter
+@Setter
+public class AttendanceDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Column(nullable = false)
+    private String department;
+
+    @Column(name = "total_count", nullable = false)
+    private long totalCount;
+
+    /** CHECKED_IN, CHECKED_OUT and WFH (see {@code AttendanceStatus.isPresent()}). */
+    @Column(name = "present_count", nullable = false)
+    private long presentCount;
+
+    @Column(name = "wfh_count", nullable = false)
+    private long wfhCount;
+
+    @Column(name = "absent_count", nullable = false)
+    private long absentCount;
+
+    @Column(name = "leave_count", nullable = false)
+    private long leaveCount;
+
+    /**
+     * Start of the statement that wrote the row (database clock) minus the
+     * commit safety margin; attendance rows updated after it are re-counted.
+     */
+    @Column(name = "materialized_at", nullable = false)
+    private LocalDateTime materializedAt;
+}
@@ -1,16 +1,37 @@
 package com.phantask.attendance.entity;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
 
 import com.phantask.authentication.entity.User;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
+/**
+ * QR token registered by a user and scanned at the front desk.
+ *
+ * <p>
+ * The raw token is a {@code LONGTEXT} and cannot be indexed, so every token
+ * also stores its SHA-256 digest ({@code token_hash}, 64 lowercase hex
+ * characters, the same format as MySQL's {@code SHA2(token, 256)}) under a
+ * unique index. Lookups go through the digest. {@link #setToken(String)} keeps
+ * both columns in sync.
+ * </p>
+ */
 @Entity
-@Table(name = "attendance_tokens")
+@Table(name = "attendance_tokens",
+       indexes = {
+           @Index(name = "uk_attendance_token_hash", columnList = "token_hash", unique = true),
+           @Index(name = "idx_attendance_token_expires_at", columnList = "expiresAt"),
+           @Index(name = "idx_attendance_token_used", columnList = "used")
+       })
 @Getter
 @Setter
 public class AttendanceToken {
@@ -22,6 +43,14 @@ public class AttendanceToken {
     @Column(nullable = false, columnDefinition = "LONGTEXT")
     private String token;
 
+    /**
+     * Nullable only so the column can be added to an existing table; rows
+     * written before it existed are backfilled at startup.
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "token_hash", length = 64, columnDefinition = "CHAR(64)")
+    private String tokenHash;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "uid", nullable = false)
     private User user;
@@ -34,4 +63,22 @@ public class AttendanceToken {
 
     @Column(nullable = false)
     private boolean used = false;
+
+    public void setToken(String token) {
+        this.token = token;
+        this.tokenHash = hash(token);
+    }
+
+    /**
+     * SHA-256 digest of a raw token as lowercase hex.
+     */
+    public static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
 }
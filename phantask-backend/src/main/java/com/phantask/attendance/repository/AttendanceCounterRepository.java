@@ -0,0 +1,98 @@
+package com.phantask.attendance.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.phantask.attendance.entity.AttendanceCounter;
+
+public interface AttendanceCounterRepository extends JpaRepository<AttendanceCounter, Long> {
+
+    /**
+     * Adds one attendance day to the user's counters (creating them if needed).
+     * {@code present}, {@code absent} and {@code leave} are 0 or 1.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO attendance_counters (uid, total_days, present_days, absent_days, leave_days)
+        VALUES (:userId, 1, :present, :absent, :leave)
+        ON DUPLICATE KEY UPDATE
+            total_days = total_days + 1,
+            present_days = present_days + :present,
+            absent_days = absent_days + :absent,
+            leave_days = leave_days + :leave
+    """, nativeQuery = true)
+    int addDay(Long userId, int present, int absent, int leave);
+
+    /**
+     * Counts the check-ins written by one bulk scan: the rows of the given
+     * users for the date whose check-in time is the batch timestamp.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO attendance_counters (uid, total_days, present_days, absent_days, leave_days)
+        SELECT a.uid, 1, 1, 0, 0
+        FROM attendance a
+        WHERE a.attendance_date = :date
+          AND a.check_in_time = :checkInTime
+          AND a.uid IN (:userIds)
+        ON DUPLICATE KEY UPDATE
+            total_days = total_days + 1,
+            present_days = present_days + 1
+    """, nativeQuery = true)
+    int addCheckIns(LocalDate date, LocalDateTime checkInTime, Collection<Long> userIds);
+
+    /**
+     * Counts the ABSENT rows written for the date and uid range after
+     * attendance id {@code afterId}.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO attendance_counters (uid, total_days, present_days, absent_days, leave_days)
+        SELECT a.uid, 1, 0, 1, 0
+        FROM attendance a
+        WHERE a.id > :afterId
+          AND a.attendance_date = :date
+          AND a.status = 'ABSENT'
+          AND a.uid > :fromUid
+          AND a.uid <= :toUid
+        ON DUPLICATE KEY UPDATE
+            total_days = total_days + 1,
+            absent_days = absent_days + 1
+    """, nativeQuery = true)
+    int addAbsences(long afterId, LocalDate date, long fromUid, long toUid);
+
+    /**
+     * Recomputes every user's counters from the attendance table. Used to
+     * initialise the table.
+     *
+     * @return the number of users written
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO attendance_counters (uid, total_days, present_days, absent_days, leave_days)
+        SELECT a.uid,
+               COUNT(*),
+               SUM(CASE WHEN a.status IN (""" + AttendanceRepository.PRESENT_STATUSES_SQL + """
+               ) THEN 1 ELSE 0 END),
+               SUM(CASE WHEN a.status = 'ABSENT' THEN 1 ELSE 0 END),
+               SUM(CASE WHEN a.status = 'LEAVE' THEN 1 ELSE 0 END)
+        FROM attendance a
+        GROUP BY a.uid
+        ON DUPLICATE KEY UPDATE
+            total_days = VALUES(total_days),
+            present_days = VALUES(present_days),
+            absent_days = VALUES(absent_days),
+            leave_days = VALUES(leave_days)
+    """, nativeQuery = true)
+    int rebuildAll();
+}
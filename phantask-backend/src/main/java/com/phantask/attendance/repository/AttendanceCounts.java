@@ -0,0 +1,22 @@
+package com.phantask.attendance.repository;
+
+/**
+ * Per-user attendance counts computed by the database (see
+ * {@link AttendanceRepository#summarizeBetween}). Read-only projection: no
+ * {@code Attendance} or {@code User} entities are loaded.
+ */
+public interface AttendanceCounts {
+
+    Long getUserId();
+
+    String getUsername();
+
+    long getTotalDays();
+
+    /** CHECKED_IN, CHECKED_OUT and WFH days (see {@code AttendanceStatus.isPresent()}). */
+    long getPresentDays();
+
+    long getAbsentDays();
+
+    long getLeaveDays();
+}
@@ -0,0 +1,86 @@
+package com.phantask.attendance.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.phantask.attendance.entity.AttendanceDailyRollup;
+
+public interface AttendanceDailyRollupRepository extends JpaRepository<AttendanceDailyRollup, Long> {
+
+    List<AttendanceDailyRollup> findByRollupDateBetweenOrderByRollupDateAscDepartmentAsc(
+            LocalDate startDate, LocalDate endDate);
+
+    List<AttendanceDailyRollup> findByRollupDateBetweenAndDepartmentOrderByRollupDateAsc(
+            LocalDate startDate, LocalDate endDate, String department);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM attendance_daily_rollups WHERE rollup_date = :date", nativeQuery = true)
+    int deleteByDate(LocalDate date);
+
+    /**
+     * Writes one row per department for the date, aggregated from the
+     * attendance table. Must run after {@link #deleteByDate} in the same
+     * transaction so that departments without rows that day disappear.
+     *
+     * <p>
+     * {@code materialized_at} is a watermark: the statement's start time on
+     * the database clock (the clock that maintains {@code attendance.updated_at})
+     * minus {@code safetyMarginSeconds}. A write whose {@code updated_at} lies
+     * before the snapshot but that commits after it is not counted; the margin
+     * keeps such a write newer than the watermark, so {@link #findStaleDays}
+     * picks the day up again. The margin must exceed the longest attendance
+     * write transaction.
+     * </p>
+     *
+     * @return the number of department rows written
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO attendance_daily_rollups
+            (rollup_date, department, total_count, present_count, wfh_count,
+             absent_count, leave_count, materialized_at)
+        SELECT a.attendance_date,
+               COALESCE(p.department, ''),
+               COUNT(*),
+               SUM(CASE WHEN a.status IN (""" + AttendanceRepository.PRESENT_STATUSES_SQL + """
+               ) THEN 1 ELSE 0 END),
+               SUM(CASE WHEN a.status = 'WFH' THEN 1 ELSE 0 END),
+               SUM(CASE WHEN a.status = 'ABSENT' THEN 1 ELSE 0 END),
+               SUM(CASE WHEN a.status = 'LEAVE' THEN 1 ELSE 0 END),
+               NOW(6) - INTERVAL :safetyMarginSeconds SECOND
+        FROM attendance a
+        LEFT JOIN user_profiles p ON p.uid = a.uid
+        WHERE a.attendance_date = :date
+        GROUP BY a.attendance_date, COALESCE(p.department, '')
+    """, nativeQuery = true)
+    int insertForDate(LocalDate date, long safetyMarginSeconds);
+
+    /**
+     * Past days (before {@code today}) with attendance rows written since
+     * {@code changedSince} after the watermark of the day's rollups (see
+     * {@link #insertForDate}), or never materialized at all; newest first. Both
+     * timestamps come from the database clock.
+     */
+    @Query("""
+        SELECT DISTINCT a.attendanceDate
+        FROM Attendance a
+        WHERE a.updatedAt >= :changedSince
+          AND a.attendanceDate < :today
+          AND NOT EXISTS (
+              SELECT 1 FROM AttendanceDailyRollup r
+              WHERE r.rollupDate = a.attendanceDate
+                AND r.materializedAt > a.updatedAt
+          )
+        ORDER BY a.attendanceDate DESC
+    """)
+    List<LocalDate> findStaleDays(LocalDateTime changedSince, LocalDate today, Pageable pageable);
+}
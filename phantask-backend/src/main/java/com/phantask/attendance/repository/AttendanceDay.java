@@ -0,0 +1,17 @@
+package com.phantask.attendance.repository;
+
+import java.time.LocalDate;
+
+import com.phantask.attendance.enums.AttendanceStatus;
+
+/**
+ * Date and status of one attendance row (see
+ * {@link AttendanceRepository#findDaysForUserBetween}). Read-only projection:
+ * no {@code Attendance} or {@code User} entities are loaded.
+ */
+public interface AttendanceDay {
+
+    LocalDate getAttendanceDate();
+
+    AttendanceStatus getStatus();
+}
@@ -1,16 +1,55 @@
 package com.phantask.attendance.repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.phantask.attendance.dto.AttendanceEntryResponse;
 import com.phantask.attendance.entity.Attendance;
 import com.phantask.authentication.entity.User;
 
+import jakarta.persistence.QueryHint;
+
 public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
 
+    /**
+     * Present statuses as stored in {@code attendance.status}, for native
+     * queries. Must match {@code AttendanceStatus.isPresent()}, as must the
+     * JPQL list in {@link #COUNTS_SELECT}.
+     */
+    static final String PRESENT_STATUSES_SQL = "'CHECKED_IN', 'CHECKED_OUT', 'WFH'";
+
+    /**
+     * Select list of the per-user {@link AttendanceCounts} queries; each
+     * appends its WHERE and GROUP BY clauses.
+     */
+    static final String COUNTS_SELECT = """
+        SELECT u.uid AS userId,
+               u.username AS username,
+               COUNT(a) AS totalDays,
+               SUM(CASE WHEN a.status IN (
+                       com.phantask.attendance.enums.AttendanceStatus.CHECKED_IN,
+                       com.phantask.attendance.enums.AttendanceStatus.CHECKED_OUT,
+                       com.phantask.attendance.enums.AttendanceStatus.WFH)
+                   THEN 1 ELSE 0 END) AS presentDays,
+               SUM(CASE WHEN a.status = com.phantask.attendance.enums.AttendanceStatus.ABSENT
+                   THEN 1 ELSE 0 END) AS absentDays,
+               SUM(CASE WHEN a.status = com.phantask.attendance.enums.AttendanceStatus.LEAVE
+                   THEN 1 ELSE 0 END) AS leaveDays
+        FROM Attendance a
+        JOIN a.user u
+        """;
+
     Optional<Attendance> findByUserAndAttendanceDate(User user, LocalDate date);
     boolean existsByUserAndAttendanceDate(User user, LocalDate date);
     boolean existsByUserUidAndAttendanceDate(Long userId, LocalDate date);
@@ -25,4 +64,156 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
     );   
     List<Attendance> findByAttendanceDate(LocalDate date);
     List<Attendance> findByUser(User user);
+    List<Attendance> findByUserUidInAndAttendanceDate(Collection<Long> userIds, LocalDate date);
+
+    @Query("""
+        SELECT a.user.uid AS userId, a.checkInTime AS checkInTime,
+               a.checkOutTime AS checkOutTime, a.status AS status
+        FROM Attendance a
+        WHERE a.user.uid IN :userIds
+          AND a.attendanceDate = :date
+    """)
+    List<AttendanceScanState> findScanStates(Collection<Long> userIds, LocalDate date);
+
+    @Query("SELECT COALESCE(MAX(a.id), 0) FROM Attendance a")
+    long findMaxId();
+
+    /**
+     * Date and status of the user's attendance rows within the date range,
+     * read through the (uid, attendance_date) unique index.
+     */
+    @Query("""
+        SELECT a.attendanceDate AS attendanceDate,
+               a.status AS status
+        FROM Attendance a
+        WHERE a.user.uid = :userId
+          AND a.attendanceDate BETWEEN :startDate AND :endDate
+    """)
+    List<AttendanceDay> findDaysForUserBetween(Long userId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * One keyset page of the user's attendance within
+     * {@code [startDate, before)}, newest first. Reads a range of the
+     * (uid, attendance_date) unique index, so the cost depends on the page size
+     * and not on the length of the user's history. The page size is taken from
+     * {@code pageable}; its offset must be 0.
+     */
+    @Query("""
+        SELECT new com.phantask.attendance.dto.AttendanceEntryResponse(
+                   a.attendanceDate, a.status, a.checkInTime, a.checkOutTime)
+        FROM Attendance a
+        WHERE a.user.uid = :userId
+          AND a.attendanceDate >= :startDate
+          AND a.attendanceDate < :before
+        ORDER BY a.attendanceDate DESC
+    """)
+    List<AttendanceEntryResponse> findPageForUser(Long userId, LocalDate startDate, LocalDate before, Pageable pageable);
+
+    /**
+     * Attendance counts per user within the date range, aggregated in the
+     * database: one row per user that has attendance rows in the range.
+     */
+    @Query(COUNTS_SELECT + """
+        WHERE a.attendanceDate BETWEEN :startDate AND :endDate
+        GROUP BY u.uid, u.username
+    """)
+    List<AttendanceCounts> summarizeBetween(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Same as {@link #summarizeBetween} for a single user (empty if the user has
+     * no attendance rows in the range).
+     */
+    @Query(COUNTS_SELECT + """
+        WHERE u.uid = :userId
+          AND a.attendanceDate BETWEEN :startDate AND :endDate
+        GROUP BY u.uid, u.username
+    """)
+    Optional<AttendanceCounts> summarizeForUserBetween(Long userId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Same rows as {@link #summarizeBetween}, ordered by user id, read through a
+     * forward-only cursor for exports. A fetch size of {@code Integer.MIN_VALUE}
+     * makes MySQL Connector/J stream the result set row by row instead of
+     * buffering it. The stream must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+        @QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(COUNTS_SELECT + """
+        WHERE a.attendanceDate BETWEEN :startDate AND :endDate
+        GROUP BY u.uid, u.username
+        ORDER BY u.uid
+    """)
+    Stream<AttendanceCounts> streamSummaryBetween(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Inserts an ABSENT row for every enabled user with {@code fromUid < uid <= toUid}
+     * that has no attendance row for the date yet (anti-join on the
+     * {@code (uid, attendance_date)} unique key). Running it again for the same
+     * date and range inserts nothing.
+     *
+     * @return the number of users marked absent
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO attendance (uid, attendance_date, status)
+        SELECT u.uid, :date, 'ABSENT'
+        FROM users u
+        WHERE u.enabled = true
+          AND u.uid > :fromUid
+          AND u.uid <= :toUid
+          AND NOT EXISTS (
+              SELECT 1 FROM attendance a
+              WHERE a.uid = u.uid
+                AND a.attendance_date = :date
+          )
+    """, nativeQuery = true)
+    int insertAbsentForUnmarkedUsers(LocalDate date, long fromUid, long toUid);
+
+    /**
+     * Checks in every given user that has no attendance row for the date yet,
+     * in one statement. Users that got a row in the meantime (e.g. from a single
+     * scan) are skipped by the anti-join.
+     *
+     * @return the number of users checked in
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO attendance (uid, attendance_date, check_in_time, status)
+        SELECT u.uid, :date, :now, 'CHECKED_IN'
+        FROM users u
+        WHERE u.uid IN (:userIds)
+          AND NOT EXISTS (
+              SELECT 1 FROM attendance a
+              WHERE a.uid = u.uid
+                AND a.attendance_date = :date
+          )
+    """, nativeQuery = true)
+    int insertCheckIns(LocalDate date, LocalDateTime now, Collection<Long> userIds);
+
+    /**
+     * Checks out every given user that is checked in on the date, in one
+     * statement. Users who checked in at or before {@code fullShiftStart} get
+     * {@code CHECKED_OUT}; the others keep their status (early checkout), like
+     * a single scan. The version is bumped so that a concurrent single scan
+     * of the same row fails its optimistic lock check.
+     *
+     * @return the number of users checked out
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE attendance
+        SET check_out_time = :now,
+            status = CASE WHEN check_in_time <= :fullShiftStart
+                          THEN 'CHECKED_OUT' ELSE status END,
+            version = version + 1
+        WHERE uid IN (:userIds)
+          AND attendance_date = :date
+          AND check_out_time IS NULL
+    """, nativeQuery = true)
+    int checkOutAll(LocalDate date, LocalDateTime now, LocalDateTime fullShiftStart, Collection<Long> userIds);
 }
@@ -0,0 +1,22 @@
+package com.phantask.attendance.repository;
+
+import java.time.LocalDateTime;
+
+import com.phantask.attendance.enums.AttendanceStatus;
+
+/**
+ * Check-in/check-out state of one user's attendance row (see
+ * {@link AttendanceRepository#findScanStates}). Read as scalars, so the values
+ * come from the database even if the row is already loaded as an entity in
+ * the current persistence context.
+ */
+public interface AttendanceScanState {
+
+    Long getUserId();
+
+    LocalDateTime getCheckInTime();
+
+    LocalDateTime getCheckOutTime();
+
+    AttendanceStatus getStatus();
+}
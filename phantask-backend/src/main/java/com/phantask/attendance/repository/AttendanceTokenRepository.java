@@ -2,21 +2,60 @@ package com.phantask.attendance.repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.phantask.attendance.entity.AttendanceToken;
 import com.phantask.authentication.entity.User;
 
+import jakarta.persistence.LockModeType;
+
 public interface AttendanceTokenRepository extends JpaRepository<AttendanceToken, Long> {
 
-    Optional<AttendanceToken> findByTokenAndUsedFalse(String token);
+    Optional<AttendanceToken> findByTokenHash(String tokenHash);
     boolean existsByUserUidAndDate(Long userId, LocalDate date);
+    boolean existsByUserAndDateAndUsedFalse(User user, LocalDate date);
+
+    /**
+     * Unused tokens among the digests, read with {@code SELECT ... FOR UPDATE}:
+     * the rows are locked until the transaction ends and {@code used} is
+     * evaluated on their latest committed state, so no other node can consume
+     * them in the meantime.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM AttendanceToken t WHERE t.tokenHash IN :tokenHashes AND t.used = false")
+    List<AttendanceToken> lockUnusedByTokenHashIn(Collection<String> tokenHashes);
+
+    /**
+     * Marks the token used if it is not yet.
+     *
+     * @return 1 if this call consumed the token, 0 if it is unknown or was
+     *         already used (e.g. by another node)
+     */
+    @Modifying
+    @Query("UPDATE AttendanceToken t SET t.used = true WHERE t.tokenHash = :tokenHash AND t.used = false")
+    int markUsed(String tokenHash);
+
+    @Modifying
+    @Query("UPDATE AttendanceToken t SET t.used = true WHERE t.id IN :ids AND t.used = false")
+    int markUsedByIdIn(Collection<Long> ids);
+
+    /**
+     * Makes a consumed token live again.
+     *
+     * @return 1 if the token was restored
+     */
+    @Modifying
+    @Query("UPDATE AttendanceToken t SET t.used = false WHERE t.tokenHash = :tokenHash AND t.used = true")
+    int markUnused(String tokenHash);
     boolean existsByUserAndDate(User user, LocalDate date);
-    void deleteByExpiresAtBefore(LocalDateTime now);
     
     @Modifying
     @Query("""
@@ -27,5 +66,54 @@ public interface AttendanceTokenRepository extends JpaRepository<AttendanceToken
           AND t.used = false
     """)
     void invalidateActiveTokens(User user, LocalDate date);
+
+    /**
+     * Fills {@code token_hash} for rows written before the column existed,
+     * using MySQL's {@code SHA2} (same lowercase hex as
+     * {@link AttendanceToken#hash(String)}). {@code IGNORE} skips a row whose
+     * digest is already taken, which can only happen for a token string that was
+     * registered twice; such a row stays unmatched and expires.
+     *
+     * @return the number of rows backfilled
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        UPDATE IGNORE attendance_tokens
+        SET token_hash = SHA2(token, 256)
+        WHERE token_hash IS NULL
+    """, nativeQuery = true)
+    int backfillTokenHashes();
+
+    /**
+     * Deletes at most {@code limit} tokens that expired before {@code now},
+     * oldest first along {@code idx_attendance_token_expires_at}, so each call is
+     * a short transaction that locks a bounded number of rows.
+     *
+     * @return the number of rows deleted
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        DELETE FROM attendance_tokens
+        WHERE expires_at < :now
+        ORDER BY expires_at
+        LIMIT :limit
+    """, nativeQuery = true)
+    int deleteExpiredBatch(LocalDateTime now, int limit);
+
+    /**
+     * Deletes at most {@code limit} tokens that were already scanned or replaced.
+     *
+     * @return the number of rows deleted
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        DELETE FROM attendance_tokens
+        WHERE used = true
+        LIMIT :limit
+    """, nativeQuery = true)
+    int deleteUsedBatch(int limit);
 }
 
@@ -0,0 +1,40 @@
+package com.phantask.attendance.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import com.phantask.attendance.dto.AttendancePercentageResponse;
+
+/**
+ * CSV layout of the attendance percentage report, shared by the synchronous
+ * download and the asynchronous report jobs so both produce the same file.
+ */
+public final class AttendancePercentageCsv {
+
+    public static final String HEADER =
+            "User ID,Username,Total Days,Present Days,Absent Days,Leave Days,Attendance Percentage\n";
+
+    private AttendancePercentageCsv() {
+    }
+
+    /**
+     * Appends one row. An {@link IOException} is rethrown unchecked so that it
+     * can leave the row consumer and abort the cursor instead of reading
+     * further rows.
+     */
+    public static void writeRow(Writer writer, AttendancePercentageResponse r) {
+        try {
+            writer.append(String.valueOf(r.getUserId())).append(',')
+                  .append(r.getUsername()).append(',')
+                  .append(String.valueOf(r.getTotalDays())).append(',')
+                  .append(String.valueOf(r.getPresentDays())).append(',')
+                  .append(String.valueOf(r.getAbsentDays())).append(',')
+                  .append(String.valueOf(r.getLeaveDays())).append(',')
+                  .append(String.valueOf(r.getAttendancePercentage()))
+                  .append('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
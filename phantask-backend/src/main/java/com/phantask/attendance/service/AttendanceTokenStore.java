@@ -0,0 +1,63 @@
+package com.phantask.attendance.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import com.phantask.authentication.entity.User;
+
+/**
+ * Storage of live QR attendance tokens.
+ *
+ * <p>
+ * A user has at most one live token: registering a new one replaces the
+ * previous one. A token is single-use: {@link #consume(String)} hands it out
+ * once and forgets it. The implementation is selected with
+ * {@code attendance.token-store}: {@code memory} (default, see
+ * {@code InMemoryAttendanceTokenStore}) or {@code jpa} (rows in
+ * {@code attendance_tokens}, for deployments with several nodes behind a load
+ * balancer).
+ * </p>
+ */
+public interface AttendanceTokenStore {
+
+	/**
+	 * Registers a token for the user, replacing the user's previous live token.
+	 *
+	 * @throws RuntimeException if the same token is live for another user
+	 */
+	void register(String token, User user, LocalDate date, LocalDateTime expiresAt);
+
+	/**
+	 * Removes and returns the live token. Expired tokens may still be returned
+	 * until they are purged, so callers check {@link LiveAttendanceToken#getExpiresAt()}.
+	 *
+	 * @return the token's owner and expiry, or empty if unknown or already used
+	 */
+	Optional<LiveAttendanceToken> consume(String token);
+
+	/**
+	 * Makes a token returned by {@link #consume(String)} live again, e.g. when
+	 * marking attendance failed without recording anything and the user should
+	 * be able to retry with the same QR code. Does nothing if the token has
+	 * expired or the user has registered a newer token in the meantime.
+	 */
+	void restore(String token, LiveAttendanceToken consumed);
+
+	/**
+	 * Consumes several tokens at once, e.g. for a bulk scan.
+	 *
+	 * @return the live tokens found, keyed by the raw token; unknown or used
+	 *         tokens are absent
+	 */
+	default Map<String, LiveAttendanceToken> consumeAll(Collection<String> tokens) {
+		Map<String, LiveAttendanceToken> consumed = new HashMap<>();
+		for (String token : tokens) {
+			consume(token).ifPresent(live -> consumed.put(token, live));
+		}
+		return consumed;
+	}
+}
@@ -2,7 +2,11 @@ package com.phantask.attendance.service;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
+import com.phantask.attendance.dto.AttendanceCalendarResponse;
+import com.phantask.attendance.dto.AttendanceMarkResult;
+import com.phantask.attendance.dto.AttendancePageResponse;
 import com.phantask.attendance.dto.AttendancePercentageResponse;
 import com.phantask.attendance.entity.Attendance;
 
@@ -10,10 +14,18 @@ public interface IAttendanceService {
 
 	void registerQrToken(String token);
 	Attendance markAttendance(String token);
+	List<AttendanceMarkResult> markAttendanceBulk(List<String> tokens);
 	List<Attendance> getMyAttendance();
+	AttendancePageResponse getMyAttendancePage(LocalDate startDate, LocalDate endDate, LocalDate before, int size);
+	AttendanceCalendarResponse getMyAttendanceCalendar(int year);
 	AttendancePercentageResponse getMyAttendancePercentage();
 	List<AttendancePercentageResponse> getAttendancePercentage(
 	            LocalDate startDate,
 	            LocalDate endDate,
 	            Long userId);
+	void forEachAttendancePercentage(
+	            LocalDate startDate,
+	            LocalDate endDate,
+	            Long userId,
+	            Consumer<AttendancePercentageResponse> consumer);
 }
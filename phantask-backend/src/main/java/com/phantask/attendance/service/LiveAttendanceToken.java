@@ -0,0 +1,19 @@
+package com.phantask.attendance.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A consumed QR token as returned by {@link AttendanceTokenStore#consume(String)}.
+ */
+@Getter
+@AllArgsConstructor
+public class LiveAttendanceToken {
+
+	private final Long userId;
+	private final LocalDate date;
+	private final LocalDateTime expiresAt;
+}
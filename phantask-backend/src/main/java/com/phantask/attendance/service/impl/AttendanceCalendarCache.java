@@ -0,0 +1,169 @@
+package com.phantask.attendance.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.phantask.attendance.enums.AttendanceStatus;
+import com.phantask.attendance.repository.AttendanceDay;
+import com.phantask.attendance.repository.AttendanceRepository;
+
+/**
+ * Bounded Caffeine cache of packed attendance calendars, one per user and
+ * year.
+ *
+ * <p>
+ * A calendar stores a {@value #BITS_PER_DAY}-bit code per day of the year
+ * (see {@link com.phantask.attendance.dto.AttendanceCalendarResponse} for the
+ * layout), {@value #BYTES_PER_YEAR} bytes in total, so a cached year costs
+ * about as much memory as a single {@code Attendance} entity. It is built
+ * from one projection query over the (uid, attendance_date) index.
+ * </p>
+ *
+ * <p>
+ * Entries are evicted by the attendance write paths of this node (scans,
+ * bulk scans, absent marking) and additionally expire after
+ * {@code attendance.calendar-cache.ttl-seconds}, which bounds how stale a
+ * calendar can be after a write on another node.
+ * </p>
+ */
+@Component
+public class AttendanceCalendarCache {
+
+    public static final int BITS_PER_DAY = 3;
+
+    static final int BYTES_PER_YEAR = (366 * BITS_PER_DAY + 7) / 8;
+
+    /** Status names by code; code 0 means "no attendance row", code n is the status with ordinal n - 1. */
+    public static final List<String> CODES;
+
+    static {
+        AttendanceStatus[] statuses = AttendanceStatus.values();
+        if (statuses.length >= 1 << BITS_PER_DAY) {
+            throw new IllegalStateException("Attendance statuses do not fit into " + BITS_PER_DAY + " bits");
+        }
+        List<String> codes = new ArrayList<>(statuses.length + 1);
+        codes.add("NONE");
+        for (AttendanceStatus status : statuses) {
+            codes.add(status.name());
+        }
+        CODES = Collections.unmodifiableList(codes);
+    }
+
+    private final AttendanceRepository attendanceRepo;
+    private final boolean enabled;
+    private final Cache<Long, byte[]> cache;
+
+    public AttendanceCalendarCache(AttendanceRepository attendanceRepo,
+            @Value("${attendance.calendar-cache.enabled:true}") boolean enabled,
+            @Value("${attendance.calendar-cache.max-size:10000}") long maxSize,
+            @Value("${attendance.calendar-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.attendanceRepo = attendanceRepo;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the packed calendar of the user for the year, loading it on a
+     * miss. The returned array is shared and must not be modified.
+     */
+    public byte[] get(Long userId, int year) {
+        if (!enabled) {
+            return load(userId, year);
+        }
+        return cache.get(key(userId, year), k -> load(userId, year));
+    }
+
+    public void evict(Long userId, int year) {
+        cache.invalidate(key(userId, year));
+    }
+
+    /**
+     * Evicts the calendars of every user for the year, e.g. after absent
+     * marking wrote rows for many users at once.
+     */
+    public void evictYear(int year) {
+        cache.asMap().keySet().removeIf(key -> (key & 0xFFFF) == year);
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns size and hit/miss statistics of the cache.
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        return Map.of(
+                "enabled", enabled,
+                "size", cache.estimatedSize(),
+                "hits", stats.hitCount(),
+                "misses", stats.missCount(),
+                "evictions", stats.evictionCount(),
+                "hitRate", stats.hitRate()
+        );
+    }
+
+    private byte[] load(Long userId, int year) {
+        return encode(year, attendanceRepo.findDaysForUserBetween(
+                userId, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31)));
+    }
+
+    /**
+     * Packs the statuses of the given days into a calendar of the year.
+     * Days outside the year are ignored.
+     */
+    static byte[] encode(int year, List<AttendanceDay> days) {
+        byte[] calendar = new byte[BYTES_PER_YEAR];
+        for (AttendanceDay day : days) {
+            LocalDate date = day.getAttendanceDate();
+            if (date == null || date.getYear() != year || day.getStatus() == null) {
+                continue;
+            }
+            int code = day.getStatus().ordinal() + 1;
+            int bit = (date.getDayOfYear() - 1) * BITS_PER_DAY;
+            for (int i = 0; i < BITS_PER_DAY; i++, bit++) {
+                if ((code & (1 << i)) != 0) {
+                    calendar[bit >>> 3] |= (byte) (1 << (bit & 7));
+                }
+            }
+        }
+        return calendar;
+    }
+
+    /**
+     * Reads the status of one day from a packed calendar.
+     *
+     * @param dayOfYear 1-based day of the year
+     * @return the status, or {@code null} if the day has no attendance row
+     */
+    static AttendanceStatus statusOn(byte[] calendar, int dayOfYear) {
+        int bit = (dayOfYear - 1) * BITS_PER_DAY;
+        int code = 0;
+        for (int i = 0; i < BITS_PER_DAY; i++, bit++) {
+            if ((calendar[bit >>> 3] & (1 << (bit & 7))) != 0) {
+                code |= 1 << i;
+            }
+        }
+        return code == 0 ? null : AttendanceStatus.values()[code - 1];
+    }
+
+    private static long key(Long userId, int year) {
+        // callers pass four-digit years, which fit into the low 16 bits
+        return (userId << 16) | (year & 0xFFFF);
+    }
+}
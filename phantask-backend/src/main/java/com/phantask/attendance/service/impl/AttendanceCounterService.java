@@ -0,0 +1,106 @@
+package com.phantask.attendance.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.phantask.attendance.entity.AttendanceCounter;
+import com.phantask.attendance.enums.AttendanceStatus;
+import com.phantask.attendance.repository.AttendanceCounterRepository;
+import com.phantask.attendance.repository.AttendanceRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps {@code attendance_counters} in step with the {@code attendance} table.
+ *
+ * <p>
+ * Every new attendance row adds one day to its user's counters in the same
+ * transaction as the insert: single rows through {@link #recordDay}, and the
+ * set-based inserts (bulk check-ins, nightly absent marking) go through this
+ * service so the INSERT ... SELECT and the matching counter upsert commit
+ * together. A row that is rolled back is therefore never counted, and a row
+ * that is skipped by an anti-join is not counted either.
+ * </p>
+ *
+ * <p>
+ * Status changes of existing rows do not change the counters as long as they
+ * stay within the same bucket (CHECKED_IN to CHECKED_OUT are both present).
+ * Leave marking, when added, should call {@link #recordDay} with
+ * {@code LEAVE} for new rows.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AttendanceCounterService {
+
+    private final AttendanceCounterRepository counterRepo;
+    private final AttendanceRepository attendanceRepo;
+
+    public Optional<AttendanceCounter> find(Long userId) {
+        return counterRepo.findById(userId);
+    }
+
+    /**
+     * Counts one new attendance row of the user. Must run in the transaction
+     * that inserts the row.
+     */
+    @Transactional
+    public void recordDay(Long userId, AttendanceStatus status) {
+        counterRepo.addDay(userId,
+                status.isPresent() ? 1 : 0,
+                status == AttendanceStatus.ABSENT ? 1 : 0,
+                status == AttendanceStatus.LEAVE ? 1 : 0);
+    }
+
+    /**
+     * {@link AttendanceRepository#insertCheckIns} plus the counters of the rows
+     * it inserted, in one transaction.
+     */
+    @Transactional
+    public int insertCheckIns(LocalDate date, LocalDateTime now, Collection<Long> userIds) {
+        int inserted = attendanceRepo.insertCheckIns(date, now, userIds);
+        if (inserted > 0) {
+            counterRepo.addCheckIns(date, now, userIds);
+        }
+        return inserted;
+    }
+
+    /**
+     * {@link AttendanceRepository#insertAbsentForUnmarkedUsers} plus the
+     * counters of the rows it inserted, in one transaction. The rows are told
+     * apart from older ABSENT rows by their id, which is above the highest id
+     * read before the insert (ids are auto-increment). Running the absent job
+     * for the same date on two nodes at once could count a row twice.
+     */
+    @Transactional
+    public int insertAbsent(LocalDate date, long fromUid, long toUid) {
+        long watermark = attendanceRepo.findMaxId();
+        int inserted = attendanceRepo.insertAbsentForUnmarkedUsers(date, fromUid, toUid);
+        if (inserted > 0) {
+            counterRepo.addAbsences(watermark, date, fromUid, toUid);
+        }
+        return inserted;
+    }
+
+    /**
+     * Fills the counters from the attendance table if they are still empty,
+     * e.g. on the first start after the table was introduced.
+     */
+    @Transactional
+    public void initializeIfEmpty() {
+        if (counterRepo.count() > 0) {
+            return;
+        }
+        int users = counterRepo.rebuildAll();
+        if (users > 0) {
+            log.info("Initialized attendance counters for {} user(s)", users);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.phantask.attendance.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.phantask.attendance.dto.AttendanceRollupResponse;
+import com.phantask.attendance.repository.AttendanceDailyRollupRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Materializes per-day, per-department attendance counts into
+ * {@code attendance_daily_rollups} and serves dashboard queries from there.
+ *
+ * <p>
+ * A day is materialized in one short transaction: its rollup rows are deleted
+ * and rewritten by one {@code INSERT ... SELECT} over the day's attendance
+ * rows (a range of the attendance date index). The current day is
+ * materialized nightly after the absent marking; any day can be
+ * materialized on demand.
+ * </p>
+ *
+ * <p>
+ * Past days are kept up to date incrementally: every
+ * {@code attendance.rollup.refresh-interval-ms} the days with attendance rows
+ * changed after their last materialization (compared on
+ * {@code attendance.updated_at}, looking back
+ * {@code attendance.rollup.lookback-hours}) are materialized again, at most
+ * {@code attendance.rollup.max-days-per-run} per run. The materialization
+ * time is recorded {@code attendance.rollup.commit-margin-seconds} early, so a
+ * write that committed just after the snapshot still marks its day as changed.
+ * The department of a user is taken at materialization time.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AttendanceRollupService {
+
+    private final AttendanceDailyRollupRepository rollupRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${attendance.rollup.lookback-hours:48}")
+    private long lookbackHours;
+
+    @Value("${attendance.rollup.max-days-per-run:31}")
+    private int maxDaysPerRun;
+
+    @Value("${attendance.rollup.commit-margin-seconds:60}")
+    private long commitMarginSeconds;
+
+    /**
+     * Materializes the current day once the no-shows have been marked
+     * absent (11:05 PM).
+     */
+    @Scheduled(cron = "${attendance.rollup.cron:0 15 23 * * ?}")
+    public void materializeToday() {
+        materialize(LocalDate.now());
+    }
+
+    /**
+     * Materializes past days whose attendance changed after their rollups
+     * were written.
+     *
+     * @return the number of days materialized
+     */
+    @Scheduled(fixedDelayString = "${attendance.rollup.refresh-interval-ms:900000}",
+            initialDelayString = "${attendance.rollup.refresh-interval-ms:900000}")
+    public int refreshStaleDays() {
+        List<LocalDate> stale = rollupRepo.findStaleDays(
+                LocalDateTime.now().minusHours(lookbackHours),
+                LocalDate.now(),
+                PageRequest.of(0, maxDaysPerRun));
+        for (LocalDate date : stale) {
+            materialize(date);
+        }
+        if (!stale.isEmpty()) {
+            log.info("Re-materialized attendance rollups of {} changed day(s)", stale.size());
+        }
+        return stale.size();
+    }
+
+    /**
+     * Rewrites the rollups of one day.
+     *
+     * @return the number of department rows written
+     */
+    public int materialize(LocalDate date) {
+        long started = System.nanoTime();
+        Integer rows = transactionTemplate.execute(status -> {
+            rollupRepo.deleteByDate(date);
+            return rollupRepo.insertForDate(date, commitMarginSeconds);
+        });
+        log.debug("Materialized {} attendance rollup row(s) for {} in {} ms",
+                rows, date, (System.nanoTime() - started) / 1_000_000);
+        return rows == null ? 0 : rows;
+    }
+
+    /**
+     * Rewrites the rollups of every day in the range, one transaction per day.
+     *
+     * @return the number of department rows written
+     */
+    public int materialize(LocalDate startDate, LocalDate endDate) {
+        int rows = 0;
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            rows += materialize(date);
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the rollups within the date range, optionally of one department
+     * (the empty string selects users without a department).
+     */
+    public List<AttendanceRollupResponse> find(LocalDate startDate, LocalDate endDate, String department) {
+        return (department == null
+                ? rollupRepo.findByRollupDateBetweenOrderByRollupDateAscDepartmentAsc(startDate, endDate)
+                : rollupRepo.findByRollupDateBetweenAndDepartmentOrderByRollupDateAsc(startDate, endDate, department))
+                .stream()
+                .map(AttendanceRollupResponse::new)
+                .toList();
+    }
+}
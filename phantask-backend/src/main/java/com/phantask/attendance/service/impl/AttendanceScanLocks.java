@@ -0,0 +1,86 @@
+package com.phantask.attendance.service.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.phantask.exception.AttendanceAlreadyMarkedException;
+
+/**
+ * Fixed set of lock stripes that serialise QR scans of the same user on this
+ * node.
+ *
+ * <p>
+ * A scan reads the user's attendance row and then inserts or updates it. Two
+ * scans of the same user at the same time (a double tap, two gates) would both
+ * see the same state; holding the user's stripe around the whole transaction
+ * makes the second scan see the committed result of the first. Scans of
+ * different users only contend when they hash to the same stripe, and the
+ * number of locks does not grow with the number of users.
+ * </p>
+ *
+ * <p>
+ * A scan waits at most {@code attendance.scan-lock.timeout-ms} for the stripe
+ * and is then rejected as a conflict instead of tying up a request thread.
+ * Scans on different nodes are not serialised here; they are caught by the
+ * {@code (uid, attendance_date)} unique key and the {@code @Version} column of
+ * {@code Attendance}.
+ * </p>
+ */
+@Component
+public class AttendanceScanLocks {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+    private final long timeoutMillis;
+
+    public AttendanceScanLocks(
+            @Value("${attendance.scan-lock.stripes:256}") int stripes,
+            @Value("${attendance.scan-lock.timeout-ms:3000}") long timeoutMillis) {
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Runs the action while holding the user's stripe.
+     *
+     * @throws AttendanceAlreadyMarkedException if the stripe could not be
+     *                                          acquired in time
+     */
+    public <T> T withUserLock(Long userId, Supplier<T> action) {
+        ReentrantLock lock = lockFor(userId);
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new AttendanceAlreadyMarkedException("Attendance is being marked by another scan, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AttendanceAlreadyMarkedException("Attendance is being marked by another scan, please retry");
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    ReentrantLock lockFor(Long userId) {
+        long h = userId == null ? 0 : userId;
+        // spread the bits so that consecutive uids do not share stripes in patterns
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return locks[(int) h & mask];
+    }
+}
@@ -2,26 +2,50 @@ package com.phantask.attendance.service.impl;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
-
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.phantask.attendance.dto.AttendanceCalendarResponse;
+import com.phantask.attendance.dto.AttendanceEntryResponse;
+import com.phantask.attendance.dto.AttendanceMarkResult;
+import com.phantask.attendance.dto.AttendancePageResponse;
 import com.phantask.attendance.dto.AttendancePercentageResponse;
+import com.phantask.attendance.dto.AttendanceResponse;
+import com.phantask.attendance.dto.EarlyCheckoutEvent;
 import com.phantask.attendance.entity.Attendance;
-import com.phantask.attendance.entity.AttendanceToken;
 import com.phantask.attendance.enums.AttendanceStatus;
+import com.phantask.attendance.repository.AttendanceCounts;
 import com.phantask.attendance.repository.AttendanceRepository;
-import com.phantask.attendance.repository.AttendanceTokenRepository;
+import com.phantask.attendance.repository.AttendanceScanState;
+import com.phantask.attendance.service.AttendanceTokenStore;
 import com.phantask.attendance.service.IAttendanceService;
+import com.phantask.attendance.service.LiveAttendanceToken;
 import com.phantask.authentication.entity.User;
 import com.phantask.authentication.repository.UserRepository;
 import com.phantask.exception.AttendanceAlreadyCompletedException;
 import com.phantask.exception.AttendanceAlreadyMarkedException;
-import com.phantask.notification.email.EmailService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,16 +56,27 @@ import lombok.extern.slf4j.Slf4j;
 public class AttendanceServiceImpl implements IAttendanceService {
 
     private final AttendanceRepository attendanceRepo;
-    private final AttendanceTokenRepository tokenRepo;
+    private final AttendanceTokenStore tokenStore;
     private final UserRepository userRepo;
+    private final AttendanceCounterService counterService;
+    private final AttendanceCalendarCache calendarCache;
+    private final AttendanceScanLocks scanLocks;
+    private final ParallelAttendanceSummarizer reportSummarizer;
+    private final TransactionTemplate transactionTemplate;
     private static final long MIN_SHIFT_MINUTES = 8 * 60; //8-hours
-    private final EmailService emailService;
+    private static final int DEFAULT_ABSENT_BATCH_SIZE = 5000;
+    private static final String UNCONFIRMED_ERROR =
+            "Could not confirm attendance, please check it before scanning again";
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${attendance.absent-marking.batch-size:5000}")
+    private int absentBatchSize;
 
 
     /**
      * Generates a new QR token for the logged-in user to mark attendance.
      * Blocks token generation if attendance is already completed for the day.
-     * Invalidates any previously active tokens for today.
+     * Replaces any previously active token of the user (see {@link AttendanceTokenStore}).
      */
     @Override
     @Transactional
@@ -63,36 +98,74 @@ public class AttendanceServiceImpl implements IAttendanceService {
         	throw new AttendanceAlreadyMarkedException("Attendance already marked for today");
         }
         
-        tokenRepo.invalidateActiveTokens(user, today);
-
-        AttendanceToken attendanceToken = new AttendanceToken();
-        attendanceToken.setToken(token);
-        attendanceToken.setUser(user);
-        attendanceToken.setDate(today);
-        attendanceToken.setExpiresAt(LocalDateTime.now().plusMinutes(5));
-        attendanceToken.setUsed(false);
-
-        tokenRepo.save(attendanceToken);
+        tokenStore.register(token, user, today, LocalDateTime.now().plusMinutes(5));
     }
 
     /**
      * Marks attendance using a scanned QR token.
      * First scan checks the user in, second scan checks the user out.
-     * Further scans are rejected and the token is invalidated after use.
+     * Further scans are rejected. The token is consumed by the lookup, so two
+     * scans cannot both use it; if marking then fails without recording
+     * anything (lock timeout, conflict, database error) the token is restored,
+     * so the suggested retry works with the same QR code.
+     *
+     * <p>
+     * Scans of the same user are serialised on this node by
+     * {@link AttendanceScanLocks}; the lock is held until the transaction has
+     * committed, so a second scan always sees the first one's result. A scan
+     * that loses a race against another node (unique key or {@code @Version}
+     * check) is rejected as a conflict.
+     * </p>
      */
     @Override
-    @Transactional
     public Attendance markAttendance(String token) {
 
-        AttendanceToken attendanceToken = tokenRepo
-        		.findByTokenAndUsedFalse(token)
+        LiveAttendanceToken attendanceToken = tokenStore
+        		.consume(token)
                 .orElseThrow(() -> new RuntimeException("Invalid or used QR token"));
 
         if (attendanceToken.getExpiresAt().isBefore(LocalDateTime.now())) {
             throw new RuntimeException("QR token expired");
         }
 
-        User user = attendanceToken.getUser();
+        Long userId = attendanceToken.getUserId();
+        Attendance saved;
+        try {
+            saved = scanLocks.withUserLock(userId,
+                    () -> transactionTemplate.execute(status -> recordScan(userId)));
+        } catch (RuntimeException e) {
+            restoreToken(token, attendanceToken);
+            if (e instanceof DataIntegrityViolationException || e instanceof OptimisticLockingFailureException) {
+                log.info("Concurrent scan for user {} rejected: {}", userId, e.getClass().getSimpleName());
+                throw new AttendanceAlreadyMarkedException(
+                        "Attendance was marked by another scan at the same time, please retry");
+            }
+            throw e;
+        }
+        calendarCache.evict(userId, saved.getAttendanceDate().getYear());
+        return saved;
+    }
+
+    /**
+     * Gives a consumed token back after a failed scan. A failure here only
+     * means the user has to generate a new QR code, so it is logged, not thrown.
+     */
+    private void restoreToken(String token, LiveAttendanceToken attendanceToken) {
+        try {
+            tokenStore.restore(token, attendanceToken);
+        } catch (RuntimeException e) {
+            log.warn("Could not restore QR token of user {}", attendanceToken.getUserId(), e);
+        }
+    }
+
+    /**
+     * Checks the user in or out. Runs in the transaction opened by
+     * {@link #markAttendance(String)} while holding the user's scan lock.
+     */
+    private Attendance recordScan(Long userId) {
+
+        User user = userRepo.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
         LocalDate today = LocalDate.now();
 
         Attendance attendance = attendanceRepo
@@ -105,6 +178,10 @@ public class AttendanceServiceImpl implements IAttendanceService {
             attendance.setAttendanceDate(today);
             attendance.setCheckInTime(LocalDateTime.now());
             attendance.setStatus(AttendanceStatus.CHECKED_IN);
+            counterService.recordDay(user.getUid(), AttendanceStatus.CHECKED_IN);
+        } else if (attendance.getCheckInTime() == null) {
+            // ABSENT/LEAVE rows have no check-in to check out from
+            throw new AttendanceAlreadyMarkedException("Attendance already recorded as " + attendance.getStatus());
         } else if (attendance.getCheckOutTime() == null) {
         	
         	LocalDateTime now = LocalDateTime.now();
@@ -117,26 +194,303 @@ public class AttendanceServiceImpl implements IAttendanceService {
             if (workedMinutes >= MIN_SHIFT_MINUTES) {
                 attendance.setStatus(AttendanceStatus.CHECKED_OUT);
             } else {
-                // 🔔 Trigger mail
-            	emailService.sendEarlyCheckoutAlert(
+                // 🔔 Trigger mail once the checkout is committed (EarlyCheckoutMailNotifier)
+            	eventPublisher.publishEvent(new EarlyCheckoutEvent(
                         "phantask@zohomail.in", // assumes manager mapping
                         user.getUsername(),
                         attendance.getCheckInTime(),
                         now,
                         workedMinutes
-                );
+                ));
             }
         } else {
         	throw new AttendanceAlreadyCompletedException("Attendance already completed");
         }
 
-        attendanceToken.setUsed(true);
-        tokenRepo.save(attendanceToken);
-        
         log.info("Attendance marked for {}", user.getUsername());   
         return attendanceRepo.save(attendance); //create or update the attendance record
     }
 
+    /**
+     * Marks attendance for a batch of scanned QR tokens (gate scanners).
+     * Every token gets the check-in/check-out semantics of
+     * {@link #markAttendance(String)}, but the whole batch runs a fixed number
+     * of statements: one token lookup, one user and one attendance lookup, one
+     * INSERT ... SELECT for all check-ins and one UPDATE for all check-outs.
+     * Each statement commits on its own, so rejected tokens (and a failing
+     * statement) do not undo the rest of the batch. A user is marked at most
+     * once per batch. Early checkout alerts are published per user once the
+     * UPDATE has committed.
+     *
+     * <p>
+     * A user who is checked in or out by a concurrent scan between the lookup
+     * and the statements is skipped by the INSERT/UPDATE. When a statement
+     * writes fewer rows than expected, the rows are read again and only those
+     * carrying this batch's timestamp are reported as marked.
+     * </p>
+     *
+     * <p>
+     * As in {@link #markAttendance(String)}, the tokens of users that were not
+     * marked (rejected, skipped or failed) are restored, so they can be scanned
+     * again. Only tokens whose outcome could not be confirmed stay consumed.
+     * </p>
+     *
+     * @return one result per token, in request order
+     */
+    @Override
+    public List<AttendanceMarkResult> markAttendanceBulk(List<String> tokens) {
+
+        LocalDate today = LocalDate.now();
+        // stored exactly by the DATETIME(6) columns: identifies the rows this batch wrote
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        AttendanceMarkResult[] results = new AttendanceMarkResult[tokens.size()];
+
+        List<String> presented = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token == null || token.isEmpty()) {
+                results[i] = AttendanceMarkResult.failed(token, "QR token is required");
+            } else {
+                presented.add(token);
+            }
+        }
+
+        Map<String, LiveAttendanceToken> live = tokenStore.consumeAll(presented);
+
+        // request index of the (first) token of each user
+        Map<Long, Integer> indexByUser = new LinkedHashMap<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            String token = tokens.get(i);
+            LiveAttendanceToken attendanceToken = live.get(token);
+            if (attendanceToken == null) {
+                results[i] = AttendanceMarkResult.failed(token, "Invalid or used QR token");
+            } else if (attendanceToken.getExpiresAt().isBefore(now)) {
+                results[i] = AttendanceMarkResult.failed(token, "QR token expired");
+            } else if (indexByUser.putIfAbsent(attendanceToken.getUserId(), i) != null) {
+                results[i] = AttendanceMarkResult.failed(token, "Duplicate scan in batch");
+            }
+        }
+
+        if (!indexByUser.isEmpty()) {
+            Map<Long, User> users = new HashMap<>();
+            Map<Long, Attendance> existing = new HashMap<>();
+            try {
+                for (User user : userRepo.findAllById(indexByUser.keySet())) {
+                    users.put(user.getUid(), user);
+                }
+                for (Attendance attendance : attendanceRepo
+                        .findByUserUidInAndAttendanceDate(indexByUser.keySet(), today)) {
+                    existing.put(attendance.getUser().getUid(), attendance);
+                }
+            } catch (RuntimeException e) {
+                // nothing written yet: every token of the batch can be used again
+                restoreUnrecorded(tokens, results, live, now);
+                throw e;
+            }
+
+            Map<Long, User> checkIns = new LinkedHashMap<>();
+            Map<Long, Attendance> checkOuts = new LinkedHashMap<>();
+            for (Map.Entry<Long, Integer> entry : indexByUser.entrySet()) {
+                int i = entry.getValue();
+                User user = users.get(entry.getKey());
+                Attendance attendance = existing.get(entry.getKey());
+                if (user == null) {
+                    results[i] = AttendanceMarkResult.failed(tokens.get(i), "User not found");
+                } else if (attendance == null) {
+                    checkIns.put(user.getUid(), user);
+                } else if (attendance.getCheckOutTime() != null) {
+                    results[i] = AttendanceMarkResult.failed(tokens.get(i), "Attendance already completed");
+                } else if (attendance.getCheckInTime() == null) {
+                    results[i] = AttendanceMarkResult.failed(tokens.get(i),
+                            "Attendance already recorded as " + attendance.getStatus());
+                } else {
+                    checkOuts.put(user.getUid(), attendance);
+                }
+            }
+
+            checkInAll(checkIns, indexByUser, tokens, results, today, now);
+            checkOutAll(checkOuts, users, indexByUser, tokens, results, today, now);
+            for (Long userId : indexByUser.keySet()) {
+                calendarCache.evict(userId, today.getYear());
+            }
+        }
+
+        restoreUnrecorded(tokens, results, live, now);
+
+        log.info("Bulk scan: {} token(s) for {} user(s), {} marked",
+                tokens.size(), indexByUser.size(),
+                Arrays.stream(results).filter(AttendanceMarkResult::isSuccess).count());
+        return Arrays.asList(results);
+    }
+
+    private void checkInAll(Map<Long, User> checkIns, Map<Long, Integer> indexByUser,
+            List<String> tokens, AttendanceMarkResult[] results, LocalDate today, LocalDateTime now) {
+
+        if (checkIns.isEmpty()) {
+            return;
+        }
+        int inserted;
+        try {
+            inserted = counterService.insertCheckIns(today, now, checkIns.keySet());
+        } catch (DataAccessException e) {
+            log.error("Bulk check-in of {} user(s) failed", checkIns.size(), e);
+            failAll(checkIns.keySet(), indexByUser, tokens, results, "Failed to mark attendance");
+            return;
+        }
+
+        Map<Long, AttendanceScanState> written = null;
+        if (inserted < checkIns.size()) {
+            log.warn("Bulk scan: {} of {} user(s) were checked in concurrently",
+                    checkIns.size() - inserted, checkIns.size());
+            written = findWrittenRows(checkIns.keySet(), indexByUser, tokens, results, today);
+            if (written == null) {
+                return;
+            }
+        }
+
+        for (User user : checkIns.values()) {
+            int i = indexByUser.get(user.getUid());
+            if (written != null
+                    && !isWrittenAt(written.get(user.getUid()), AttendanceScanState::getCheckInTime, now)) {
+                results[i] = AttendanceMarkResult.failed(tokens.get(i), "Attendance already marked");
+                continue;
+            }
+
+            Attendance attendance = new Attendance();
+            attendance.setUser(user);
+            attendance.setAttendanceDate(today);
+            attendance.setCheckInTime(now);
+            attendance.setStatus(AttendanceStatus.CHECKED_IN);
+
+            results[i] = AttendanceMarkResult.marked(tokens.get(i), user.getUsername(),
+                    new AttendanceResponse(attendance));
+        }
+    }
+
+    private void checkOutAll(Map<Long, Attendance> checkOuts, Map<Long, User> users,
+            Map<Long, Integer> indexByUser, List<String> tokens, AttendanceMarkResult[] results,
+            LocalDate today, LocalDateTime now) {
+
+        if (checkOuts.isEmpty()) {
+            return;
+        }
+        int updated;
+        try {
+            updated = attendanceRepo.checkOutAll(today, now, now.minusMinutes(MIN_SHIFT_MINUTES), checkOuts.keySet());
+        } catch (DataAccessException e) {
+            log.error("Bulk check-out of {} user(s) failed", checkOuts.size(), e);
+            failAll(checkOuts.keySet(), indexByUser, tokens, results, "Failed to mark attendance");
+            return;
+        }
+
+        Map<Long, AttendanceScanState> written = null;
+        if (updated < checkOuts.size()) {
+            log.warn("Bulk scan: {} of {} user(s) were checked out concurrently",
+                    checkOuts.size() - updated, checkOuts.size());
+            written = findWrittenRows(checkOuts.keySet(), indexByUser, tokens, results, today);
+            if (written == null) {
+                return;
+            }
+        }
+
+        for (Map.Entry<Long, Attendance> entry : checkOuts.entrySet()) {
+            User user = users.get(entry.getKey());
+            Attendance loaded = entry.getValue();
+            int i = indexByUser.get(user.getUid());
+
+            // no result and no alert for a row this UPDATE did not change
+            if (written != null
+                    && !isWrittenAt(written.get(user.getUid()), AttendanceScanState::getCheckOutTime, now)) {
+                results[i] = AttendanceMarkResult.failed(tokens.get(i), "Attendance already completed");
+                continue;
+            }
+
+            // the loaded row is not modified; the UPDATE above already wrote it
+            Attendance attendance = new Attendance();
+            attendance.setUser(user);
+            attendance.setAttendanceDate(today);
+            attendance.setCheckInTime(loaded.getCheckInTime());
+            attendance.setCheckOutTime(now);
+            attendance.setStatus(loaded.getStatus());
+
+            long workedMinutes = java.time.Duration
+                    .between(loaded.getCheckInTime(), now)
+                    .toMinutes();
+
+            if (workedMinutes >= MIN_SHIFT_MINUTES) {
+                attendance.setStatus(AttendanceStatus.CHECKED_OUT);
+            } else {
+                eventPublisher.publishEvent(new EarlyCheckoutEvent(
+                        "phantask@zohomail.in", // assumes manager mapping
+                        user.getUsername(),
+                        loaded.getCheckInTime(),
+                        now,
+                        workedMinutes
+                ));
+            }
+
+            results[i] = AttendanceMarkResult.marked(tokens.get(i), user.getUsername(),
+                    new AttendanceResponse(attendance));
+        }
+    }
+
+    /**
+     * Reads the current state of the users' rows after a bulk statement wrote
+     * fewer rows than expected. Returns {@code null}, with every user failed,
+     * if the rows cannot be read.
+     */
+    private Map<Long, AttendanceScanState> findWrittenRows(Collection<Long> userIds,
+            Map<Long, Integer> indexByUser, List<String> tokens, AttendanceMarkResult[] results, LocalDate today) {
+        try {
+            Map<Long, AttendanceScanState> states = new HashMap<>();
+            for (AttendanceScanState state : attendanceRepo.findScanStates(userIds, today)) {
+                states.put(state.getUserId(), state);
+            }
+            return states;
+        } catch (DataAccessException e) {
+            log.error("Bulk scan: could not re-read {} user(s)", userIds.size(), e);
+            failAll(userIds, indexByUser, tokens, results, UNCONFIRMED_ERROR);
+            return null;
+        }
+    }
+
+    /**
+     * Restores the consumed, unexpired tokens of a batch that did not mark
+     * anyone. A token with no result yet counts as unmarked; one whose outcome
+     * is unknown stays consumed, as a rescan could mark the user twice.
+     */
+    private void restoreUnrecorded(List<String> tokens, AttendanceMarkResult[] results,
+            Map<String, LiveAttendanceToken> live, LocalDateTime now) {
+        Map<String, LiveAttendanceToken> unrecorded = new HashMap<>(live);
+        for (int i = 0; i < tokens.size(); i++) {
+            AttendanceMarkResult result = results[i];
+            if (result != null && (result.isSuccess() || UNCONFIRMED_ERROR.equals(result.getError()))) {
+                unrecorded.remove(tokens.get(i));
+            }
+        }
+        unrecorded.forEach((token, attendanceToken) -> {
+            if (!attendanceToken.getExpiresAt().isBefore(now)) {
+                restoreToken(token, attendanceToken);
+            }
+        });
+    }
+
+    private static boolean isWrittenAt(AttendanceScanState state,
+            Function<AttendanceScanState, LocalDateTime> time, LocalDateTime now) {
+        return state != null && now.equals(time.apply(state));
+    }
+
+    private static void failAll(Collection<Long> userIds, Map<Long, Integer> indexByUser,
+            List<String> tokens, AttendanceMarkResult[] results, String error) {
+        for (Long userId : userIds) {
+            int i = indexByUser.get(userId);
+            results[i] = AttendanceMarkResult.failed(tokens.get(i), error);
+        }
+    }
+
     /**
      * Returns all attendance records of the currently logged-in user.
      */
@@ -153,32 +507,89 @@ public class AttendanceServiceImpl implements IAttendanceService {
     }
     
     
+    /**
+     * Returns one page of the logged-in user's attendance within
+     * {@code [startDate, endDate]}, newest day first, starting below the
+     * {@code before} cursor (exclusive) when given. One extra row is read to
+     * tell whether an older page exists.
+     */
     @Override
     @Transactional(readOnly = true)
-    public AttendancePercentageResponse getMyAttendancePercentage() {
+    public AttendancePageResponse getMyAttendancePage(
+            LocalDate startDate, LocalDate endDate, LocalDate before, int size) {
 
         String username = SecurityContextHolder.getContext()
-                .getAuthentication()
-                .getName();
+                .getAuthentication().getName();
 
         User user = userRepo.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        LocalDate startDate = user.getCreatedAt().toLocalDate(); // or joining date
-        LocalDate endDate = LocalDate.now();
+        LocalDate upperBound = endDate.plusDays(1);
+        if (before != null && before.isBefore(upperBound)) {
+            upperBound = before;
+        }
 
-        List<Attendance> records = attendanceRepo
-                .findByUserUidAndAttendanceDateBetween(user.getUid(), startDate, endDate);
+        List<AttendanceEntryResponse> rows = attendanceRepo.findPageForUser(
+                user.getUid(), startDate, upperBound, PageRequest.of(0, size + 1));
 
-        if (records.isEmpty()) {
-            return new AttendancePercentageResponse(
-                    user.getUid(),
-                    user.getUsername(),
-                    0, 0, 0, 0, 0
-            );
-        }
+        boolean hasMore = rows.size() > size;
+        List<AttendanceEntryResponse> items = hasMore ? rows.subList(0, size) : rows;
+        LocalDate nextCursor = hasMore ? items.get(items.size() - 1).getDate() : null;
 
-        return calculatePercentage(records);
+        return new AttendancePageResponse(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Returns the logged-in user's attendance for the year as a packed
+     * calendar (see {@link AttendanceCalendarCache}) instead of one entity per
+     * day. Served from the cache when possible.
+     */
+    @Override
+    public AttendanceCalendarResponse getMyAttendanceCalendar(int year) {
+
+        String username = SecurityContextHolder.getContext()
+                .getAuthentication().getName();
+
+        User user = userRepo.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        byte[] calendar = calendarCache.get(user.getUid(), year);
+
+        return new AttendanceCalendarResponse(
+                user.getUid(),
+                year,
+                AttendanceCalendarCache.BITS_PER_DAY,
+                AttendanceCalendarCache.CODES,
+                Base64.getEncoder().encodeToString(calendar)
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AttendancePercentageResponse getMyAttendancePercentage() {
+
+        String username = SecurityContextHolder.getContext()
+                .getAuthentication()
+                .getName();
+
+        User user = userRepo.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // the counters cover the user's whole history, i.e. since joining
+        return counterService
+                .find(user.getUid())
+                .map(counter -> calculatePercentage(
+                        user.getUid(),
+                        user.getUsername(),
+                        counter.getTotalDays(),
+                        counter.getPresentDays(),
+                        counter.getAbsentDays(),
+                        counter.getLeaveDays()))
+                .orElseGet(() -> new AttendancePercentageResponse(
+                        user.getUid(),
+                        user.getUsername(),
+                        0, 0, 0, 0, 0
+                ));
     }
 
     
@@ -186,75 +597,128 @@ public class AttendanceServiceImpl implements IAttendanceService {
      * System marked for No-Shows
      */
     @Scheduled(cron = "0 5 23 * * ?") // 11:05 PM daily
-    @Transactional
     public void markAbsentUsers() {
+        markAbsentUsers(LocalDate.now());
+    }
 
-        LocalDate today = LocalDate.now();
-
-        List<User> users = userRepo.findAllByEnabledTrue();
-
-        for (User user : users) {
-            boolean exists = attendanceRepo
-                .existsByUserAndAttendanceDate(user, today);
-
-            if (!exists) {
-                Attendance attendance = new Attendance();
-                attendance.setUser(user);
-                attendance.setAttendanceDate(today);
-                attendance.setStatus(AttendanceStatus.ABSENT);
-                attendanceRepo.save(attendance);
+    /**
+     * Marks every enabled user without an attendance row for the date as ABSENT.
+     *
+     * <p>
+     * Set-based: one {@code INSERT ... SELECT} anti-join per uid range of
+     * {@code attendance.absent-marking.batch-size} users, each in its own short
+     * transaction, instead of one existence check and one insert per user.
+     * Safe to rerun for the same date: users that already have a row are skipped.
+     * The per-user counters are updated in the same transaction as each insert.
+     * </p>
+     *
+     * @return the number of users marked absent
+     */
+    public int markAbsentUsers(LocalDate date) {
+        long started = System.nanoTime();
+        long maxUid = userRepo.findMaxUid();
+        int batchSize = absentBatchSize > 0 ? absentBatchSize : DEFAULT_ABSENT_BATCH_SIZE;
+
+        int marked = 0;
+        int statements = 0;
+        for (long fromUid = 0; fromUid < maxUid; fromUid += batchSize) {
+            long toUid = Math.min(fromUid + batchSize, maxUid);
+            try {
+                marked += counterService.insertAbsent(date, fromUid, toUid);
+            } catch (DataIntegrityViolationException e) {
+                // A user checked in between the anti-join and the insert; the range is
+                // simply evaluated again and that user is now skipped
+                log.debug("Concurrent attendance insert for uids ({}, {}], retrying", fromUid, toUid);
+                marked += counterService.insertAbsent(date, fromUid, toUid);
+                statements++;
             }
+            statements++;
+        }
+
+        if (marked > 0) {
+            calendarCache.evictYear(date.getYear());
         }
+        log.info("Marked {} user(s) absent for {} with {} statement(s) in {} ms",
+                marked, date, statements, (System.nanoTime() - started) / 1_000_000);
+        return marked;
     }
 
     /**
      * Calculates attendance percentage for users within a given date range.
      * Can be filtered by userId or computed for all users (HR/Admin use).
+     * The counts are aggregated by the database (one row per user), so no
+     * attendance rows are loaded into memory. Long org-wide ranges are
+     * aggregated per month in parallel (see {@link ParallelAttendanceSummarizer});
+     * no transaction is held here, so the request thread does not keep a
+     * connection while the months are aggregated.
      */
     @Override
-    @Transactional(readOnly = true)
     public List<AttendancePercentageResponse> getAttendancePercentage(
             LocalDate startDate, LocalDate endDate, Long userId) {
 
-        List<Attendance> attendances;
+        List<AttendanceCounts> counts;
 
         if (userId != null) {
-            attendances = attendanceRepo
-                    .findByUserUidAndAttendanceDateBetween(userId, startDate, endDate);
+            counts = attendanceRepo
+                    .summarizeForUserBetween(userId, startDate, endDate)
+                    .map(List::of)
+                    .orElse(List.of());
         } else {
-            attendances = attendanceRepo
-                    .findByAttendanceDateBetween(startDate, endDate);
+            counts = reportSummarizer
+                    .summarizeBetween(startDate, endDate);
         }
 
-        // Group by user
-        return attendances.stream()
-                .collect(Collectors.groupingBy(a -> a.getUser().getUid()))
-                .values()
-                .stream()
+        return counts.stream()
                 .map(this::calculatePercentage)
                 .toList();
     }
+
+    /**
+     * Streams the same rows as {@link #getAttendancePercentage} to the consumer
+     * one at a time, read from a forward-only cursor, so an export never holds
+     * the whole report in memory. The consumer runs inside the read-only
+     * transaction that keeps the cursor open.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachAttendancePercentage(
+            LocalDate startDate, LocalDate endDate, Long userId,
+            Consumer<AttendancePercentageResponse> consumer) {
+
+        if (userId != null) {
+            attendanceRepo
+                    .summarizeForUserBetween(userId, startDate, endDate)
+                    .map(this::calculatePercentage)
+                    .ifPresent(consumer);
+            return;
+        }
+
+        try (Stream<AttendanceCounts> rows =
+                attendanceRepo.streamSummaryBetween(startDate, endDate)) {
+            rows.map(this::calculatePercentage)
+                .forEach(consumer);
+        }
+    }
     
     /**
-     * Computes attendance percentage from attendance records of a single user.
+     * Computes attendance percentage from the aggregated counts of a single user.
      * Excludes leave days from the percentage calculation.
      */
     private AttendancePercentageResponse calculatePercentage(
-            List<Attendance> records) {
-
-        long totalDays = records.size();
-
-        long presentDays = records.stream()
-                .filter(a -> a.getStatus().isPresent())
-                .count();
-
-        long absentDays = records.stream()
-                .filter(a -> a.getStatus() == AttendanceStatus.ABSENT)
-                .count();
+            AttendanceCounts counts) {
+
+        return calculatePercentage(
+                counts.getUserId(),
+                counts.getUsername(),
+                counts.getTotalDays(),
+                counts.getPresentDays(),
+                counts.getAbsentDays(),
+                counts.getLeaveDays());
+    }
 
-        long leaveDays = records.stream()
-                .filter(a -> a.getStatus() == AttendanceStatus.LEAVE)
-                .count();
+    private AttendancePercentageResponse calculatePercentage(
+            Long userId, String username,
+            long totalDays, long presentDays, long absentDays, long leaveDays) {
 
         // Usually LEAVE is excluded from denominator
         long effectiveDays = totalDays - leaveDays;
@@ -263,11 +727,9 @@ public class AttendanceServiceImpl implements IAttendanceService {
                 ? 0
                 : (presentDays * 100.0) / effectiveDays;
 
-        Attendance any = records.get(0);
-
         return new AttendancePercentageResponse(
-                any.getUser().getUid(),
-                any.getUser().getUsername(),
+                userId,
+                username,
                 totalDays,
                 presentDays,
                 absentDays,
@@ -0,0 +1,97 @@
+package com.phantask.attendance.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.function.IntUnaryOperator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.phantask.attendance.repository.AttendanceTokenRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Background maintenance of the {@code attendance_tokens} table.
+ *
+ * <p>
+ * Tokens are only useful for a few minutes, but rows were never removed, so
+ * the table (and every insert and {@code invalidateActiveTokens} update on it)
+ * kept growing. This job deletes expired and used tokens in chunks of
+ * {@code attendance.token-purge.batch-size} rows, each chunk in its own short
+ * transaction with a pause in between, so it never holds many row locks or
+ * blocks registrations and scans for long. A run stops after
+ * {@code attendance.token-purge.max-batches} chunks; the rest is picked up by
+ * the next run.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AttendanceTokenPurgeJob {
+
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final AttendanceTokenRepository tokenRepo;
+
+    @Value("${attendance.token-purge.batch-size:500}")
+    private int batchSize;
+
+    @Value("${attendance.token-purge.max-batches:200}")
+    private int maxBatches;
+
+    @Value("${attendance.token-purge.pause-ms:50}")
+    private long pauseMillis;
+
+    @Scheduled(fixedDelayString = "${attendance.token-purge.interval-ms:900000}",
+               initialDelayString = "${attendance.token-purge.initial-delay-ms:60000}")
+    public void purge() {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+
+        int expired = deleteInBatches(limit -> tokenRepo.deleteExpiredBatch(now, limit));
+        int used = deleteInBatches(tokenRepo::deleteUsedBatch);
+
+        if (expired + used > 0) {
+            log.info("Purged {} expired and {} used attendance token(s) in {} ms",
+                    expired, used, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    /**
+     * Runs one bounded delete per transaction until a chunk comes back short
+     * or the per-run budget is spent.
+     *
+     * @return the number of rows deleted
+     */
+    int deleteInBatches(IntUnaryOperator deleteBatch) {
+        int limit = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+        int total = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int deleted = deleteBatch.applyAsInt(limit);
+            total += deleted;
+            if (deleted < limit) {
+                break;
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private boolean pause() {
+        if (pauseMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.phantask.attendance.service.impl;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.phantask.attendance.entity.AttendanceToken;
+import com.phantask.attendance.service.AttendanceTokenStore;
+import com.phantask.attendance.service.LiveAttendanceToken;
+import com.phantask.authentication.entity.User;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link AttendanceTokenStore} that keeps live QR tokens in memory only, so
+ * registering and scanning a token writes nothing to the database.
+ *
+ * <ul>
+ *   <li>Tokens are indexed by their SHA-256 digest (see
+ *       {@link AttendanceToken#hash(String)}) and by user id; the user index
+ *       enforces one live token per user.</li>
+ *   <li>Expiry uses a hashed timing wheel with {@code attendance.token-store.tick-ms}
+ *       wide slots: registration appends to the slot of the expiry tick, and the
+ *       scheduled {@link #tick()} only visits the slots that became due, so its
+ *       cost does not depend on the number of live tokens. Entries further away
+ *       than one revolution stay in their slot until their tick comes round.</li>
+ * </ul>
+ *
+ * Tokens do not survive a restart (users generate a new QR code) and are not
+ * shared between nodes; use {@code attendance.token-store=jpa} for that.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "attendance.token-store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryAttendanceTokenStore implements AttendanceTokenStore {
+
+	private static final int WHEEL_SIZE = 512;
+
+	private final long tickMillis;
+
+	private final Map<String, Entry> byToken = new ConcurrentHashMap<>();
+	private final Map<Long, Entry> byUser = new ConcurrentHashMap<>();
+
+	/** slot i holds the entries whose expiry tick is congruent to i; guarded by the slot */
+	private final ArrayDeque<Entry>[] wheel;
+
+	/** last tick processed by {@link #expireDue(long)}; only touched by the scheduler */
+	private long lastTick;
+
+	@SuppressWarnings("unchecked")
+	public InMemoryAttendanceTokenStore(@Value("${attendance.token-store.tick-ms:1000}") long tickMillis) {
+		this.tickMillis = tickMillis;
+		this.wheel = new ArrayDeque[WHEEL_SIZE];
+		for (int i = 0; i < WHEEL_SIZE; i++) {
+			wheel[i] = new ArrayDeque<>();
+		}
+		this.lastTick = System.currentTimeMillis() / tickMillis;
+	}
+
+	@Override
+	public void register(String token, User user, LocalDate date, LocalDateTime expiresAt) {
+		Long userId = user.getUid();
+		Entry entry = new Entry(AttendanceToken.hash(token), userId, date,
+				expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+
+		Entry other = byToken.get(entry.tokenHash);
+		if (other != null && !other.userId.equals(userId)) {
+			throw new RuntimeException("QR token already registered");
+		}
+
+		byUser.compute(userId, (id, previous) -> {
+			if (previous != null) {
+				byToken.remove(previous.tokenHash, previous);
+			}
+			byToken.put(entry.tokenHash, entry);
+			return entry;
+		});
+		schedule(entry);
+	}
+
+	@Override
+	public Optional<LiveAttendanceToken> consume(String token) {
+		Entry entry = byToken.remove(AttendanceToken.hash(token));
+		if (entry == null) {
+			return Optional.empty();
+		}
+		byUser.remove(entry.userId, entry);
+		return Optional.of(new LiveAttendanceToken(entry.userId, entry.date,
+				LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.expiresAtMillis),
+						ZoneId.systemDefault())));
+	}
+
+	@Override
+	public void restore(String token, LiveAttendanceToken consumed) {
+		long expiresAtMillis = consumed.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		if (expiresAtMillis <= System.currentTimeMillis()) {
+			return;
+		}
+		Entry entry = new Entry(AttendanceToken.hash(token), consumed.getUserId(), consumed.getDate(),
+				expiresAtMillis);
+		// a token registered since the scan (or the same token live again) wins
+		Entry live = byUser.compute(entry.userId, (id, current) ->
+				current != null || byToken.putIfAbsent(entry.tokenHash, entry) != null ? current : entry);
+		if (live == entry) {
+			schedule(entry);
+		}
+	}
+
+	private void schedule(Entry entry) {
+		long expiryTick = Math.floorDiv(entry.expiresAtMillis + tickMillis - 1, tickMillis);
+		ArrayDeque<Entry> slot = wheel[slotOf(expiryTick)];
+		synchronized (slot) {
+			slot.add(entry);
+		}
+	}
+
+	/**
+	 * Advances the wheel to the current time.
+	 */
+	@Scheduled(fixedRateString = "${attendance.token-store.tick-ms:1000}")
+	public void tick() {
+		int expired = expireDue(System.currentTimeMillis());
+		if (expired > 0) {
+			log.debug("Expired {} QR attendance token(s)", expired);
+		}
+	}
+
+	/**
+	 * Drops every entry that expired at or before {@code nowMillis}.
+	 *
+	 * @return the number of live tokens dropped
+	 */
+	synchronized int expireDue(long nowMillis) {
+		long now = nowMillis / tickMillis;
+		if (now <= lastTick) {
+			return 0;
+		}
+		// after a long pause every slot is due once
+		long from = Math.max(lastTick + 1, now - WHEEL_SIZE + 1);
+		int expired = 0;
+		for (long t = from; t <= now; t++) {
+			ArrayDeque<Entry> slot = wheel[slotOf(t)];
+			synchronized (slot) {
+				for (Iterator<Entry> it = slot.iterator(); it.hasNext();) {
+					Entry entry = it.next();
+					if (entry.expiresAtMillis > nowMillis) {
+						continue;
+					}
+					it.remove();
+					if (byToken.remove(entry.tokenHash, entry)) {
+						expired++;
+					}
+					byUser.remove(entry.userId, entry);
+				}
+			}
+		}
+		lastTick = now;
+		return expired;
+	}
+
+	public int size() {
+		return byToken.size();
+	}
+
+	private static int slotOf(long tick) {
+		return (int) Math.floorMod(tick, (long) WHEEL_SIZE);
+	}
+
+	private static final class Entry {
+
+		private final String tokenHash;
+		private final Long userId;
+		private final LocalDate date;
+		private final long expiresAtMillis;
+
+		private Entry(String tokenHash, Long userId, LocalDate date, long expiresAtMillis) {
+			this.tokenHash = tokenHash;
+			this.userId = userId;
+			this.date = date;
+			this.expiresAtMillis = expiresAtMillis;
+		}
+	}
+}
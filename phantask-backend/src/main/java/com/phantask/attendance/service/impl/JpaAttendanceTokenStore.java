@@ -0,0 +1,129 @@
+package com.phantask.attendance.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.phantask.attendance.entity.AttendanceToken;
+import com.phantask.attendance.repository.AttendanceTokenRepository;
+import com.phantask.attendance.service.AttendanceTokenStore;
+import com.phantask.attendance.service.LiveAttendanceToken;
+import com.phantask.authentication.entity.User;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Durable {@link AttendanceTokenStore} backed by the {@code attendance_tokens}
+ * table, for deployments where the node that registers a token is not
+ * necessarily the one that scans it. Enabled with
+ * {@code attendance.token-store=jpa}.
+ */
+@Component
+@ConditionalOnProperty(name = "attendance.token-store", havingValue = "jpa")
+@RequiredArgsConstructor
+public class JpaAttendanceTokenStore implements AttendanceTokenStore {
+
+	private final AttendanceTokenRepository tokenRepo;
+
+	@Override
+	@Transactional
+	public void register(String token, User user, LocalDate date, LocalDateTime expiresAt) {
+		tokenRepo.invalidateActiveTokens(user, date);
+
+		// the digest is unique: re-registering the same token refreshes its row
+		AttendanceToken attendanceToken = tokenRepo
+				.findByTokenHash(AttendanceToken.hash(token))
+				.orElseGet(AttendanceToken::new);
+
+		if (attendanceToken.getUser() != null
+				&& !attendanceToken.getUser().getUid().equals(user.getUid())) {
+			throw new RuntimeException("QR token already registered");
+		}
+
+		attendanceToken.setToken(token);
+		attendanceToken.setUser(user);
+		attendanceToken.setDate(date);
+		attendanceToken.setExpiresAt(expiresAt);
+		attendanceToken.setUsed(false);
+
+		tokenRepo.save(attendanceToken);
+	}
+
+	/**
+	 * A conditional update on the digest decides which caller consumes the
+	 * token, so two nodes scanning the same token cannot both succeed.
+	 */
+	@Override
+	@Transactional
+	public Optional<LiveAttendanceToken> consume(String token) {
+		String tokenHash = AttendanceToken.hash(token);
+		if (tokenRepo.markUsed(tokenHash) == 0) {
+			return Optional.empty();
+		}
+		return tokenRepo.findByTokenHash(tokenHash).map(JpaAttendanceTokenStore::toLive);
+	}
+
+	@Override
+	@Transactional
+	public void restore(String token, LiveAttendanceToken consumed) {
+		if (consumed.getExpiresAt().isBefore(LocalDateTime.now())) {
+			return;
+		}
+		String tokenHash = AttendanceToken.hash(token);
+		AttendanceToken attendanceToken = tokenRepo.findByTokenHash(tokenHash).orElse(null);
+		// register() marks the previous token used: never revive a replaced token
+		if (attendanceToken == null
+				|| tokenRepo.existsByUserAndDateAndUsedFalse(attendanceToken.getUser(), attendanceToken.getDate())) {
+			return;
+		}
+		tokenRepo.markUnused(tokenHash);
+	}
+
+	/**
+	 * One locking {@code IN} lookup on the digest index and one update for all
+	 * tokens. Only the rows that were unused under the lock are flipped and
+	 * returned; tokens consumed concurrently elsewhere are absent.
+	 */
+	@Override
+	@Transactional
+	public Map<String, LiveAttendanceToken> consumeAll(Collection<String> tokens) {
+		Map<String, String> tokensByHash = new HashMap<>();
+		for (String token : tokens) {
+			tokensByHash.put(AttendanceToken.hash(token), token);
+		}
+		if (tokensByHash.isEmpty()) {
+			return Map.of();
+		}
+
+		List<AttendanceToken> locked = tokenRepo.lockUnusedByTokenHashIn(tokensByHash.keySet());
+		if (locked.isEmpty()) {
+			return Map.of();
+		}
+		Map<String, LiveAttendanceToken> consumed = new HashMap<>();
+		List<Long> ids = new ArrayList<>(locked.size());
+		for (AttendanceToken attendanceToken : locked) {
+			ids.add(attendanceToken.getId());
+			consumed.put(tokensByHash.get(attendanceToken.getTokenHash()), toLive(attendanceToken));
+		}
+		int flipped = tokenRepo.markUsedByIdIn(ids);
+		if (flipped != ids.size()) {
+			// cannot happen while the rows are locked; never hand out a token twice
+			throw new IllegalStateException("Consumed " + flipped + " of " + ids.size() + " locked QR token(s)");
+		}
+		return consumed;
+	}
+
+	private static LiveAttendanceToken toLive(AttendanceToken attendanceToken) {
+		return new LiveAttendanceToken(attendanceToken.getUser().getUid(),
+				attendanceToken.getDate(), attendanceToken.getExpiresAt());
+	}
+}
@@ -0,0 +1,211 @@
+package com.phantask.attendance.service.impl;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.phantask.attendance.repository.AttendanceCounts;
+import com.phantask.attendance.repository.AttendanceRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Org-wide attendance counts for long date ranges, aggregated per month in
+ * parallel.
+ *
+ * <p>
+ * A range of at least {@code attendance.report.parallel-min-days} days is
+ * split at month boundaries. Every month is aggregated by
+ * {@link AttendanceRepository#summarizeBetween} in its own read-only
+ * transaction on a dedicated pool, and the per-user partial counts are added
+ * up. Shorter ranges run as a single query on the calling thread.
+ * </p>
+ *
+ * <ul>
+ *   <li>At most {@code attendance.report.parallelism} month queries run at
+ *       once, across all reports, so reports hold at most that many database
+ *       connections and cannot starve the pool used by scans and logins.</li>
+ *   <li>At most {@code attendance.report.queue-capacity} month queries wait.
+ *       A report that does not fit is run as a single query instead.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class ParallelAttendanceSummarizer {
+
+    private final AttendanceRepository attendanceRepo;
+    private final TransactionTemplate readOnlyTx;
+    private final ThreadPoolExecutor executor;
+    private final int parallelism;
+    private final long minDays;
+
+    private final LongAdder parallelReports = new LongAdder();
+    private final LongAdder sequentialReports = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public ParallelAttendanceSummarizer(AttendanceRepository attendanceRepo,
+            PlatformTransactionManager transactionManager,
+            @Value("${attendance.report.parallelism:4}") int parallelism,
+            @Value("${attendance.report.queue-capacity:256}") int queueCapacity,
+            @Value("${attendance.report.parallel-min-days:93}") long minDays) {
+        this.attendanceRepo = attendanceRepo;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.parallelism = Math.max(1, parallelism);
+        this.minDays = minDays;
+        this.executor = new ThreadPoolExecutor(this.parallelism, this.parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), new ReportThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Same rows as {@link AttendanceRepository#summarizeBetween}, ordered by
+     * user id.
+     */
+    public List<AttendanceCounts> summarizeBetween(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate[]> months = splitByMonth(startDate, endDate);
+        if (parallelism == 1 || months.size() < 2
+                || ChronoUnit.DAYS.between(startDate, endDate) + 1 < minDays) {
+            sequentialReports.increment();
+            return sorted(attendanceRepo.summarizeBetween(startDate, endDate));
+        }
+
+        long started = System.nanoTime();
+        List<CompletableFuture<List<AttendanceCounts>>> parts = new ArrayList<>(months.size());
+        try {
+            for (LocalDate[] month : months) {
+                parts.add(CompletableFuture.supplyAsync(() -> readOnlyTx.execute(
+                        status -> attendanceRepo.summarizeBetween(month[0], month[1])), executor));
+            }
+        } catch (RejectedExecutionException e) {
+            parts.forEach(part -> part.cancel(false));
+            rejected.increment();
+            log.warn("Report pool busy, summarizing {} - {} with a single query", startDate, endDate);
+            return sorted(attendanceRepo.summarizeBetween(startDate, endDate));
+        }
+
+        Map<Long, MergedCounts> merged = new HashMap<>();
+        try {
+            for (CompletableFuture<List<AttendanceCounts>> part : parts) {
+                for (AttendanceCounts counts : part.join()) {
+                    merged.computeIfAbsent(counts.getUserId(), id -> new MergedCounts(id, counts.getUsername()))
+                          .add(counts);
+                }
+            }
+        } catch (CompletionException e) {
+            parts.forEach(part -> part.cancel(false));
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+
+        parallelReports.increment();
+        log.debug("Summarized {} - {} as {} monthly queries in {} ms",
+                startDate, endDate, months.size(), (System.nanoTime() - started) / 1_000_000);
+        return sorted(new ArrayList<>(merged.values()));
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "parallelism", parallelism,
+                "active", executor.getActiveCount(),
+                "queued", executor.getQueue().size(),
+                "parallelReports", parallelReports.sum(),
+                "sequentialReports", sequentialReports.sum(),
+                "rejected", rejected.sum()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Splits {@code [startDate, endDate]} into calendar-month pieces; the first
+     * and last piece may be partial months.
+     */
+    static List<LocalDate[]> splitByMonth(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate[]> months = new ArrayList<>();
+        LocalDate from = startDate;
+        while (!from.isAfter(endDate)) {
+            LocalDate monthEnd = from.with(TemporalAdjusters.lastDayOfMonth());
+            LocalDate to = monthEnd.isBefore(endDate) ? monthEnd : endDate;
+            months.add(new LocalDate[] { from, to });
+            from = to.plusDays(1);
+        }
+        return months;
+    }
+
+    private static List<AttendanceCounts> sorted(List<? extends AttendanceCounts> counts) {
+        List<AttendanceCounts> result = new ArrayList<>(counts);
+        result.sort(Comparator.comparing(AttendanceCounts::getUserId));
+        return result;
+    }
+
+    /**
+     * Sum of the partial counts of one user. Only touched by the calling
+     * thread.
+     */
+    private static final class MergedCounts implements AttendanceCounts {
+
+        private final Long userId;
+        private final String username;
+        private long totalDays;
+        private long presentDays;
+        private long absentDays;
+        private long leaveDays;
+
+        private MergedCounts(Long userId, String username) {
+            this.userId = userId;
+            this.username = username;
+        }
+
+        private void add(AttendanceCounts counts) {
+            totalDays += counts.getTotalDays();
+            presentDays += counts.getPresentDays();
+            absentDays += counts.getAbsentDays();
+            leaveDays += counts.getLeaveDays();
+        }
+
+        @Override public Long getUserId() { return userId; }
+        @Override public String getUsername() { return username; }
+        @Override public long getTotalDays() { return totalDays; }
+        @Override public long getPresentDays() { return presentDays; }
+        @Override public long getAbsentDays() { return absentDays; }
+        @Override public long getLeaveDays() { return leaveDays; }
+    }
+
+    private static final class ReportThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "attendance-report-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import java.util.Map;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -12,11 +13,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.phantask.authentication.dto.LoginRequest;
+import com.phantask.authentication.security.ratelimit.LoginRateLimiter;
 import com.phantask.authentication.service.api.IAuthService;
 import com.phantask.authentication.service.impl.AuthService;
 
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -41,6 +44,7 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class AuthController {
 	private final IAuthService authService;
+	private final LoginRateLimiter loginRateLimiter;
 
 	/**
 	 * Authenticate a user using the provided credentials.
@@ -52,13 +56,28 @@ public class AuthController {
 	 * user info).
 	 * </p>
 	 *
+	 * <p>
+	 * The {@link LoginRateLimiter} is consulted first, so a locked out username or
+	 * client IP is rejected with 429 before any password hashing happens. Failed
+	 * credentials count against the username and the client IP.
+	 * </p>
+	 *
 	 * @param req the login request payload (validated)
 	 * @return a ResponseEntity containing a map with authentication information
 	 */
 	@PostMapping("/login")
-	public ResponseEntity<Map<String, Object>> login(@RequestBody @Valid LoginRequest req) {
-		Map<String, Object> response = authService.login(req);
-		return ResponseEntity.ok(response);
+	public ResponseEntity<Map<String, Object>> login(@RequestBody @Valid LoginRequest req,
+			HttpServletRequest httpRequest) {
+		String clientIp = httpRequest.getRemoteAddr();
+		loginRateLimiter.checkLogin(req.getUsername(), clientIp);
+		try {
+			Map<String, Object> response = authService.login(req);
+			loginRateLimiter.recordLoginSuccess(req.getUsername());
+			return ResponseEntity.ok(response);
+		} catch (AuthenticationException e) {
+			loginRateLimiter.recordLoginFailure(req.getUsername(), clientIp);
+			throw e;
+		}
 	}
 
 
@@ -66,23 +85,26 @@ public class AuthController {
 	 * Handles refresh-token requests.
 	 *
 	 * Steps:
+	 * 0. Apply the per-IP refresh rate limit (429 when exceeded).
 	 * 1. Verify that the Authorization header exists and starts with "Bearer ".
 	 * 2. Extract the refresh token from the header.
-	 * 3. Pass the token to the service to validate it and generate a new access token.
-	 * 4. Return the new access token to the client.
+	 * 3. Pass the token to the service to validate it and rotate it.
+	 * 4. Return the new access token and the new refresh token to the client;
+	 *    the presented refresh token can no longer be used.
 	 *
-	 * If the refresh token is expired or invalid,
+	 * If the refresh token is expired, invalid or was already used,
 	 * the user must log in again.
 	 */
 	@PostMapping("/refresh-token")
-	public ResponseEntity<Map<String, String>> refreshToken(@RequestHeader("Authorization") String authHeader) {
+	public ResponseEntity<Map<String, String>> refreshToken(@RequestHeader("Authorization") String authHeader,
+			HttpServletRequest httpRequest) {
+		loginRateLimiter.checkRefresh(httpRequest.getRemoteAddr());
 		if (authHeader == null || !authHeader.startsWith("Bearer ")) {
 			return ResponseEntity.badRequest().body(Map.of("error", "Invalid Authorization header"));
 		}
 		try {
 			String refreshToken = authHeader.substring(7);
-			String newToken = authService.refreshToken(refreshToken);
-			return ResponseEntity.ok(Map.of("token", newToken));
+			return ResponseEntity.ok(authService.refreshToken(refreshToken));
 		} catch (ExpiredJwtException e) {
 			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Refresh token has expired"));
 		} catch (JwtException ex) {
@@ -103,7 +125,8 @@ public class AuthController {
      *   <li>Expects a header {@code Authorization: Bearer &lt;jwt&gt;}</li>
      *   <li>Parses and validates the token using {@link AuthService}</li>
      *   <li>Returns a small JSON object with fields such as
-     *       {@code username}, {@code roles}, and {@code enabled}</li>
+     *       {@code username}, {@code roles}, and {@code enabled}, read from
+     *       the token claims without a database lookup</li>
      * </ul>
      *
      * @param authHeader the HTTP {@code Authorization} header containing a
@@ -0,0 +1,66 @@
+package com.phantask.authentication.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.phantask.authentication.security.AuthorityRegistry;
+import com.phantask.authentication.security.BoundedLoginExecutor;
+import com.phantask.authentication.security.RefreshTokenStore;
+import com.phantask.authentication.security.UserDetailsCache;
+import com.phantask.authentication.security.UserRevocationRegistry;
+import com.phantask.authentication.security.VerifiedTokenCache;
+import com.phantask.authentication.security.ratelimit.LoginRateLimiter;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller that exposes runtime statistics of the authentication layer.
+ *
+ * <p>
+ * Intended for administrators and monitoring scripts to check how effective the
+ * in-memory caches in front of token verification and user lookups are.
+ * </p>
+ *
+ * <p>
+ * All endpoints are prefixed with "/api/metrics" and require the ADMIN role.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+public class SecurityMetricsController {
+
+	private final VerifiedTokenCache tokenCache;
+	private final UserDetailsCache userDetailsCache;
+	private final UserRevocationRegistry revocationRegistry;
+	private final BoundedLoginExecutor loginExecutor;
+	private final LoginRateLimiter loginRateLimiter;
+	private final RefreshTokenStore refreshTokenStore;
+	private final AuthorityRegistry authorityRegistry;
+
+	/**
+	 * Returns hit/miss counters and sizes of the authentication caches and the
+	 * queue/hash timings of the login pool.
+	 *
+	 * @return 200 OK with one entry per cache
+	 */
+	@PreAuthorize("hasRole('ADMIN')")
+	@GetMapping("/auth")
+	public ResponseEntity<Map<String, Object>> authMetrics() {
+		Map<String, Object> metrics = new LinkedHashMap<>();
+		metrics.put("verifiedTokenCache", tokenCache.getStats());
+		metrics.put("userDetailsCache", userDetailsCache.getStats());
+		metrics.put("revocationRegistrySize", revocationRegistry.size());
+		metrics.put("loginExecutor", loginExecutor.getStats());
+		metrics.put("loginRateLimiter", loginRateLimiter.getStats());
+		metrics.put("refreshTokenStore", refreshTokenStore.getStats());
+		metrics.put("authorityRegistry", authorityRegistry.getStats());
+		return ResponseEntity.ok(metrics);
+	}
+}
@@ -0,0 +1,58 @@
+package com.phantask.authentication.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One login session's chain of refresh tokens.
+ *
+ * <p>
+ * Every successful login starts a new family. Each refresh token of the family
+ * carries its own {@code jti}; only the most recently issued one
+ * ({@code currentJti}) may be exchanged. Presenting an older {@code jti} of the
+ * same family means the token was copied, so the whole family is revoked.
+ * </p>
+ *
+ * <p>
+ * The table holds one small row per active session: rotating a token updates
+ * the row by primary key and revoking a session flips {@code revoked}. Rows are
+ * deleted by a scheduled purge once {@code expiresAt} has passed.
+ * </p>
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "refresh_token_families", indexes = {
+		@Index(name = "idx_refresh_family_username", columnList = "username"),
+		@Index(name = "idx_refresh_family_expires_at", columnList = "expiresAt") })
+public class RefreshTokenFamily {
+
+	@Id
+	@Column(length = 36)
+	private String familyId;
+
+	@Column(nullable = false, length = 36)
+	private String currentJti;
+
+	@Column(nullable = false)
+	private String username;
+
+	// Comma separated role names captured at login, used to mint access tokens on refresh
+	@Column(nullable = false)
+	private String roles;
+
+	@Column(nullable = false)
+	private LocalDateTime expiresAt;
+
+	@Column(nullable = false)
+	private boolean revoked = false;
+}
@@ -0,0 +1,49 @@
+package com.phantask.authentication.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.phantask.authentication.entity.RefreshTokenFamily;
+
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, String> {
+
+    List<RefreshTokenFamily> findAllByRevokedFalseAndExpiresAtAfter(LocalDateTime now);
+
+    /**
+     * Moves the family to the next token, but only if {@code expectedJti} is
+     * still its current token and the family is not revoked.
+     *
+     * @return 1 if the family was rotated, 0 if another request rotated or
+     *         revoked it first
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE RefreshTokenFamily f
+        SET f.currentJti = :nextJti
+        WHERE f.familyId = :familyId
+          AND f.currentJti = :expectedJti
+          AND f.revoked = false
+    """)
+    int rotate(String familyId, String expectedJti, String nextJti);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshTokenFamily f SET f.revoked = true WHERE f.familyId = :familyId")
+    int revokeFamily(String familyId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshTokenFamily f SET f.revoked = true WHERE f.username = :username AND f.revoked = false")
+    int revokeAllByUsername(String username);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshTokenFamily f WHERE f.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+}
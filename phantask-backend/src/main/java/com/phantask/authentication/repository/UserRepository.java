@@ -1,9 +1,11 @@
 package com.phantask.authentication.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.phantask.authentication.entity.User;
 
@@ -55,6 +57,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     List<User> findAllByEnabledTrue();
 
+    /**
+     * Highest user id in the table (0 when empty).
+     *
+     * <p>
+     * Used to split set-based jobs over all users into uid ranges.
+     * </p>
+     *
+     * @return the maximum {@code uid}
+     */
+    @Query("SELECT COALESCE(MAX(u.uid), 0) FROM User u")
+    long findMaxUid();
+
     /**
      * Retrieve all inactive users.
      *
@@ -94,4 +108,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
      *         or empty if not found or already active
      */
     Optional<User> findByUidAndEnabledFalse(Long uid);
+
+    /**
+     * Find users that were deactivated or changed their password after the
+     * given points in time.
+     *
+     * <p>
+     * Used to rebuild the in-memory token revocation registry on startup.
+     * </p>
+     *
+     * @param deactivatedSince      lower bound for {@code deactivatedAt}
+     * @param passwordChangedSince  lower bound for {@code passwordChangedAt}
+     * @return the matching users
+     */
+    List<User> findAllByDeactivatedAtAfterOrPasswordChangedAtAfter(
+            LocalDateTime deactivatedSince, LocalDateTime passwordChangedSince);
 }
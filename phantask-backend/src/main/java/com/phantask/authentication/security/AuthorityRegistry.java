@@ -0,0 +1,147 @@
+package com.phantask.authentication.security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import com.phantask.authentication.entity.Role;
+import com.phantask.authentication.repository.RoleRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Registry of interned, immutable authority collections.
+ *
+ * <p>
+ * Every role name maps to one shared {@link SimpleGrantedAuthority} for the
+ * plain name (for {@code hasAuthority('ADMIN')}) and one for the
+ * {@code ROLE_} prefixed name (for {@code hasRole('ADMIN')}). The collections
+ * handed to Spring Security are computed once per role combination and then
+ * shared by every request with that combination, so authenticating a request
+ * does not create authority objects or lists.
+ * </p>
+ *
+ * <p>
+ * The known roles are loaded from {@link RoleRepository} at startup and
+ * {@code RoleService.addRole} registers new ones. A role that is not known yet
+ * (for example added on another node) is interned on first use. The number of
+ * cached combinations is capped by {@code auth.authorities.max-combinations};
+ * beyond that, collections are still built correctly but not cached.
+ * </p>
+ */
+@Slf4j
+@Component
+public class AuthorityRegistry {
+
+	private static final String ROLE_PREFIX = "ROLE_";
+
+	private final RoleRepository roleRepository;
+	private final int maxCombinations;
+
+	/** role name -> [plain authority, ROLE_ authority] */
+	private final Map<String, GrantedAuthority[]> byRole = new ConcurrentHashMap<>();
+
+	/** role combination (as found in the JWT) -> plain + ROLE_ authorities */
+	private final Map<List<String>, List<GrantedAuthority>> jwtAuthorities = new ConcurrentHashMap<>();
+
+	/** role combination -> ROLE_ authorities only */
+	private final Map<List<String>, List<GrantedAuthority>> prefixedAuthorities = new ConcurrentHashMap<>();
+
+	public AuthorityRegistry(RoleRepository roleRepository,
+			@Value("${auth.authorities.max-combinations:1024}") int maxCombinations) {
+		this.roleRepository = roleRepository;
+		this.maxCombinations = maxCombinations;
+	}
+
+	/**
+	 * Loads all roles from the database and drops cached combinations.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void refresh() {
+		for (Role role : roleRepository.findAll()) {
+			register(role.getRoleName());
+		}
+		jwtAuthorities.clear();
+		prefixedAuthorities.clear();
+		log.info("Authority registry loaded with {} role(s)", byRole.size());
+	}
+
+	/**
+	 * Interns the authorities of a (new) role.
+	 */
+	public void register(String roleName) {
+		authoritiesOf(roleName);
+	}
+
+	/**
+	 * Authorities for roles taken from a JWT: the plain name and, unless the
+	 * role already starts with {@code ROLE_}, the prefixed name.
+	 *
+	 * @param roles role names as found in the token
+	 * @return a shared, unmodifiable list
+	 */
+	public List<GrantedAuthority> forJwtRoles(List<String> roles) {
+		List<GrantedAuthority> cached = jwtAuthorities.get(roles);
+		if (cached != null) {
+			return cached;
+		}
+		List<GrantedAuthority> authorities = new ArrayList<>(roles.size() * 2);
+		for (String role : roles) {
+			GrantedAuthority[] pair = authoritiesOf(role);
+			authorities.add(pair[0]);
+			if (!role.startsWith(ROLE_PREFIX)) {
+				authorities.add(pair[1]);
+			}
+		}
+		return cache(jwtAuthorities, roles, authorities);
+	}
+
+	/**
+	 * Authorities with the {@code ROLE_} prefix only, as used by the
+	 * database-backed {@code UserDetails}.
+	 *
+	 * @return a shared, unmodifiable list
+	 */
+	public List<GrantedAuthority> forRoleNames(List<String> roleNames) {
+		List<GrantedAuthority> cached = prefixedAuthorities.get(roleNames);
+		if (cached != null) {
+			return cached;
+		}
+		List<GrantedAuthority> authorities = new ArrayList<>(roleNames.size());
+		for (String role : roleNames) {
+			authorities.add(authoritiesOf(role)[1]);
+		}
+		return cache(prefixedAuthorities, roleNames, authorities);
+	}
+
+	public Map<String, Object> getStats() {
+		return Map.of(
+				"roles", byRole.size(),
+				"jwtCombinations", jwtAuthorities.size(),
+				"prefixedCombinations", prefixedAuthorities.size());
+	}
+
+	private GrantedAuthority[] authoritiesOf(String role) {
+		return byRole.computeIfAbsent(role, r -> new GrantedAuthority[] {
+				new SimpleGrantedAuthority(r),
+				new SimpleGrantedAuthority(r.startsWith(ROLE_PREFIX) ? r : ROLE_PREFIX + r) });
+	}
+
+	private List<GrantedAuthority> cache(Map<List<String>, List<GrantedAuthority>> cache, List<String> roles,
+			List<GrantedAuthority> authorities) {
+		List<GrantedAuthority> immutable = List.copyOf(authorities);
+		if (cache.size() >= maxCombinations) {
+			return immutable;
+		}
+		List<GrantedAuthority> existing = cache.putIfAbsent(List.copyOf(roles), immutable);
+		return existing != null ? existing : immutable;
+	}
+}
@@ -0,0 +1,154 @@
+package com.phantask.authentication.security;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.phantask.exception.LoginCapacityExceededException;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dedicated, bounded thread pool for the password check of a login.
+ *
+ * <p>
+ * BCrypt is deliberately slow, so a burst of logins running directly on the
+ * servlet threads can occupy all of them and starve unrelated endpoints. Login
+ * verification is therefore handed to this pool:
+ * </p>
+ * <ul>
+ *   <li>At most {@code auth.login-executor.threads} hashes run concurrently
+ *       (defaults to the number of CPU cores).</li>
+ *   <li>At most {@code auth.login-executor.queue-capacity} logins wait for a
+ *       hashing thread. When the queue is full the login is rejected at once
+ *       with {@link LoginCapacityExceededException} (503 + Retry-After), so only
+ *       a bounded number of servlet threads can ever be tied up by logins.</li>
+ *   <li>Time spent waiting in the queue and time spent hashing are recorded
+ *       separately and exposed through {@link #getStats()}.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class BoundedLoginExecutor {
+
+	private final ThreadPoolExecutor executor;
+	private final long timeoutMillis;
+	private final int retryAfterSeconds;
+
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder timedOut = new LongAdder();
+	private final LongAdder queueWaitNanos = new LongAdder();
+	private final LongAdder hashNanos = new LongAdder();
+
+	public BoundedLoginExecutor(
+			@Value("${auth.login-executor.threads:0}") int threads,
+			@Value("${auth.login-executor.queue-capacity:64}") int queueCapacity,
+			@Value("${auth.login-executor.timeout-ms:10000}") long timeoutMillis,
+			@Value("${auth.login-executor.retry-after-seconds:2}") int retryAfterSeconds) {
+		int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new LoginThreadFactory(),
+				new ThreadPoolExecutor.AbortPolicy());
+		this.timeoutMillis = timeoutMillis;
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	/**
+	 * Runs the credential check on the login pool and waits for its result.
+	 * Exceptions thrown by the task (e.g. bad credentials) are rethrown as-is.
+	 *
+	 * @throws LoginCapacityExceededException if the queue is full or the task
+	 *                                        does not finish in time
+	 */
+	public <T> T execute(Supplier<T> task) {
+		long enqueuedAt = System.nanoTime();
+		Future<T> future;
+		try {
+			future = executor.submit(() -> {
+				long startedAt = System.nanoTime();
+				queueWaitNanos.add(startedAt - enqueuedAt);
+				try {
+					return task.get();
+				} finally {
+					hashNanos.add(System.nanoTime() - startedAt);
+					completed.increment();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			rejected.increment();
+			throw new LoginCapacityExceededException(
+					"Too many concurrent logins, please retry shortly", retryAfterSeconds);
+		}
+
+		try {
+			return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException runtime) {
+				throw runtime;
+			}
+			if (cause instanceof Error error) {
+				throw error;
+			}
+			throw new IllegalStateException("Login verification failed", cause);
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			timedOut.increment();
+			throw new LoginCapacityExceededException(
+					"Login verification timed out, please retry shortly", retryAfterSeconds);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			future.cancel(true);
+			throw new LoginCapacityExceededException("Login verification interrupted", retryAfterSeconds);
+		}
+	}
+
+	/**
+	 * Returns pool occupancy and average queue-wait vs. hash time.
+	 */
+	public Map<String, Object> getStats() {
+		long done = completed.sum();
+		return Map.of(
+				"poolSize", executor.getMaximumPoolSize(),
+				"active", executor.getActiveCount(),
+				"queued", executor.getQueue().size(),
+				"queueRemainingCapacity", executor.getQueue().remainingCapacity(),
+				"completed", done,
+				"rejected", rejected.sum(),
+				"timedOut", timedOut.sum(),
+				"avgQueueWaitMs", done == 0 ? 0.0 : queueWaitNanos.sum() / 1_000_000.0 / done,
+				"avgHashMs", done == 0 ? 0.0 : hashNanos.sum() / 1_000_000.0 / done
+		);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	private static final class LoginThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "login-hash-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
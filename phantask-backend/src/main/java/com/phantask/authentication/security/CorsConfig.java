@@ -10,13 +10,16 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
 @Configuration
 public class CorsConfig {
   
     @Bean
     WebMvcConfigurer corsConfigurer() {
     
-    	System.out.println("1🔥 CORS CONFIG LOADED");
+    	log.debug("CORS MVC mappings configured");
         return new WebMvcConfigurer() {
             @Override
             public void addCorsMappings(CorsRegistry registry) {
@@ -38,7 +41,7 @@ public class CorsConfig {
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration config = new CorsConfiguration();
 
-        System.out.println("2🔥 CORS CONFIG LOADED");
+        log.debug("CORS configuration source configured");
 
         config.setAllowedOriginPatterns(List.of(
             "http://localhost:*",
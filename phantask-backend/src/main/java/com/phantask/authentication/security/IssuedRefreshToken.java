@@ -0,0 +1,29 @@
+package com.phantask.authentication.security;
+
+import java.util.Date;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Data needed to sign a refresh token handed out by {@link RefreshTokenStore}:
+ * the token's own id, the family it belongs to and the role snapshot used to
+ * mint access tokens when it is exchanged.
+ */
+@Getter
+public final class IssuedRefreshToken {
+
+	private final String jti;
+	private final String familyId;
+	private final String username;
+	private final List<String> roles;
+	private final Date expiresAt;
+
+	public IssuedRefreshToken(String jti, String familyId, String username, List<String> roles, Date expiresAt) {
+		this.jti = jti;
+		this.familyId = familyId;
+		this.username = username;
+		this.roles = roles;
+		this.expiresAt = expiresAt;
+	}
+}
@@ -1,12 +1,13 @@
 package com.phantask.authentication.security;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -21,6 +22,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Servlet filter that inspects incoming HTTP requests for JWT tokens and sets
@@ -31,10 +33,17 @@ import lombok.RequiredArgsConstructor;
  * <ol>
  * <li>Extracts the token from the Authorization header (typically "Bearer
  * &lt;token&gt;")</li>
- * <li>Validates the token using {@link JwtUtil}</li>
+ * <li>Verifies the token once using {@link JwtUtil#verify(String)} (or takes
+ * it from the {@link VerifiedTokenCache} if it was seen before); the
+ * resulting {@link VerifiedToken} is reused for every later check and exposed
+ * as the request attribute {@link VerifiedToken#REQUEST_ATTRIBUTE}</li>
  * <li>Extracts roles from the JWT token and loads them as authorities</li>
- * <li>Creates both ROLE_* and non-prefixed authorities for flexibility</li>
- * <li>If valid, loads user details and sets the Spring Security
+ * <li>Maps them to both ROLE_* and non-prefixed authorities for flexibility,
+ * using the shared collections of the {@link AuthorityRegistry}</li>
+ * <li>Rejects tokens issued before the user was deactivated or changed the
+ * password, using the {@link UserRevocationRegistry}</li>
+ * <li>If valid, loads user details (or, with {@code jwt.stateless-principal},
+ * builds them from the claims alone) and sets the Spring Security
  * {@code Authentication} in the context with JWT-derived authorities</li>
  * </ol>
  * </p>
@@ -51,13 +60,32 @@ import lombok.RequiredArgsConstructor;
  * per request.
  * </p>
  */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
 
 	private final JwtUtil jwtUtil;
+	private final VerifiedTokenCache tokenCache;
+	private final UserRevocationRegistry revocationRegistry;
+	private final AuthorityRegistry authorityRegistry;
 	private final IUserService userService;
 
+	/**
+	 * When enabled the principal is built from the JWT claims only and the user
+	 * is not loaded from the database on each request.
+	 */
+	@Value("${jwt.stateless-principal:false}")
+	private boolean statelessPrincipal;
+
+	/**
+	 * Per-request auth events are logged at DEBUG for roughly one request in
+	 * this many (1 logs every request). Rejections that indicate a real problem
+	 * (failed validation, authentication errors) are always logged at WARN.
+	 */
+	@Value("${auth.logging.sample-rate:100}")
+	private int sampleRate;
+
 	/**
 	 * Extract and validate token from the request, and populate SecurityContext on
 	 * success.
@@ -72,9 +100,8 @@ public class JwtFilter extends OncePerRequestFilter {
 	protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
 			throws ServletException, IOException, java.io.IOException {
 
-		// 🔥 ADD THIS BLOCK (TOP)
+		// CORS pre-flight requests never carry a token
 	    if ("OPTIONS".equalsIgnoreCase(req.getMethod())) {
-	    	System.out.println("❌ RETURNING EARLY (Expired Token) - " + req.getMethod());
 	        chain.doFilter(req, res);
 	        return;
 	    }
@@ -84,61 +111,74 @@ public class JwtFilter extends OncePerRequestFilter {
 		// Skip JWT validation for public endpoints
 		if (path.startsWith("/api/auth/") || path.equals("/api/users/change-password-first-login")
 				|| path.equals("/api/users/update-profile-first-login")) {
-			System.out.println("JWT FILTER: " + req.getMethod());
+			if (sampled()) {
+				log.debug("auth event=public method={} path={}", req.getMethod(), path);
+			}
 			chain.doFilter(req, res);
 			return;
 		}
 
 		String header = req.getHeader("Authorization");
-		String username = null;
-		String token = null;
+		VerifiedToken verified = null;
 		
-		System.out.println("JWT FILTER: " + req.getMethod());
-		
-		// Extract token from Authorization header
+		// Extract token from Authorization header and verify it once for the whole request
 		if (header != null && header.startsWith("Bearer ")) {
-			token = header.substring(7);
+			String token = header.substring(7);
 			try {
-				username = jwtUtil.extractUsername(token);
+				verified = tokenCache.verify(token);
 			} catch (ExpiredJwtException e) {
 				// Token expired - send 401 and stop processing
+				if (sampled()) {
+					log.debug("auth event=token_expired method={} path={}", req.getMethod(), path);
+				}
 				res.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
 				res.setContentType("application/json");
 				res.getWriter().write("{\"error\": \"Token expired, please login again\"}");
 				return;
 			} catch (Exception e) {
 				// Invalid token - send 401 and stop processing
+				if (sampled()) {
+					log.debug("auth event=token_invalid method={} path={} reason={}", req.getMethod(), path,
+							e.getMessage());
+				}
 				res.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
 				res.setContentType("application/json");
 				res.getWriter().write("{\"error\": \"Invalid token\"}");
 				return;
 			}
+
+			// Token issued before the user was deactivated or changed the password
+			if (revocationRegistry.isRevoked(verified)) {
+				if (sampled()) {
+					log.debug("auth event=token_revoked user={} path={}", verified.getUsername(), path);
+				}
+				res.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+				res.setContentType("application/json");
+				res.getWriter().write("{\"error\": \"Token revoked, please login again\"}");
+				return;
+			}
 		}
 
-		// If we have a valid username from the token, authenticate the user
-		if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+		// If we have a verified token, authenticate the user
+		if (verified != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+			String username = verified.getUsername();
 			try {
-				// Extract roles from JWT token claims
-				List<String> rolesFromJwt = jwtUtil.extractRoles(token);
-
-				// Create authorities with both plain and ROLE_ prefixed versions
-				// This allows using both hasAuthority('ADMIN') and hasRole('ADMIN')
-				List<GrantedAuthority> authorities = new ArrayList<>();
-				for (String role : rolesFromJwt) {
-					// Add plain authority (for hasAuthority)
-					authorities.add(new SimpleGrantedAuthority(role));
-
-					// Add ROLE_ prefixed authority (for hasRole)
-					if (!role.startsWith("ROLE_")) {
-						authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
-					}
+				// Roles come from the already verified JWT claims. The registry returns
+				// the shared, precomputed plain + ROLE_ prefixed authorities for this
+				// role combination, so both hasAuthority('ADMIN') and hasRole('ADMIN') work
+				List<GrantedAuthority> authorities = authorityRegistry.forJwtRoles(verified.getRoles());
+
+				UserDetails userDetails;
+				if (statelessPrincipal) {
+					// Principal built from the verified claims only - no database round trip
+					userDetails = new User(username, "", authorities);
+				} else {
+					// Load user details for token validation
+					userDetails = userService.loadUserByUsername(username);
 				}
 
-				// Load user details for token validation
-				UserDetails userDetails = userService.loadUserByUsername(username);
-
 				// Validate token against user details
-				if (jwtUtil.isTokenValid(token, userDetails)) {
+				if (jwtUtil.isTokenValid(verified, userDetails)) {
 
 					// Create authentication token with authorities from JWT
 					// Note: Contains both plain and ROLE_ prefixed authorities
@@ -147,11 +187,16 @@ public class JwtFilter extends OncePerRequestFilter {
 					authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
 					SecurityContextHolder.getContext().setAuthentication(authToken);
 
-//					System.out.println("Authentication successful with authorities: " 
-//							+ SecurityContextHolder.getContext().getAuthentication().getAuthorities());
+					// Hand the verified claims to downstream code so nobody parses the token again
+					req.setAttribute(VerifiedToken.REQUEST_ATTRIBUTE, verified);
+
+					if (sampled()) {
+						log.debug("auth event=authenticated user={} method={} path={} authorities={}", username,
+								req.getMethod(), path, authorities.size());
+					}
 				} else {
 					// Token validation failed - send 403
-					System.err.println("Token validation failed for user: " + username);
+					log.warn("auth event=token_rejected user={} path={}", username, path);
 					res.setStatus(HttpServletResponse.SC_FORBIDDEN);
 					res.setContentType("application/json");
 					res.getWriter().write("{\"error\": \"Invalid or expired token\"}");
@@ -159,8 +204,8 @@ public class JwtFilter extends OncePerRequestFilter {
 				}
 			} catch (Exception e) {
 				// User not found or other authentication error - send 403
-				System.err.println("Authentication error: " + e.getMessage());
-				e.printStackTrace();
+				log.warn("auth event=auth_error user={} path={} error={}", username, path, e.getMessage());
+				log.debug("Authentication error for user {}", username, e);
 				res.setStatus(HttpServletResponse.SC_FORBIDDEN);
 				res.setContentType("application/json");
 				res.getWriter().write("{\"error\": \"Authentication failed: " + e.getMessage() + "\"}");
@@ -171,4 +216,13 @@ public class JwtFilter extends OncePerRequestFilter {
 		// Continue with the filter chain
 		chain.doFilter(req, res);
 	}
+
+	/**
+	 * Decides whether the current per-request auth event is logged. Cheap when
+	 * DEBUG is off, which is the production setting.
+	 */
+	private boolean sampled() {
+		return log.isDebugEnabled()
+				&& (sampleRate <= 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+	}
 }
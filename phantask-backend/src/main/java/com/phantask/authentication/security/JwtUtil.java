@@ -9,9 +9,12 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.phantask.authentication.entity.User;
+
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -20,8 +23,12 @@ import io.jsonwebtoken.security.Keys;
  * JwtUtil handles everything related to JWT tokens in the application:
  *
  * 1. It creates two kinds of tokens:
- *      - ACCESS token: short-lived (15 min), contains username + roles.
- *      - REFRESH token: long-lived (12 hrs), contains only username.
+ *      - ACCESS token: short-lived (15 min), contains username + roles and the
+ *        account flags "enabled" and "firstLogin" (so /api/auth/me can be
+ *        answered from the token alone).
+ *      - REFRESH token: long-lived (12 hrs), contains only username, its own
+ *        id ("jti") and the id of its session ("fid"). Refresh tokens are
+ *        rotated on every use by RefreshTokenStore.
  *
  * 2. ACCESS tokens include user roles because they are used for authorization
  *    on every API request.
@@ -38,67 +45,100 @@ import io.jsonwebtoken.security.Keys;
  *      - validate tokens and check if they are expired
  *
  * 5. The signing key comes from the `jwt.secret` property in application.properties.
- *    HS256 algorithm is used to sign the tokens.
+ *    HS256 algorithm is used to sign the tokens. The key and the parser built
+ *    from it are created once at startup and reused for every token.
+ *
+ * 6. verify(token) checks the signature and parses the claims exactly once and
+ *    returns a VerifiedToken. Callers that need several claims from the same
+ *    token (like JwtFilter) should use it instead of the extractX(...) helpers,
+ *    each of which verifies the token again.
  *
  * Overall flow:
  *      User logs in → UI receives access + refresh tokens → UI uses access token
  *      for API calls → When access token expires → UI calls /refresh-token with
- *      refresh token → server generates a new access token.
+ *      refresh token → server generates a new access token and a new refresh
+ *      token; the old refresh token can no longer be used.
  */
 
 @Component
 public class JwtUtil {
 
     private final long ACCESS_TOKEN_EXP = 1000 * 60 * 5 * 3;          // 15 minutes for testing
-    private final long REFRESH_TOKEN_EXP = 1000 * 60 * 60 * 12;   // 12 hours for testing
 
-    @Value("${jwt.secret}")
-    private String SECRET;
+    private final Key signingKey;
+    private final JwtParser parser;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET.getBytes());
+    public JwtUtil(@Value("${jwt.secret}") String secret) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     // -------------------- Token Generation --------------------
 
     public String generateAccessToken(UserDetails userDetails) {
-        return generateToken(userDetails, "ACCESS", ACCESS_TOKEN_EXP, true);
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(auth -> auth.getAuthority())
+                .collect(Collectors.toList());
+        return generateAccessToken(userDetails.getUsername(), roles,
+                userDetails.isEnabled(), userDetails instanceof User user && user.isFirstLogin());
     }
 
-    //modified refresh-token to not hold roles
-    public String generateRefreshToken(UserDetails userDetails) {
-        return generateToken(userDetails, "REFRESH", REFRESH_TOKEN_EXP, false);
+    /**
+     * Mints an access token from a role snapshot, without a {@link UserDetails}.
+     * Used on refresh, where the session is known to belong to an enabled user
+     * that completed the first login.
+     */
+    public String generateAccessToken(String username, List<String> roles) {
+        return generateAccessToken(username, roles, true, false);
     }
 
-    private String generateToken(UserDetails userDetails, String type, long expMillis, boolean includeRoles) {
-        Claims claims = Jwts.claims().setSubject(userDetails.getUsername());
-        claims.put("type", type);
-        
-        if (includeRoles) {
-            List<String> roles = userDetails.getAuthorities().stream()
-                    .map(auth -> auth.getAuthority())
-                    .collect(Collectors.toList());
-            claims.put("roles", roles);
-        }
+    private String generateAccessToken(String username, List<String> roles, boolean enabled, boolean firstLogin) {
+        Claims claims = Jwts.claims().setSubject(username);
+        claims.put("type", "ACCESS");
+        claims.put("roles", roles);
+        claims.put("enabled", enabled);
+        claims.put("firstLogin", firstLogin);
 
         long now = System.currentTimeMillis();
+        return sign(claims, new Date(now), new Date(now + ACCESS_TOKEN_EXP));
+    }
+
+    //modified refresh-token to not hold roles; it only identifies its session in the RefreshTokenStore
+    public String generateRefreshToken(IssuedRefreshToken issued) {
+        Claims claims = Jwts.claims().setSubject(issued.getUsername());
+        claims.put("type", "REFRESH");
+        claims.put("fid", issued.getFamilyId());
+        claims.setId(issued.getJti());
+
+        return sign(claims, new Date(), issued.getExpiresAt());
+    }
+
+    private String sign(Claims claims, Date issuedAt, Date expiration) {
         return Jwts.builder()
                 .setClaims(claims)
-                .setIssuedAt(new Date(now))
-                .setExpiration(new Date(now + expMillis))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(issuedAt)
+                .setExpiration(expiration)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public Claims getClaims(String token) throws JwtException {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     // -------------------- Token Parsing --------------------
+
+    /**
+     * Verifies the signature of the token and parses its claims once.
+     *
+     * @throws ExpiredJwtException if the token is expired
+     * @throws JwtException        if the token is malformed or the signature is invalid
+     */
+    public VerifiedToken verify(String token) throws JwtException {
+        return VerifiedToken.from(getClaims(token));
+    }
     
     public String extractUsername(String token) throws JwtException {
         return getClaims(token).getSubject();
@@ -126,8 +166,11 @@ public class JwtUtil {
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) throws JwtException {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return isTokenValid(verify(token), userDetails);
+    }
+
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.getUsername().equals(userDetails.getUsername()) && !token.isExpired();
     }
 
     public boolean isRefreshToken(String token) throws JwtException {
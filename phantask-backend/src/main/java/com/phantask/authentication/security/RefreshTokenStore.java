@@ -0,0 +1,298 @@
+package com.phantask.authentication.security;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.phantask.authentication.entity.RefreshTokenFamily;
+import com.phantask.authentication.repository.RefreshTokenFamilyRepository;
+
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Refresh-token family store with rotate-on-use and reuse detection.
+ *
+ * <p>
+ * A login opens a family (see {@link RefreshTokenFamily}); every refresh
+ * exchanges the family's current {@code jti} for a new one. If a {@code jti}
+ * that was already exchanged is presented again, the token has been copied and
+ * the whole family is revoked, logging out both the legitimate client and the
+ * attacker.
+ * </p>
+ *
+ * <p>
+ * Families are indexed in memory by family id and by username, so refresh and
+ * revocation are hash lookups. Every state change is written through to the
+ * {@code refresh_token_families} table with a single statement on the primary
+ * key (or the username index). Rotation is a conditional update on the expected
+ * {@code jti}, so two nodes can never both accept the same token; the table,
+ * not the possibly stale in-memory copy, decides whether a token is current.
+ * Families not yet known to this node (issued elsewhere) are loaded by primary
+ * key on first use.
+ * </p>
+ *
+ * <p>
+ * Refresh tokens keep the family's expiry: rotation does not extend a session
+ * beyond {@code jwt.refresh.lifetime-hours} after the login. Expired families are
+ * purged from memory and the table by a scheduled job.
+ * </p>
+ */
+@Slf4j
+@Component
+public class RefreshTokenStore {
+
+	private final RefreshTokenFamilyRepository familyRepo;
+	private final long lifetimeMillis;
+
+	private final Map<String, Family> families = new ConcurrentHashMap<>();
+	private final Map<String, Set<String>> familiesByUser = new ConcurrentHashMap<>();
+
+	private final LongAdder issued = new LongAdder();
+	private final LongAdder rotations = new LongAdder();
+	private final LongAdder reuseDetected = new LongAdder();
+
+	public RefreshTokenStore(RefreshTokenFamilyRepository familyRepo,
+			@Value("${jwt.refresh.lifetime-hours:12}") long lifetimeHours) {
+		this.familyRepo = familyRepo;
+		this.lifetimeMillis = lifetimeHours * 60 * 60 * 1000;
+	}
+
+	/**
+	 * Loads the active families after startup.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadActiveFamilies() {
+		for (RefreshTokenFamily entity : familyRepo.findAllByRevokedFalseAndExpiresAtAfter(LocalDateTime.now())) {
+			index(Family.from(entity));
+		}
+		log.info("Refresh token store loaded with {} active famil(ies)", families.size());
+	}
+
+	/**
+	 * Starts a new family for a fresh login and returns its first token.
+	 */
+	public IssuedRefreshToken issue(String username, List<String> roles) {
+		long expiresAt = System.currentTimeMillis() + lifetimeMillis;
+		Family family = new Family(newId(), username, List.copyOf(roles), expiresAt, newId());
+
+		RefreshTokenFamily entity = new RefreshTokenFamily();
+		entity.setFamilyId(family.familyId);
+		entity.setCurrentJti(family.currentJti);
+		entity.setUsername(username);
+		entity.setRoles(String.join(",", family.roles));
+		entity.setExpiresAt(toLocalDateTime(expiresAt));
+		familyRepo.save(entity);
+
+		index(family);
+		issued.increment();
+		return family.toIssued(family.currentJti);
+	}
+
+	/**
+	 * Exchanges the presented token for the next token of its family.
+	 *
+	 * @param familyId the {@code fid} claim of the presented refresh token
+	 * @param jti      the {@code jti} claim of the presented refresh token
+	 * @return the next token of the family
+	 * @throws JwtException if the family is unknown, expired or revoked, or if
+	 *                      the token was already exchanged (the family is then
+	 *                      revoked)
+	 */
+	public IssuedRefreshToken rotate(String familyId, String jti) {
+		if (familyId == null || jti == null) {
+			throw new JwtException("Refresh token is not bound to a session");
+		}
+		Family family = lookup(familyId);
+		if (family == null || family.isExpired()) {
+			throw new JwtException("Unknown refresh token");
+		}
+
+		synchronized (family) {
+			if (family.revoked) {
+				throw new JwtException("Refresh token revoked. Please login again.");
+			}
+			String next = newId();
+			if (familyRepo.rotate(familyId, jti, next) == 0) {
+				onRejected(family, jti);
+			}
+			family.currentJti = next;
+			rotations.increment();
+			return family.toIssued(next);
+		}
+	}
+
+	/**
+	 * Revokes a single session, e.g. on logout.
+	 */
+	public void revokeFamily(String familyId) {
+		Family family = families.get(familyId);
+		if (family != null) {
+			family.revoked = true;
+		}
+		familyRepo.revokeFamily(familyId);
+	}
+
+	/**
+	 * Revokes every session of the user, e.g. after a password change or
+	 * deactivation.
+	 */
+	public void revokeUser(String username) {
+		Set<String> ids = familiesByUser.get(username);
+		if (ids != null) {
+			for (String id : ids) {
+				Family family = families.get(id);
+				if (family != null) {
+					family.revoked = true;
+				}
+			}
+		}
+		familyRepo.revokeAllByUsername(username);
+	}
+
+	/**
+	 * Drops expired families from memory and from the table.
+	 */
+	@Scheduled(fixedDelayString = "${jwt.refresh.purge-interval-ms:600000}")
+	public void purgeExpired() {
+		long now = System.currentTimeMillis();
+		families.values().removeIf(family -> {
+			if (family.expiresAt > now) {
+				return false;
+			}
+			unindexUser(family);
+			return true;
+		});
+		int deleted = familyRepo.deleteExpired(toLocalDateTime(now));
+		if (deleted > 0) {
+			log.debug("Purged {} expired refresh token famil(ies)", deleted);
+		}
+	}
+
+	public Map<String, Object> getStats() {
+		return Map.of(
+				"activeFamilies", families.size(),
+				"issued", issued.sum(),
+				"rotations", rotations.sum(),
+				"reuseDetected", reuseDetected.sum());
+	}
+
+	public int size() {
+		return families.size();
+	}
+
+	/**
+	 * The conditional update matched no row. Another node may have rotated or
+	 * revoked the family since this node last saw it, so the row is read again
+	 * before the token is treated as reused.
+	 */
+	private void onRejected(Family family, String jti) {
+		RefreshTokenFamily entity = familyRepo.findById(family.familyId).orElse(null);
+		if (entity == null || entity.isRevoked()) {
+			family.revoked = true;
+			throw new JwtException("Refresh token revoked. Please login again.");
+		}
+		family.currentJti = entity.getCurrentJti();
+		if (jti.equals(entity.getCurrentJti())) {
+			// still current in the table: not a reuse, let the client try again
+			throw new JwtException("Refresh token could not be rotated, please retry");
+		}
+		onReuse(family);
+	}
+
+	private void onReuse(Family family) {
+		family.revoked = true;
+		familyRepo.revokeFamily(family.familyId);
+		reuseDetected.increment();
+		log.warn("Refresh token reuse detected for user {}, session {} revoked", family.username, family.familyId);
+		throw new JwtException("Refresh token reuse detected. Please login again.");
+	}
+
+	private Family lookup(String familyId) {
+		Family family = families.get(familyId);
+		if (family != null) {
+			return family;
+		}
+		// issued by another node or after the startup load: one primary key read
+		return familyRepo.findById(familyId)
+				.map(entity -> index(Family.from(entity)))
+				.orElse(null);
+	}
+
+	private Family index(Family family) {
+		Family existing = families.putIfAbsent(family.familyId, family);
+		if (existing != null) {
+			return existing;
+		}
+		familiesByUser.computeIfAbsent(family.username, u -> ConcurrentHashMap.newKeySet()).add(family.familyId);
+		return family;
+	}
+
+	private void unindexUser(Family family) {
+		familiesByUser.computeIfPresent(family.username, (u, ids) -> {
+			ids.remove(family.familyId);
+			return ids.isEmpty() ? null : ids;
+		});
+	}
+
+	private static String newId() {
+		return UUID.randomUUID().toString();
+	}
+
+	private static LocalDateTime toLocalDateTime(long epochMillis) {
+		return LocalDateTime.ofInstant(new Date(epochMillis).toInstant(), ZoneId.systemDefault());
+	}
+
+	/**
+	 * In-memory state of one family. {@code currentJti} is only changed while
+	 * holding the family's monitor.
+	 */
+	private static final class Family {
+
+		private final String familyId;
+		private final String username;
+		private final List<String> roles;
+		private final long expiresAt;
+		private volatile String currentJti;
+		private volatile boolean revoked;
+
+		private Family(String familyId, String username, List<String> roles, long expiresAt, String currentJti) {
+			this.familyId = familyId;
+			this.username = username;
+			this.roles = roles;
+			this.expiresAt = expiresAt;
+			this.currentJti = currentJti;
+		}
+
+		private static Family from(RefreshTokenFamily entity) {
+			List<String> roles = entity.getRoles().isEmpty()
+					? List.of()
+					: List.of(entity.getRoles().split(","));
+			Family family = new Family(entity.getFamilyId(), entity.getUsername(), roles,
+					entity.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+					entity.getCurrentJti());
+			family.revoked = entity.isRevoked();
+			return family;
+		}
+
+		private boolean isExpired() {
+			return expiresAt <= System.currentTimeMillis();
+		}
+
+		private IssuedRefreshToken toIssued(String jti) {
+			return new IssuedRefreshToken(jti, familyId, username, roles, new Date(expiresAt));
+		}
+	}
+}
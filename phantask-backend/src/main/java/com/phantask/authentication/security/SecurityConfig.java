@@ -15,6 +15,8 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfigurationSource;
 import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
+import lombok.extern.slf4j.Slf4j;
 /*
 Main Spring Security configuration class.
 
@@ -24,6 +26,7 @@ What this file does:
 - Turns off sessions (we use JWT → stateless authentication).
 - Enables CORS and disables CSRF for APIs.
 */
+@Slf4j
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
@@ -44,7 +47,7 @@ public class SecurityConfig {
    */
     @Bean
     SecurityFilterChain filterChain(HttpSecurity http, JwtFilter jwtFilter, CorsConfigurationSource corsConfigurationSource) throws Exception {
-    	System.out.println("🔥 SECURITY CONFIG LOADED");
+    	log.debug("Security filter chain configured");
         http
             //.cors(cors -> cors.configurationSource(corsConfigurationSource)) // enable CORS using CorsConfig
             .cors(cors -> {})
@@ -0,0 +1,83 @@
+package com.phantask.authentication.security;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Bounded Caffeine cache of the {@link UserDetails} built by
+ * {@code UserService.loadUserByUsername}.
+ *
+ * <p>
+ * The cached values are Spring Security users (username, password hash,
+ * authorities), never JPA entities. Every lookup returns a copy: the
+ * authentication manager erases the credentials of the principal after a
+ * successful login, which would otherwise clear the cached password hash and
+ * fail the user's next login. Entries are evicted by the user management write paths
+ * (deactivate, reactivate, password change, admin edit, role assignment) and
+ * additionally expire after {@code auth.user-cache.ttl-seconds}.
+ * </p>
+ */
+@Component
+public class UserDetailsCache {
+
+	private final boolean enabled;
+	private final Cache<String, UserDetails> cache;
+
+	public UserDetailsCache(
+			@Value("${auth.user-cache.enabled:true}") boolean enabled,
+			@Value("${auth.user-cache.max-size:5000}") long maxSize,
+			@Value("${auth.user-cache.ttl-seconds:300}") long ttlSeconds) {
+		this.enabled = enabled;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+				.recordStats()
+				.build();
+	}
+
+	/**
+	 * Returns a copy of the cached user details, loading them with the given
+	 * loader if needed. Exceptions thrown by the loader (e.g. user not found) are propagated and
+	 * nothing is cached.
+	 */
+	public UserDetails get(String username, Function<String, UserDetails> loader) {
+		if (!enabled) {
+			return loader.apply(username);
+		}
+		return User.withUserDetails(cache.get(username, loader)).build();
+	}
+
+	public void evict(String username) {
+		cache.invalidate(username);
+	}
+
+	public void evictAll() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * Returns size and hit/miss statistics of the cache.
+	 */
+	public Map<String, Object> getStats() {
+		CacheStats stats = cache.stats();
+		return Map.of(
+				"enabled", enabled,
+				"size", cache.estimatedSize(),
+				"hits", stats.hitCount(),
+				"misses", stats.missCount(),
+				"evictions", stats.evictionCount(),
+				"hitRate", stats.hitRate(),
+				"averageLoadPenaltyMs", stats.averageLoadPenalty() / 1_000_000.0
+		);
+	}
+}
@@ -0,0 +1,111 @@
+package com.phantask.authentication.security;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.phantask.authentication.entity.User;
+import com.phantask.authentication.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory "disabled / changed since" registry used to reject tokens that were
+ * issued before a security relevant change of their user.
+ *
+ * <p>
+ * For every user whose account was deactivated or whose password changed, the
+ * registry keeps the epoch second of that change. A token whose {@code iat} is
+ * older than this second is treated as revoked. This lets {@link JwtFilter}
+ * authenticate purely from the JWT claims without loading the user from the
+ * database on every request.
+ * </p>
+ *
+ * <p>
+ * Entries are only needed while a token issued before the change could still be
+ * alive, so they are dropped once they are older than the longest token
+ * lifetime ({@code jwt.revocation.retention-hours}). On startup the registry is
+ * rebuilt from {@code deactivatedAt} / {@code passwordChangedAt} of the users
+ * table for the same window.
+ * </p>
+ *
+ * <p>
+ * JWT timestamps have second precision, so comparisons are done in whole
+ * seconds: a token issued in the same second as the change is still accepted.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserRevocationRegistry {
+
+	private final UserRepository userRepo;
+
+	@Value("${jwt.revocation.retention-hours:12}")
+	private long retentionHours;
+
+	private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+	/**
+	 * Rebuilds the registry from the users table after startup.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadRecentChanges() {
+		LocalDateTime since = LocalDateTime.now().minusHours(retentionHours);
+		for (User user : userRepo.findAllByDeactivatedAtAfterOrPasswordChangedAtAfter(since, since)) {
+			if (user.getDeactivatedAt() != null) {
+				revokeTokensIssuedBefore(user.getUsername(), user.getDeactivatedAt());
+			}
+			if (user.getPasswordChangedAt() != null) {
+				revokeTokensIssuedBefore(user.getUsername(), user.getPasswordChangedAt());
+			}
+		}
+		log.info("Token revocation registry loaded with {} user(s)", revokedBefore.size());
+	}
+
+	/**
+	 * Revokes every token of the user that was issued before the given time.
+	 * Keeps the latest cut-off if one is already registered.
+	 */
+	public void revokeTokensIssuedBefore(String username, LocalDateTime changedAt) {
+		long epochSecond = changedAt.atZone(ZoneId.systemDefault()).toEpochSecond();
+		revokedBefore.merge(username, epochSecond, Math::max);
+	}
+
+	/**
+	 * Returns {@code true} if the token was issued before the last registered
+	 * change of its user.
+	 */
+	public boolean isRevoked(VerifiedToken token) {
+		Long cutOff = revokedBefore.get(token.getUsername());
+		if (cutOff == null) {
+			return false;
+		}
+		if (token.getIssuedAt() == null) {
+			return true;
+		}
+		return token.getIssuedAt().getTime() / 1000 < cutOff;
+	}
+
+	/**
+	 * Drops entries that are older than any token that could still be alive.
+	 */
+	@Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:600000}")
+	public void purgeStaleEntries() {
+		long oldest = LocalDateTime.now().minusHours(retentionHours)
+				.atZone(ZoneId.systemDefault()).toEpochSecond();
+		revokedBefore.values().removeIf(cutOff -> cutOff < oldest);
+	}
+
+	public int size() {
+		return revokedBefore.size();
+	}
+}
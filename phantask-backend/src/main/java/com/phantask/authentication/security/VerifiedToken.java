@@ -0,0 +1,88 @@
+package com.phantask.authentication.security;
+
+import java.util.Date;
+import java.util.List;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+
+/**
+ * Immutable view of a JWT whose signature has already been verified.
+ *
+ * <p>
+ * {@link JwtUtil#verify(String)} parses the token and checks the HMAC exactly
+ * once and copies the claims the application needs into this object. The
+ * {@link JwtFilter} then works only with this object and stores it as a request
+ * attribute under {@link #REQUEST_ATTRIBUTE}, so that services which need the
+ * token data (roles, issue time, expiry) do not parse the token again.
+ * </p>
+ */
+@Getter
+public final class VerifiedToken {
+
+	/** Request attribute under which {@link JwtFilter} exposes the verified token. */
+	public static final String REQUEST_ATTRIBUTE = VerifiedToken.class.getName();
+
+	private final String username;
+	private final String type;
+	private final List<String> roles;
+	private final Date issuedAt;
+	private final Date expiration;
+	private final boolean enabled;
+	private final boolean firstLogin;
+	/** {@code jti} of a refresh token, {@code null} for access tokens. */
+	private final String tokenId;
+	/** Session ({@code fid}) a refresh token belongs to, {@code null} for access tokens. */
+	private final String familyId;
+
+	private VerifiedToken(String username, String type, List<String> roles, Date issuedAt, Date expiration,
+			boolean enabled, boolean firstLogin, String tokenId, String familyId) {
+		this.username = username;
+		this.type = type;
+		this.roles = roles;
+		this.issuedAt = issuedAt;
+		this.expiration = expiration;
+		this.enabled = enabled;
+		this.firstLogin = firstLogin;
+		this.tokenId = tokenId;
+		this.familyId = familyId;
+	}
+
+	/**
+	 * Copies the relevant claims out of an already verified claims body.
+	 *
+	 * <p>
+	 * Tokens without the {@code enabled} / {@code firstLogin} claims are only
+	 * ever issued to enabled users that completed their first login, so those
+	 * values are used as defaults.
+	 * </p>
+	 */
+	@SuppressWarnings("unchecked")
+	static VerifiedToken from(Claims claims) {
+		Object roles = claims.get("roles");
+		Boolean enabled = claims.get("enabled", Boolean.class);
+		Boolean firstLogin = claims.get("firstLogin", Boolean.class);
+		return new VerifiedToken(
+				claims.getSubject(),
+				(String) claims.get("type"),
+				roles == null ? List.of() : List.copyOf((List<String>) roles),
+				claims.getIssuedAt(),
+				claims.getExpiration(),
+				enabled == null || enabled,
+				firstLogin != null && firstLogin,
+				claims.getId(),
+				(String) claims.get("fid"));
+	}
+
+	public boolean isAccessToken() {
+		return "ACCESS".equals(type);
+	}
+
+	public boolean isRefreshToken() {
+		return "REFRESH".equals(type);
+	}
+
+	public boolean isExpired() {
+		return expiration != null && expiration.before(new Date());
+	}
+}
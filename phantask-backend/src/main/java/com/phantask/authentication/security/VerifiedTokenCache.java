@@ -0,0 +1,237 @@
+package com.phantask.authentication.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded LRU/TTL cache of tokens that have already passed signature
+ * verification.
+ *
+ * <p>
+ * An access token is presented many times during its lifetime; only the first
+ * presentation pays for HMAC verification and claim parsing in
+ * {@link JwtUtil#verify(String)}, later ones are answered from this cache.
+ * </p>
+ *
+ * <ul>
+ *   <li>Keys are the SHA-256 digest of the token string, so raw tokens are never
+ *       kept in memory as map keys.</li>
+ *   <li>An entry lives at most {@code jwt.cache.ttl-seconds} and never beyond the
+ *       token's own {@code exp} claim.</li>
+ *   <li>The cache is split into independently locked segments, each an
+ *       access-ordered {@link LinkedHashMap} that evicts its least recently used
+ *       entry once it is full.</li>
+ *   <li>Invalid or expired tokens are never cached; the exception from
+ *       {@link JwtUtil} is propagated unchanged.</li>
+ * </ul>
+ *
+ * <p>
+ * Invalidation hooks ({@link #invalidateUser(String)}, {@link #invalidateAll()})
+ * are called by the user management write paths so that the next request of an
+ * affected user goes through full verification again.
+ * </p>
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+	private static final int SEGMENTS = 16;
+
+	private final JwtUtil jwtUtil;
+	private final boolean enabled;
+	private final long maxTtlMillis;
+	private final Segment[] segments;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	});
+
+	public VerifiedTokenCache(JwtUtil jwtUtil,
+			@Value("${jwt.cache.enabled:true}") boolean enabled,
+			@Value("${jwt.cache.max-size:10000}") int maxSize,
+			@Value("${jwt.cache.ttl-seconds:900}") long ttlSeconds) {
+		this.jwtUtil = jwtUtil;
+		this.enabled = enabled;
+		this.maxTtlMillis = ttlSeconds * 1000;
+		int perSegment = Math.max(1, maxSize / SEGMENTS);
+		this.segments = new Segment[SEGMENTS];
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment(perSegment);
+		}
+	}
+
+	/**
+	 * Returns the verified claims of the token, verifying it only if no live
+	 * cache entry exists.
+	 *
+	 * @throws JwtException if the token has to be verified and is invalid or expired
+	 */
+	public VerifiedToken verify(String token) throws JwtException {
+		if (!enabled) {
+			return jwtUtil.verify(token);
+		}
+
+		String key = digest(token);
+		Segment segment = segmentFor(key);
+		long now = System.currentTimeMillis();
+
+		synchronized (segment) {
+			Entry entry = segment.get(key);
+			if (entry != null) {
+				if (entry.expiresAt > now) {
+					hits.increment();
+					return entry.token;
+				}
+				segment.remove(key);
+			}
+		}
+
+		misses.increment();
+		VerifiedToken verified = jwtUtil.verify(token);
+
+		long expiresAt = now + maxTtlMillis;
+		if (verified.getExpiration() != null) {
+			expiresAt = Math.min(expiresAt, verified.getExpiration().getTime());
+		}
+		synchronized (segment) {
+			segment.put(key, new Entry(verified, expiresAt));
+		}
+		return verified;
+	}
+
+	/**
+	 * Drops every cached token that belongs to the given user.
+	 */
+	public void invalidateUser(String username) {
+		int removed = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				Iterator<Entry> it = segment.values().iterator();
+				while (it.hasNext()) {
+					if (it.next().token.getUsername().equals(username)) {
+						it.remove();
+						removed++;
+					}
+				}
+			}
+		}
+		log.debug("Invalidated {} cached token(s) for user {}", removed, username);
+	}
+
+	/**
+	 * Drops all cached tokens, e.g. after a change that affects every user.
+	 */
+	public void invalidateAll() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * Removes entries whose token has expired so they do not occupy space until
+	 * they are evicted by newer entries.
+	 */
+	@Scheduled(fixedDelayString = "${jwt.cache.purge-interval-ms:60000}")
+	public void purgeExpired() {
+		long now = System.currentTimeMillis();
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.values().removeIf(entry -> entry.expiresAt <= now);
+			}
+		}
+	}
+
+	/**
+	 * Returns size and hit/miss counters of the cache.
+	 */
+	public Map<String, Object> getStats() {
+		long hitCount = hits.sum();
+		long missCount = misses.sum();
+		long total = hitCount + missCount;
+		return Map.of(
+				"enabled", enabled,
+				"size", size(),
+				"hits", hitCount,
+				"misses", missCount,
+				"evictions", evictions.sum(),
+				"hitRate", total == 0 ? 0.0 : (double) hitCount / total
+		);
+	}
+
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	private Segment segmentFor(String key) {
+		return segments[(key.hashCode() & 0x7fffffff) % SEGMENTS];
+	}
+
+	private static String digest(String token) {
+		byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+		return Base64.getEncoder().encodeToString(hash);
+	}
+
+	private static final class Entry {
+		private final VerifiedToken token;
+		private final long expiresAt;
+
+		private Entry(VerifiedToken token, long expiresAt) {
+			this.token = token;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	/**
+	 * Access-ordered map that evicts its eldest entry once it is full. All access
+	 * is guarded by synchronizing on the segment itself.
+	 */
+	private final class Segment extends LinkedHashMap<String, Entry> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int maxEntries;
+
+		private Segment(int maxEntries) {
+			super(16, 0.75f, true);
+			this.maxEntries = maxEntries;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			if (size() > maxEntries) {
+				evictions.increment();
+				return true;
+			}
+			return false;
+		}
+	}
+}
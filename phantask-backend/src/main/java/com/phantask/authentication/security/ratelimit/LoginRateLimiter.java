@@ -0,0 +1,142 @@
+package com.phantask.authentication.security.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.phantask.exception.TooManyLoginAttemptsException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Token-bucket rate limiting and lockout for the login and refresh-token
+ * endpoints.
+ *
+ * <p>
+ * Limits enforced:
+ * <ul>
+ *   <li>login attempts per client IP ({@code auth.rate-limit.login-per-ip})</li>
+ *   <li>failed logins per username and per client IP; once the failure bucket is
+ *       empty the username / IP is locked out until it refills
+ *       ({@code auth.rate-limit.failures-per-user}, {@code failures-per-ip})</li>
+ *   <li>refresh-token calls per client IP ({@code auth.rate-limit.refresh-per-ip})</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * The checks run before {@code AuthService.login}, so locked out credentials
+ * are rejected without paying for a BCrypt hash. Bucket state is kept in the
+ * configured {@link RateLimitBackend}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class LoginRateLimiter {
+
+	static final String LOGIN_IP = "login-ip";
+	static final String FAILED_USER = "failed-user";
+	static final String FAILED_IP = "failed-ip";
+	static final String REFRESH_IP = "refresh-ip";
+
+	private final RateLimitBackend backend;
+	private final boolean enabled;
+	private final RateLimit loginPerIp;
+	private final RateLimit failuresPerUser;
+	private final RateLimit failuresPerIp;
+	private final RateLimit refreshPerIp;
+
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder failuresRecorded = new LongAdder();
+
+	public LoginRateLimiter(RateLimitBackend backend,
+			@Value("${auth.rate-limit.enabled:true}") boolean enabled,
+			@Value("${auth.rate-limit.login-per-ip.capacity:30}") int loginPerIpCapacity,
+			@Value("${auth.rate-limit.login-per-ip.refill-ms:2000}") long loginPerIpRefill,
+			@Value("${auth.rate-limit.failures-per-user.capacity:5}") int failuresPerUserCapacity,
+			@Value("${auth.rate-limit.failures-per-user.refill-ms:60000}") long failuresPerUserRefill,
+			@Value("${auth.rate-limit.failures-per-ip.capacity:20}") int failuresPerIpCapacity,
+			@Value("${auth.rate-limit.failures-per-ip.refill-ms:15000}") long failuresPerIpRefill,
+			@Value("${auth.rate-limit.refresh-per-ip.capacity:60}") int refreshPerIpCapacity,
+			@Value("${auth.rate-limit.refresh-per-ip.refill-ms:1000}") long refreshPerIpRefill) {
+		this.backend = backend;
+		this.enabled = enabled;
+		this.loginPerIp = new RateLimit(loginPerIpCapacity, loginPerIpRefill);
+		this.failuresPerUser = new RateLimit(failuresPerUserCapacity, failuresPerUserRefill);
+		this.failuresPerIp = new RateLimit(failuresPerIpCapacity, failuresPerIpRefill);
+		this.refreshPerIp = new RateLimit(refreshPerIpCapacity, refreshPerIpRefill);
+	}
+
+	/**
+	 * Rejects the login attempt if the client IP exceeded its attempt rate or if
+	 * the username or IP is locked out after too many failures.
+	 *
+	 * @throws TooManyLoginAttemptsException if the attempt must be rejected
+	 */
+	public void checkLogin(String username, String clientIp) {
+		if (!enabled) {
+			return;
+		}
+		long waitMillis = backend.tryAcquire(LOGIN_IP, clientIp, loginPerIp);
+		if (waitMillis == 0) {
+			waitMillis = Math.max(
+					backend.probe(FAILED_USER, username, failuresPerUser),
+					backend.probe(FAILED_IP, clientIp, failuresPerIp));
+		}
+		if (waitMillis > 0) {
+			reject("Too many login attempts, please try again later", waitMillis, username, clientIp);
+		}
+	}
+
+	/**
+	 * Counts a failed login against the username and the client IP.
+	 */
+	public void recordLoginFailure(String username, String clientIp) {
+		if (!enabled) {
+			return;
+		}
+		failuresRecorded.increment();
+		backend.tryAcquire(FAILED_USER, username, failuresPerUser);
+		backend.tryAcquire(FAILED_IP, clientIp, failuresPerIp);
+	}
+
+	/**
+	 * Clears the failure count of the username after a successful login.
+	 */
+	public void recordLoginSuccess(String username) {
+		if (!enabled) {
+			return;
+		}
+		backend.reset(FAILED_USER, username);
+	}
+
+	/**
+	 * Rejects the refresh-token call if the client IP exceeded its rate.
+	 *
+	 * @throws TooManyLoginAttemptsException if the call must be rejected
+	 */
+	public void checkRefresh(String clientIp) {
+		if (!enabled) {
+			return;
+		}
+		long waitMillis = backend.tryAcquire(REFRESH_IP, clientIp, refreshPerIp);
+		if (waitMillis > 0) {
+			reject("Too many token refresh requests, please try again later", waitMillis, null, clientIp);
+		}
+	}
+
+	public Map<String, Object> getStats() {
+		return Map.of(
+				"enabled", enabled,
+				"backend", backend.getClass().getSimpleName(),
+				"rejected", rejected.sum(),
+				"failuresRecorded", failuresRecorded.sum());
+	}
+
+	private void reject(String message, long waitMillis, String username, String clientIp) {
+		rejected.increment();
+		log.debug("Rate limited auth request: user={}, ip={}, retryAfterMs={}", username, clientIp, waitMillis);
+		throw new TooManyLoginAttemptsException(message, Math.max(1, (waitMillis + 999) / 1000));
+	}
+}
@@ -0,0 +1,37 @@
+package com.phantask.authentication.security.ratelimit;
+
+import lombok.Getter;
+
+/**
+ * Token bucket parameters: a bucket holds at most {@code capacity} tokens and
+ * regains one token every {@code refillPeriodMillis}.
+ */
+@Getter
+public final class RateLimit {
+
+	private final int capacity;
+	private final long refillPeriodMillis;
+
+	public RateLimit(int capacity, long refillPeriodMillis) {
+		if (capacity < 1 || refillPeriodMillis < 1) {
+			throw new IllegalArgumentException("capacity and refill period must be positive");
+		}
+		this.capacity = capacity;
+		this.refillPeriodMillis = refillPeriodMillis;
+	}
+
+	/**
+	 * Tokens regained per nanosecond.
+	 */
+	double refillPerNano() {
+		return 1.0 / (refillPeriodMillis * 1_000_000.0);
+	}
+
+	/**
+	 * Milliseconds until the given (fractional) number of missing tokens has
+	 * been refilled, rounded up.
+	 */
+	long millisUntil(double missingTokens) {
+		return (long) Math.ceil(missingTokens * refillPeriodMillis);
+	}
+}
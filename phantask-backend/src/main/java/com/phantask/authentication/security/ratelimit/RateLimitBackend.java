@@ -0,0 +1,41 @@
+package com.phantask.authentication.security.ratelimit;
+
+/**
+ * Storage of token buckets used by {@link LoginRateLimiter}.
+ *
+ * <p>
+ * The default implementation, {@link StripedRateLimitBackend}, keeps the
+ * buckets in the memory of the current node. To enforce limits across several
+ * backend nodes, provide another implementation (for example on top of a shared
+ * key-value store) as a bean and set {@code auth.rate-limit.backend} to a value
+ * other than {@code local}, which disables the in-memory one.
+ * </p>
+ *
+ * <p>
+ * Buckets are identified by a namespace (the kind of limit, e.g. failed logins
+ * per user) and a key (e.g. the username). Implementations must be thread-safe.
+ * </p>
+ */
+public interface RateLimitBackend {
+
+	/**
+	 * Takes one token from the bucket if one is available.
+	 *
+	 * @return {@code 0} if a token was taken, otherwise the number of
+	 *         milliseconds until the next token becomes available
+	 */
+	long tryAcquire(String namespace, String key, RateLimit limit);
+
+	/**
+	 * Checks whether the bucket has a token without taking it.
+	 *
+	 * @return {@code 0} if a token is available, otherwise the number of
+	 *         milliseconds until the next token becomes available
+	 */
+	long probe(String namespace, String key, RateLimit limit);
+
+	/**
+	 * Refills the bucket completely, e.g. after a successful login.
+	 */
+	void reset(String namespace, String key);
+}
@@ -0,0 +1,174 @@
+package com.phantask.authentication.security.ratelimit;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory {@link RateLimitBackend} built from fixed-size, lock-striped
+ * arrays.
+ *
+ * <p>
+ * Each namespace gets one table, created on first use: two preallocated arrays
+ * (current tokens and last refill time) indexed by a hash of the key, guarded
+ * by a fixed set of lock stripes. Checking a limit therefore allocates nothing,
+ * and memory does not grow with the number of usernames or client addresses
+ * seen.
+ * </p>
+ *
+ * <p>
+ * Two keys of the same namespace that hash to the same slot share a bucket.
+ * With the default table size this is rare and only makes the limit stricter
+ * for the keys involved. Each slot remembers the key that drained it; once a
+ * second key takes a token before the bucket is full again, the slot is
+ * shared and {@link #reset} ignores it, so one key's successful login cannot
+ * refill the failures of another.
+ * </p>
+ *
+ * <p>
+ * Used by default ({@code auth.rate-limit.backend=local}) and as the local
+ * stand-in for a shared backend in tests.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "auth.rate-limit.backend", havingValue = "local", matchIfMissing = true)
+public class StripedRateLimitBackend implements RateLimitBackend {
+
+	/** Marks a slot that has never been used or was reset: it is full. */
+	private static final long FULL = Long.MIN_VALUE;
+
+	private final int slots;
+	private final int stripes;
+	private final Map<String, Table> tables = new ConcurrentHashMap<>();
+
+	public StripedRateLimitBackend(
+			@Value("${auth.rate-limit.local.slots:16384}") int slots,
+			@Value("${auth.rate-limit.local.stripes:64}") int stripes) {
+		this.slots = powerOfTwoAtLeast(slots);
+		this.stripes = Math.min(this.slots, powerOfTwoAtLeast(stripes));
+	}
+
+	@Override
+	public long tryAcquire(String namespace, String key, RateLimit limit) {
+		Table table = table(namespace);
+		int slot = table.slot(key);
+		synchronized (table.lockFor(slot)) {
+			double available = table.refill(slot, limit, System.nanoTime());
+			if (available >= 1.0) {
+				table.claim(slot, key, available >= limit.getCapacity());
+				table.tokens[slot] = available - 1.0;
+				return 0;
+			}
+			return limit.millisUntil(1.0 - available);
+		}
+	}
+
+	@Override
+	public long probe(String namespace, String key, RateLimit limit) {
+		Table table = table(namespace);
+		int slot = table.slot(key);
+		synchronized (table.lockFor(slot)) {
+			double available = table.refill(slot, limit, System.nanoTime());
+			return available >= 1.0 ? 0 : limit.millisUntil(1.0 - available);
+		}
+	}
+
+	@Override
+	public void reset(String namespace, String key) {
+		Table table = table(namespace);
+		int slot = table.slot(key);
+		synchronized (table.lockFor(slot)) {
+			if (key != null && key.equals(table.owners[slot])) {
+				table.lastRefillNanos[slot] = FULL;
+			}
+		}
+	}
+
+	private Table table(String namespace) {
+		Table table = tables.get(namespace);
+		return table != null ? table : tables.computeIfAbsent(namespace, ns -> new Table(slots, stripes));
+	}
+
+	private static int powerOfTwoAtLeast(int n) {
+		int size = 1;
+		while (size < n) {
+			size <<= 1;
+		}
+		return size;
+	}
+
+	/**
+	 * Buckets of one namespace.
+	 */
+	private static final class Table {
+
+		private final int slotMask;
+		private final int stripeMask;
+		private final double[] tokens;
+		private final long[] lastRefillNanos;
+		/** key that drained the slot, {@code null} if it is shared by several */
+		private final String[] owners;
+		private final Object[] locks;
+
+		private Table(int slots, int stripes) {
+			this.slotMask = slots - 1;
+			this.stripeMask = stripes - 1;
+			this.tokens = new double[slots];
+			this.lastRefillNanos = new long[slots];
+			Arrays.fill(lastRefillNanos, FULL);
+			this.owners = new String[slots];
+			this.locks = new Object[stripes];
+			for (int i = 0; i < stripes; i++) {
+				locks[i] = new Object();
+			}
+		}
+
+		private Object lockFor(int slot) {
+			return locks[slot & stripeMask];
+		}
+
+		private int slot(String key) {
+			int h = key == null ? 0 : key.hashCode();
+			// spread the bits so that similar keys do not land in neighbouring slots
+			h ^= (h >>> 16);
+			h *= 0x85ebca6b;
+			h ^= (h >>> 13);
+			return h & slotMask;
+		}
+
+		/**
+		 * Records {@code key} as the owner of a slot it takes a token from. A
+		 * full bucket starts a new owner; a different key taking from a
+		 * partially drained one makes the slot shared. Must be called while
+		 * holding the slot's lock.
+		 */
+		private void claim(int slot, String key, boolean full) {
+			if (full) {
+				owners[slot] = key;
+			} else if (owners[slot] != null && !owners[slot].equals(key)) {
+				owners[slot] = null;
+			}
+		}
+
+		/**
+		 * Brings the slot up to date and returns its current token count. Must be
+		 * called while holding the slot's lock.
+		 */
+		private double refill(int slot, RateLimit limit, long now) {
+			double current;
+			if (lastRefillNanos[slot] == FULL) {
+				current = limit.getCapacity();
+			} else {
+				long elapsed = Math.max(0, now - lastRefillNanos[slot]);
+				current = Math.min(limit.getCapacity(), tokens[slot] + elapsed * limit.refillPerNano());
+			}
+			tokens[slot] = current;
+			lastRefillNanos[slot] = now;
+			return current;
+		}
+	}
+}
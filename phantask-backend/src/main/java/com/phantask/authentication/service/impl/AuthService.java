@@ -12,10 +12,17 @@ import com.phantask.authentication.dto.LoginRequest;
 import com.phantask.authentication.entity.Role;
 import com.phantask.authentication.entity.User;
 import com.phantask.authentication.repository.UserRepository;
+import com.phantask.authentication.security.BoundedLoginExecutor;
+import com.phantask.authentication.security.IssuedRefreshToken;
 import com.phantask.authentication.security.JwtUtil;
+import com.phantask.authentication.security.RefreshTokenStore;
+import com.phantask.authentication.security.UserRevocationRegistry;
+import com.phantask.authentication.security.VerifiedToken;
+import com.phantask.authentication.security.VerifiedTokenCache;
 import com.phantask.authentication.service.api.IAuthService;
 import com.phantask.exception.AccountDeactivatedException;
 
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -24,8 +31,8 @@ import lombok.RequiredArgsConstructor;
  * Responsibilities:
  * - User login and password verification
  * - Access token and refresh token generation
- * - Refreshing access tokens
- * - Providing basic user profile info from JWT
+ * - Refreshing access tokens (with refresh-token rotation)
+ * - Providing basic user profile info from JWT claims
  */
 @Service
 @RequiredArgsConstructor
@@ -34,10 +41,14 @@ public class AuthService implements IAuthService {
     private final UserRepository userRepo;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authManager;
+    private final BoundedLoginExecutor loginExecutor;
+    private final VerifiedTokenCache tokenCache;
+    private final UserRevocationRegistry revocationRegistry;
+    private final RefreshTokenStore refreshTokenStore;
 
     /**
      * Handles user login.
-     * - Authenticates credentials
+     * - Authenticates credentials on the bounded login pool
      * - Checks if the user is activated/deactivated
      * - Checks if first login (require password change)
      * - Returns access token, refresh token, and roles
@@ -52,9 +63,10 @@ public class AuthService implements IAuthService {
 	        throw new AccountDeactivatedException("Account is deactivated. Please contact admin.");
 	    }
 	
-	    authManager.authenticate(
+	    // BCrypt check runs on the bounded login pool, not on the servlet thread
+	    loginExecutor.execute(() -> authManager.authenticate(
 	            new UsernamePasswordAuthenticationToken(req.getUsername(), req.getPassword())
-	    );
+	    ));
 	
 	    if (user.isFirstLogin()) {
 	        return Map.of(
@@ -63,58 +75,69 @@ public class AuthService implements IAuthService {
 	        );
 	    }
 	
+	    List<String> roleNames = extractRoleNames(user);
 	    String token = jwtUtil.generateAccessToken(user);
-	    String refreshToken = jwtUtil.generateRefreshToken(user);
+	    // Every login starts a new refresh-token family (session)
+	    String refreshToken = jwtUtil.generateRefreshToken(refreshTokenStore.issue(user.getUsername(), roleNames));
 	
 	    return Map.of(
 	            "token", token,
 	            "refreshToken", refreshToken,
-	            "role", extractRoleNames(user),
+	            "role", roleNames,
 	            "requirePasswordChange", false
 	    );
 	}
 
 
     /**
-     * Generates a new access token using a valid refresh token.
-     * - Validates refresh token
-     * - Returns new access token
+     * Exchanges a refresh token for a new access token and a new refresh token.
+     * - Validates the refresh token (signature, expiry, type, revocation)
+     * - Rotates the token's family in the RefreshTokenStore; presenting an
+     *   already exchanged token revokes the whole family
+     * - Mints the access token from the session's role snapshot (no user lookup)
      */
     @Override
-    public String refreshToken(String refreshToken) {
+    public Map<String, String> refreshToken(String refreshToken) {
 
-        String username = jwtUtil.extractUsername(refreshToken);
-        
-        if (!jwtUtil.isRefreshToken(refreshToken)) {
-            throw new RuntimeException("Invalid token type. Only refresh tokens are allowed.");
-        }
-        
-        User user = userRepo.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
+        VerifiedToken verified = jwtUtil.verify(refreshToken);
 
-        if (!jwtUtil.isTokenValid(refreshToken, user)) {
-            throw new RuntimeException("Refresh token expired. Please login again.");
+        if (!verified.isRefreshToken()) {
+            throw new JwtException("Invalid token type. Only refresh tokens are allowed.");
+        }
+        if (revocationRegistry.isRevoked(verified)) {
+            throw new JwtException("Refresh token revoked. Please login again.");
         }
-        return jwtUtil.generateAccessToken(user);
+
+        IssuedRefreshToken next = refreshTokenStore.rotate(verified.getFamilyId(), verified.getTokenId());
+
+        return Map.of(
+                "token", jwtUtil.generateAccessToken(next.getUsername(), next.getRoles()),
+                "refreshToken", jwtUtil.generateRefreshToken(next)
+        );
     }
     
     /**
-     * Returns basic user info for the given JWT token.
-     * - Extracts username from token
-     * - Loads user entity
+     * Returns basic user info for the given JWT token, answered from the token
+     * claims alone (no database access).
+     * - Verifies the token (served from the verified-token cache when possible)
+     * - Rejects tokens revoked by deactivation or a password change
      * - Returns username, roles, enabled status, and firstLogin flag
      */
     public Map<String, Object> getCurrentUserProfile(String token) {
-        // extract username from token
-        String username = jwtUtil.extractUsername(token);
+        VerifiedToken verified = tokenCache.verify(token);
 
-        User user = userRepo.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!verified.isAccessToken()) {
+            throw new JwtException("Only access tokens are allowed");
+        }
+        if (revocationRegistry.isRevoked(verified)) {
+            throw new JwtException("Token revoked");
+        }
 
         return Map.of(
-                "username", user.getUsername(),
-                "roles", extractRoleNames(user),
-                "enabled", user.isEnabled(),
-                "firstLogin", user.isFirstLogin()
+                "username", verified.getUsername(),
+                "roles", verified.getRoles(),
+                "enabled", verified.isEnabled(),
+                "firstLogin", verified.isFirstLogin()
         );
     }
     
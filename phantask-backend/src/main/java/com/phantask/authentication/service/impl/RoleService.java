@@ -9,6 +9,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.phantask.authentication.entity.Role;
 import com.phantask.authentication.repository.RoleRepository;
+import com.phantask.authentication.security.AuthorityRegistry;
 import com.phantask.authentication.service.api.IRoleService;
 
 import lombok.RequiredArgsConstructor;
@@ -27,6 +28,7 @@ import lombok.extern.slf4j.Slf4j;
 public class RoleService implements IRoleService {
     
     private final RoleRepository roleRepository;
+    private final AuthorityRegistry authorityRegistry;
     
     /**
      * Add a new role to the system.
@@ -55,6 +57,7 @@ public class RoleService implements IRoleService {
         Role role = new Role();
         role.setRoleName(normalizedRoleName);
         roleRepository.save(role);
+        authorityRegistry.register(normalizedRoleName);
         
         log.info("Successfully added new role: {}", normalizedRoleName);
     }
@@ -10,7 +10,6 @@ import java.util.stream.Collectors;
 
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -31,6 +30,11 @@ import com.phantask.authentication.entity.UserProfile;
 import com.phantask.authentication.repository.RoleRepository;
 import com.phantask.authentication.repository.UserProfileRepository;
 import com.phantask.authentication.repository.UserRepository;
+import com.phantask.authentication.security.AuthorityRegistry;
+import com.phantask.authentication.security.RefreshTokenStore;
+import com.phantask.authentication.security.UserDetailsCache;
+import com.phantask.authentication.security.UserRevocationRegistry;
+import com.phantask.authentication.security.VerifiedTokenCache;
 import com.phantask.authentication.service.api.IUserService;
 //import com.phantask.notification.email.EmailService;
 
@@ -67,18 +71,33 @@ public class UserService implements IUserService {
     //private final EmailService emailService;
     private final RabbitTemplate rabbitTemplate;
     private final ObjectMapper objectMapper;
+    private final VerifiedTokenCache tokenCache;
+    private final UserRevocationRegistry revocationRegistry;
+    private final UserDetailsCache userDetailsCache;
+    private final RefreshTokenStore refreshTokenStore;
+    private final AuthorityRegistry authorityRegistry;
     
+    /**
+     * Loads the security view of a user, served from the {@link UserDetailsCache}
+     * when possible. The write paths below evict the cached entry.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) {
+        return userDetailsCache.get(username, this::loadUserFromDatabase);
+    }
+
+    private UserDetails loadUserFromDatabase(String username) {
         User user = userRepo.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
+        List<String> roleNames = user.getRoles().stream()
+                .map(Role::getRoleName)
+                .sorted()
+                .toList();
         return new org.springframework.security.core.userdetails.User(
                 user.getUsername(),
                 user.getPassword(),
-                user.getRoles().stream()
-                        .map(r -> new SimpleGrantedAuthority("ROLE_" + r.getRoleName()))
-                        .collect(Collectors.toList())
+                authorityRegistry.forRoleNames(roleNames)
         );
     }
 
@@ -119,6 +138,7 @@ public class UserService implements IUserService {
         user.getRoles().add(role);
 
         userRepo.save(user);
+        userDetailsCache.evict(username);
 
         log.info("Account created: username={}, role={}", username, normalizedRole);
 
@@ -301,6 +321,11 @@ public class UserService implements IUserService {
         user.setFirstLogin(false);
         user.setPasswordChangedAt(LocalDateTime.now());
         userRepo.save(user);
+        userDetailsCache.evict(user.getUsername());
+
+        // Tokens issued with the old password are no longer accepted
+        revocationRegistry.revokeTokensIssuedBefore(user.getUsername(), user.getPasswordChangedAt());
+        refreshTokenStore.revokeUser(user.getUsername());
     }
 
     /* 
@@ -392,7 +417,14 @@ public class UserService implements IUserService {
         user.setEnabled(false);
         user.setDeactivatedAt(LocalDateTime.now());
 
-        userRepo.save(user);		
+        userRepo.save(user);
+
+        // Reject tokens issued before deactivation and force the user's next
+        // request through full token verification
+        revocationRegistry.revokeTokensIssuedBefore(user.getUsername(), user.getDeactivatedAt());
+        refreshTokenStore.revokeUser(user.getUsername());
+        tokenCache.invalidateUser(user.getUsername());
+        userDetailsCache.evict(user.getUsername());
 	}
 
 	@Override
@@ -404,7 +436,8 @@ public class UserService implements IUserService {
 		user.setEnabled(true);
 		user.setDeactivatedAt(null);
 		
-		userRepo.save(user);		
+		userRepo.save(user);
+		userDetailsCache.evict(user.getUsername());
 	}
 
 	@Override
@@ -518,11 +551,14 @@ public class UserService implements IUserService {
 	        user.setPasswordChangedAt(null);
 	        User savedUser = userRepo.save(user);
 	        userRepo.flush(); // Force immediate commit to database
+	        revocationRegistry.revokeTokensIssuedBefore(user.getUsername(), LocalDateTime.now());
+	        refreshTokenStore.revokeUser(user.getUsername());
 	        log.info("Password reset complete. FirstLogin set to: {}", savedUser.isFirstLogin());
 	    } else {
 	        log.info("Password reset SKIPPED - resetPassword was false");
 	    }
 
+	    userDetailsCache.evict(user.getUsername());
 	    log.info("editUserByAdmin completed successfully for userId: {}", userId);
 	    return "User updated successfully";
 	}
@@ -4,12 +4,20 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.phantask.attendance.repository.AttendanceTokenRepository;
+import com.phantask.attendance.service.impl.AttendanceCounterService;
+
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Configuration class that runs initialization tasks on application startup.
- * Currently: delegates to AdminUserInitializerService to create default admin.
+ * Currently it:
+ * <ul>
+ *   <li>delegates to AdminUserInitializerService to create the default admin,</li>
+ *   <li>backfills the digest column of attendance tokens written before it existed,</li>
+ *   <li>initializes the per-user attendance counters.</li>
+ * </ul>
  */
 @Configuration
 @RequiredArgsConstructor
@@ -19,6 +27,10 @@ public class DatabaseInitializer {
     // Inject the service that handles admin user creation
     private final AdminUserInitializerService initService;
 
+    private final AttendanceTokenRepository attendanceTokenRepo;
+
+    private final AttendanceCounterService attendanceCounterService;
+
     /**
      * CommandLineRunner bean that executes once when Spring Boot application starts.
      * Calls the service to create default admin user if needed.
@@ -28,6 +40,11 @@ public class DatabaseInitializer {
         return args -> {
             log.info("Running database initialization checks...");
             initService.createDefaultAdminIfNotExists();
+            int backfilled = attendanceTokenRepo.backfillTokenHashes();
+            if (backfilled > 0) {
+                log.info("Backfilled token_hash for {} attendance token(s)", backfilled);
+            }
+            attendanceCounterService.initializeIfEmpty();
             log.info("Database initialization complete.");
         };
     }
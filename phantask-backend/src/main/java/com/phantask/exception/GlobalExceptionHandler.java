@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -53,6 +54,32 @@ public class GlobalExceptionHandler {
 				.body(Map.of("error", "Invalid username or password"));
 	}
 	
+	@ExceptionHandler(LoginCapacityExceededException.class)
+	public ResponseEntity<Map<String, Object>> handleLoginCapacityExceeded(LoginCapacityExceededException ex) {
+		log.warn("Login rejected: {}", ex.getMessage());
+		return ResponseEntity
+				.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+				.body(Map.of("error", ex.getMessage(), "code", "LOGIN_BUSY"));
+	}
+	
+	@ExceptionHandler(ReportCapacityExceededException.class)
+	public ResponseEntity<Map<String, Object>> handleReportCapacityExceeded(ReportCapacityExceededException ex) {
+		log.warn("Report job rejected: {}", ex.getMessage());
+		return ResponseEntity
+				.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+				.body(Map.of("error", ex.getMessage(), "code", "REPORTS_BUSY"));
+	}
+
+	@ExceptionHandler(TooManyLoginAttemptsException.class)
+	public ResponseEntity<Map<String, Object>> handleTooManyLoginAttempts(TooManyLoginAttemptsException ex) {
+		return ResponseEntity
+				.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+				.body(Map.of("error", ex.getMessage(), "code", "TOO_MANY_ATTEMPTS"));
+	}
+	
 	@ExceptionHandler(AttendanceAlreadyMarkedException.class)
     public ResponseEntity<Map<String, Object>> handleAttendanceAlreadyMarked(
             AttendanceAlreadyMarkedException ex) {
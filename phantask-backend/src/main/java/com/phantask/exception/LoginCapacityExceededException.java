@@ -0,0 +1,21 @@
+package com.phantask.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a login cannot be verified because the bounded password hashing
+ * pool is saturated. Mapped to {@code 503 Service Unavailable} with a
+ * {@code Retry-After} header.
+ */
+@Getter
+public class LoginCapacityExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int retryAfterSeconds;
+
+	public LoginCapacityExceededException(String message, int retryAfterSeconds) {
+		super(message);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+}
@@ -0,0 +1,21 @@
+package com.phantask.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a report job cannot be accepted because the report worker queue
+ * is full. Mapped to {@code 503 Service Unavailable} with a
+ * {@code Retry-After} header.
+ */
+@Getter
+public class ReportCapacityExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int retryAfterSeconds;
+
+	public ReportCapacityExceededException(String message, int retryAfterSeconds) {
+		super(message);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+}
@@ -0,0 +1,20 @@
+package com.phantask.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a login or token refresh is rejected by the login rate limiter.
+ * Mapped to {@code 429 Too Many Requests} with a {@code Retry-After} header.
+ */
+@Getter
+public class TooManyLoginAttemptsException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long retryAfterSeconds;
+
+	public TooManyLoginAttemptsException(String message, long retryAfterSeconds) {
+		super(message);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+}
@@ -18,11 +18,13 @@ import com.phantask.helpline.entity.HelplineTicket;
 import com.phantask.helpline.service.HelplineTicketService;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * REST Controller for Helpline Ticket operations Handles raising, viewing, and
  * resolving tickets
  */
+@Slf4j
 @RestController
 @RequestMapping("/api/helpline")
 @RequiredArgsConstructor
@@ -107,15 +109,13 @@ public class HelplineTicketController {
 
 		} catch (RuntimeException ex) {
 			// Log the error for debugging
-			System.err.println("Error in myRaised: " + ex.getMessage());
-			ex.printStackTrace();
+			log.error("Error in myRaised: {}", ex.getMessage(), ex);
 
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
 					.body(Collections.singletonMap("error", ex.getMessage()));
 		} catch (Exception ex) {
 			// Catch all other exceptions
-			System.err.println("Unexpected error in myRaised: " + ex.getMessage());
-			ex.printStackTrace();
+			log.error("Unexpected error in myRaised: {}", ex.getMessage(), ex);
 
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
 					.body(Collections.singletonMap("error", "Failed to fetch tickets"));
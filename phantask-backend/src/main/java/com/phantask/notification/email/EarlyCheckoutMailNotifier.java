@@ -0,0 +1,111 @@
+package com.phantask.notification.email;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.phantask.attendance.dto.EarlyCheckoutEvent;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Delivers {@link EarlyCheckoutEvent}s by mail, off the scan path.
+ *
+ * <p>
+ * Events are received only after the attendance transaction has committed
+ * (a scan that rolls back sends nothing) and are handed to a small dedicated
+ * mail pool, so a scan returns in database time and an SMTP outage cannot
+ * fail or slow it down. The pool has {@code notification.mail.threads} threads
+ * and a queue of {@code notification.mail.queue-capacity} alerts; when the
+ * queue is full, further alerts are dropped and counted rather than blocking
+ * the scanner.
+ * </p>
+ */
+@Slf4j
+@Component
+public class EarlyCheckoutMailNotifier {
+
+	private final EmailService emailService;
+	private final ThreadPoolExecutor executor;
+
+	private final LongAdder sent = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+
+	public EarlyCheckoutMailNotifier(EmailService emailService,
+			@Value("${notification.mail.threads:2}") int threads,
+			@Value("${notification.mail.queue-capacity:1000}") int queueCapacity) {
+		this.emailService = emailService;
+		this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new MailThreadFactory(),
+				new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	/**
+	 * Queues the alert once the publishing transaction has committed. Events
+	 * published outside a transaction (bulk scans, whose statements commit one
+	 * by one) are queued immediately.
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onEarlyCheckout(EarlyCheckoutEvent event) {
+		try {
+			executor.execute(() -> send(event));
+		} catch (RejectedExecutionException e) {
+			dropped.increment();
+			log.warn("Mail queue full, early checkout alert for {} dropped", event.getEmployeeName());
+		}
+	}
+
+	void send(EarlyCheckoutEvent event) {
+		try {
+			emailService.sendEarlyCheckoutAlert(
+					event.getManagerEmail(),
+					event.getEmployeeName(),
+					event.getCheckIn(),
+					event.getCheckOut(),
+					event.getWorkedMinutes());
+			sent.increment();
+		} catch (RuntimeException e) {
+			failed.increment();
+			log.error("Early checkout alert for {} could not be sent", event.getEmployeeName(), e);
+		}
+	}
+
+	public Map<String, Object> getStats() {
+		return Map.of(
+				"queued", executor.getQueue().size(),
+				"sent", sent.sum(),
+				"failed", failed.sum(),
+				"dropped", dropped.sum());
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		executor.shutdown();
+		// give queued alerts a moment to go out
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+	}
+
+	private static final class MailThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "mail-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package com.phantask.report.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.phantask.report.dto.ReportJobRequest;
+import com.phantask.report.dto.ReportJobResponse;
+import com.phantask.report.enums.ReportJobStatus;
+import com.phantask.report.enums.ReportType;
+import com.phantask.report.service.ReportJob;
+import com.phantask.report.service.ReportJobService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Asynchronous report exports.
+ *
+ * <p>
+ * {@code POST /api/reports/jobs} accepts a report request and answers
+ * {@code 202 Accepted} with the job id; the client polls
+ * {@code GET /api/reports/jobs/{id}} until the job is {@code COMPLETED} and then
+ * fetches {@code downloadUrl}. All endpoints require the ADMIN or HR authority;
+ * feedback reports are restricted to ADMIN, as their synchronous counterpart.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/reports/jobs")
+@RequiredArgsConstructor
+public class ReportJobController {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final String JOB_NOT_FOUND = "Report job not found or expired";
+
+    private final ReportJobService reportJobService;
+
+    /**
+     * Queues a report, or returns the job of an identical recent request.
+     */
+    @PostMapping
+    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('HR')")
+    public ResponseEntity<?> submit(@RequestBody ReportJobRequest request) {
+        String error = validate(request);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", error));
+        }
+        checkAccess(request.getType());
+
+        ReportJob job = reportJobService.submit(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/reports/jobs/" + job.getId()))
+                .body(new ReportJobResponse(job));
+    }
+
+    /**
+     * Current status of a job.
+     */
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('HR')")
+    public ResponseEntity<ReportJobResponse> getJob(@PathVariable String id) {
+        ReportJob job = findJob(id);
+        return ResponseEntity.ok(new ReportJobResponse(job));
+    }
+
+    /**
+     * Downloads the CSV of a completed job. The file is stored gzip-compressed
+     * and sent as-is to clients that accept gzip, decompressed otherwise.
+     * Answers 404 for an unknown or expired job and 409 while it is not
+     * {@code COMPLETED}.
+     */
+    @GetMapping("/{id}/download")
+    @PreAuthorize("hasAuthority('ADMIN') or hasAuthority('HR')")
+    public ResponseEntity<StreamingResponseBody> download(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) throws IOException {
+
+        ReportJob job = findJob(id);
+        if (job.getStatus() != ReportJobStatus.COMPLETED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Report job is " + job.getStatus());
+        }
+
+        InputStream file;
+        try {
+            file = Files.newInputStream(job.getFile());
+        } catch (NoSuchFileException ex) {
+            // purged between the lookup and the open
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, JOB_NOT_FOUND);
+        }
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        StreamingResponseBody body = out -> {
+            try (InputStream in = file;
+                    InputStream source = gzip ? in : new GZIPInputStream(in, BUFFER_SIZE)) {
+                source.transferTo(out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=" + job.getFileName())
+                .header("Content-Type", "text/csv")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .contentLength(job.getSize());
+        }
+        return response.body(body);
+    }
+
+    private static String validate(ReportJobRequest request) {
+        if (request.getType() == null) {
+            return "Report type is required";
+        }
+        return switch (request.getType()) {
+            case ATTENDANCE_PERCENTAGE -> {
+                if (request.getStartDate() == null || request.getEndDate() == null) {
+                    yield "startDate and endDate are required";
+                }
+                yield request.getStartDate().isAfter(request.getEndDate())
+                        ? "'startDate' must not be after 'endDate'"
+                        : null;
+            }
+            case FEEDBACK -> request.getFeedbackId() == null ? "feedbackId is required" : null;
+        };
+    }
+
+    private static void checkAccess(ReportType type) {
+        if (type != ReportType.FEEDBACK) {
+            return;
+        }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = auth.getAuthorities()
+                .stream()
+                .anyMatch(a -> a.getAuthority().equals("ADMIN") || a.getAuthority().equals("ROLE_ADMIN"));
+        if (!isAdmin) {
+            throw new AccessDeniedException("Forbidden");
+        }
+    }
+
+    private ReportJob findJob(String id) {
+        ReportJob job = reportJobService.find(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, JOB_NOT_FOUND));
+        checkAccess(job.getType());
+        return job;
+    }
+}
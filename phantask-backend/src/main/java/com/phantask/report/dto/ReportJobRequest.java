@@ -0,0 +1,28 @@
+package com.phantask.report.dto;
+
+import java.time.LocalDate;
+
+import com.phantask.report.enums.ReportType;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Parameters of an asynchronous report job.
+ *
+ * <ul>
+ *   <li>{@code ATTENDANCE_PERCENTAGE}: {@code startDate}, {@code endDate} and
+ *       optionally {@code userId}, as for the synchronous download</li>
+ *   <li>{@code FEEDBACK}: {@code feedbackId}</li>
+ * </ul>
+ */
+@Getter
+@Setter
+public class ReportJobRequest {
+
+    private ReportType type;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Long userId; // optional
+    private Long feedbackId;
+}
@@ -0,0 +1,40 @@
+package com.phantask.report.dto;
+
+import java.time.LocalDateTime;
+
+import com.phantask.report.enums.ReportJobStatus;
+import com.phantask.report.enums.ReportType;
+import com.phantask.report.service.ReportJob;
+
+import lombok.Getter;
+
+/**
+ * Status of a report job as returned when it is submitted and polled.
+ * {@code downloadUrl} is set once the job is {@code COMPLETED}, {@code error}
+ * once it is {@code FAILED}.
+ */
+@Getter
+public class ReportJobResponse {
+
+    private String jobId;
+    private ReportType type;
+    private ReportJobStatus status;
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime expiresAt;
+    private String downloadUrl;
+    private String error;
+
+    public ReportJobResponse(ReportJob job) {
+        this.jobId = job.getId();
+        this.type = job.getType();
+        this.status = job.getStatus();
+        this.submittedAt = job.getSubmittedAt();
+        this.finishedAt = job.getFinishedAt();
+        this.expiresAt = job.getExpiresAt();
+        this.downloadUrl = status == ReportJobStatus.COMPLETED
+                ? "/api/reports/jobs/" + jobId + "/download"
+                : null;
+        this.error = job.getError();
+    }
+}
@@ -0,0 +1,6 @@
+package com.phantask.report.enums;
+
+public enum ReportType {
+    ATTENDANCE_PERCENTAGE,
+    FEEDBACK
+}
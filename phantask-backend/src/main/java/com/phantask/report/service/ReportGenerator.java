@@ -0,0 +1,99 @@
+package com.phantask.report.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.phantask.attendance.service.AttendancePercentageCsv;
+import com.phantask.attendance.service.IAttendanceService;
+import com.phantask.feedback.dto.FeedbackReportDto;
+import com.phantask.feedback.service.FeedbackService;
+import com.phantask.report.dto.ReportJobRequest;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Renders the CSV file of a report job. Runs on a report worker thread, so it
+ * only calls service methods that do not depend on the caller's security
+ * context.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReportGenerator {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final IAttendanceService attendanceService;
+    private final FeedbackService feedbackService;
+
+    /**
+     * File name offered to the client for the job's result.
+     */
+    public String fileName(ReportJobRequest request) {
+        return switch (request.getType()) {
+            case ATTENDANCE_PERCENTAGE -> "attendance_percentage.csv";
+            case FEEDBACK -> "feedback_report_" + request.getFeedbackId() + ".csv";
+        };
+    }
+
+    /**
+     * Writes the report as UTF-8 CSV. The stream is flushed but not closed.
+     */
+    public void write(ReportJobRequest request, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        switch (request.getType()) {
+            case ATTENDANCE_PERCENTAGE -> writeAttendancePercentage(request, writer);
+            case FEEDBACK -> writeFeedback(request, writer);
+        }
+        writer.flush();
+    }
+
+    private void writeAttendancePercentage(ReportJobRequest request, Writer writer) throws IOException {
+        writer.write(AttendancePercentageCsv.HEADER);
+        try {
+            attendanceService.forEachAttendancePercentage(
+                    request.getStartDate(),
+                    request.getEndDate(),
+                    request.getUserId(),
+                    r -> AttendancePercentageCsv.writeRow(writer, r)
+            );
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private void writeFeedback(ReportJobRequest request, Writer writer) throws IOException {
+        FeedbackReportDto report = feedbackService.getReport(request.getFeedbackId());
+
+        writer.write("Question,Average Rating\n");
+        for (Map.Entry<String, Integer> entry : report.getAveragePerQuestion().entrySet()) {
+            writer.append(escape(entry.getKey())).append(',')
+                  .append(String.valueOf(entry.getValue()))
+                  .append('\n');
+        }
+        writer.append("Overall Average (out of 10),")
+              .append(String.valueOf(report.getOverallAverage()))
+              .append('\n');
+        writer.append("Total Submissions,")
+              .append(String.valueOf(report.getTotalSubmissions()))
+              .append('\n');
+    }
+
+    /**
+     * Quotes free text (question labels) that would otherwise break the row.
+     */
+    static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
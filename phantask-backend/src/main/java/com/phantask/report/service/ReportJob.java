@@ -0,0 +1,78 @@
+package com.phantask.report.service;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import com.phantask.report.dto.ReportJobRequest;
+import com.phantask.report.enums.ReportJobStatus;
+import com.phantask.report.enums.ReportType;
+
+import lombok.Getter;
+
+/**
+ * State of one report job held by {@link ReportJobService}. The mutable fields
+ * are written by the worker thread and read by request threads polling the
+ * job.
+ */
+@Getter
+public class ReportJob {
+
+    private final String id;
+    private final String fingerprint;
+    private final ReportJobRequest request;
+    private final String fileName;
+    private final LocalDateTime submittedAt;
+
+    private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile LocalDateTime expiresAt;
+    private volatile Path file;
+    private volatile long size;
+    private volatile String error;
+
+    ReportJob(String id, String fingerprint, ReportJobRequest request, String fileName) {
+        this.id = id;
+        this.fingerprint = fingerprint;
+        this.request = request;
+        this.fileName = fileName;
+        this.submittedAt = LocalDateTime.now();
+    }
+
+    public ReportType getType() {
+        return request.getType();
+    }
+
+    void start() {
+        startedAt = LocalDateTime.now();
+        status = ReportJobStatus.RUNNING;
+    }
+
+    void complete(Path file, long size, LocalDateTime expiresAt) {
+        this.file = file;
+        this.size = size;
+        this.finishedAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+        this.status = ReportJobStatus.COMPLETED;
+    }
+
+    void fail(String error, LocalDateTime expiresAt) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+        this.status = ReportJobStatus.FAILED;
+    }
+
+    boolean isExpired(LocalDateTime now) {
+        LocalDateTime expiry = expiresAt;
+        return expiry != null && !expiry.isAfter(now);
+    }
+
+    /**
+     * Whether an identical request can be answered by this job: it is still
+     * pending, or it completed and its file has not expired.
+     */
+    boolean isReusable(LocalDateTime now) {
+        return status != ReportJobStatus.FAILED && !isExpired(now);
+    }
+}
@@ -0,0 +1,273 @@
+package com.phantask.report.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.phantask.exception.ReportCapacityExceededException;
+import com.phantask.report.dto.ReportJobRequest;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs heavy report exports outside the HTTP request.
+ *
+ * <p>
+ * A submitted job is queued on a dedicated, bounded worker pool and its id is
+ * returned at once; the client polls the job and downloads the file when it is
+ * {@code COMPLETED}:
+ * </p>
+ * <ul>
+ *   <li>At most {@code report.jobs.threads} reports are generated concurrently
+ *       (each holds one database connection while it runs) and at most
+ *       {@code report.jobs.queue-capacity} wait. When the queue is full the
+ *       job is rejected with {@link ReportCapacityExceededException} (503 +
+ *       Retry-After).</li>
+ *   <li>Results are written gzip-compressed to
+ *       {@code report.jobs.directory} and kept for
+ *       {@code report.jobs.ttl-minutes} after the job finished; a scheduled
+ *       purge then deletes the file and forgets the job.</li>
+ *   <li>A request with the same parameters as a pending or completed,
+ *       unexpired job returns that job instead of computing the report again.
+ *       A cached result can therefore be up to the TTL old.</li>
+ * </ul>
+ *
+ * <p>
+ * Jobs and files are local to this node, so the status and download requests
+ * must reach the node that accepted the job. Files left over from a previous
+ * run are deleted at startup.
+ * </p>
+ */
+@Slf4j
+@Service
+public class ReportJobService {
+
+    private static final String FILE_SUFFIX = ".csv.gz";
+    private static final String PART_SUFFIX = ".part";
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ReportGenerator generator;
+    private final Path directory;
+    private final ThreadPoolExecutor executor;
+    private final long ttlMinutes;
+    private final int retryAfterSeconds;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    /** request fingerprint -> newest reusable job with these parameters */
+    private final Map<String, ReportJob> byFingerprint = new ConcurrentHashMap<>();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+
+    public ReportJobService(ReportGenerator generator,
+            @Value("${report.jobs.directory:${java.io.tmpdir}/phantask-reports}") String directory,
+            @Value("${report.jobs.threads:2}") int threads,
+            @Value("${report.jobs.queue-capacity:32}") int queueCapacity,
+            @Value("${report.jobs.ttl-minutes:30}") long ttlMinutes,
+            @Value("${report.jobs.retry-after-seconds:30}") int retryAfterSeconds) {
+        this.generator = generator;
+        this.directory = Paths.get(directory);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ReportThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.ttlMinutes = ttlMinutes;
+        this.retryAfterSeconds = retryAfterSeconds;
+        prepareDirectory();
+    }
+
+    /**
+     * Queues a report, or returns the pending or completed job of an identical
+     * request made within the TTL.
+     *
+     * @throws ReportCapacityExceededException if the worker queue is full
+     */
+    public ReportJob submit(ReportJobRequest request) {
+        String fingerprint = fingerprint(request);
+        LocalDateTime now = LocalDateTime.now();
+        ReportJob[] created = new ReportJob[1];
+
+        ReportJob job = byFingerprint.compute(fingerprint, (key, existing) -> {
+            if (existing != null && existing.isReusable(now)) {
+                return existing;
+            }
+            created[0] = new ReportJob(UUID.randomUUID().toString(), key, request, generator.fileName(request));
+            return created[0];
+        });
+        if (created[0] == null) {
+            cacheHits.increment();
+            return job;
+        }
+
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            // an identical request may already hold this job: let it see the failure
+            job.fail("Rejected, too many report jobs", now.plusMinutes(ttlMinutes));
+            byFingerprint.remove(fingerprint, job);
+            throw new ReportCapacityExceededException(
+                    "Too many report jobs, please retry later", retryAfterSeconds);
+        }
+        submitted.increment();
+        return job;
+    }
+
+    /**
+     * Returns the job unless it is unknown or expired.
+     */
+    public Optional<ReportJob> find(String id) {
+        ReportJob job = jobs.get(id);
+        if (job == null || job.isExpired(LocalDateTime.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(job);
+    }
+
+    /**
+     * Deletes expired files and forgets their jobs.
+     */
+    @Scheduled(fixedDelayString = "${report.jobs.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = 0;
+        for (ReportJob job : jobs.values()) {
+            if (!job.isExpired(now)) {
+                continue;
+            }
+            jobs.remove(job.getId(), job);
+            byFingerprint.remove(job.getFingerprint(), job);
+            if (job.getFile() != null) {
+                deleteQuietly(job.getFile());
+            }
+            purged++;
+        }
+        if (purged > 0) {
+            log.debug("Purged {} expired report job(s)", purged);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long done = completed.sum();
+        return Map.of(
+                "poolSize", executor.getMaximumPoolSize(),
+                "active", executor.getActiveCount(),
+                "queued", executor.getQueue().size(),
+                "jobs", jobs.size(),
+                "submitted", submitted.sum(),
+                "cacheHits", cacheHits.sum(),
+                "completed", done,
+                "failed", failed.sum(),
+                "rejected", rejected.sum(),
+                "avgRunMs", done == 0 ? 0.0 : runNanos.sum() / 1_000_000.0 / done);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(ReportJob job) {
+        long startedAt = System.nanoTime();
+        job.start();
+        Path part = directory.resolve(job.getId() + PART_SUFFIX);
+        Path file = directory.resolve(job.getId() + FILE_SUFFIX);
+        try {
+            try (OutputStream out = Files.newOutputStream(part);
+                    GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE)) {
+                generator.write(job.getRequest(), gzip);
+            }
+            Files.move(part, file, StandardCopyOption.ATOMIC_MOVE);
+            job.complete(file, Files.size(file), LocalDateTime.now().plusMinutes(ttlMinutes));
+            runNanos.add(System.nanoTime() - startedAt);
+            completed.increment();
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(part);
+            job.fail(errorMessage(e), LocalDateTime.now().plusMinutes(ttlMinutes));
+            byFingerprint.remove(job.getFingerprint(), job);
+            failed.increment();
+            log.warn("Report job {} ({}) failed", job.getId(), job.getType(), e);
+        }
+    }
+
+    /**
+     * Plain {@link RuntimeException}s carry messages meant for the client (e.g.
+     * "Feedback not found"); anything else may expose internals.
+     */
+    private static String errorMessage(Exception e) {
+        if (e.getClass() == RuntimeException.class && e.getMessage() != null) {
+            return e.getMessage();
+        }
+        return "Report generation failed";
+    }
+
+    private static String fingerprint(ReportJobRequest request) {
+        return switch (request.getType()) {
+            case ATTENDANCE_PERCENTAGE -> request.getType() + "|" + request.getStartDate() + "|"
+                    + request.getEndDate() + "|" + request.getUserId();
+            case FEEDBACK -> request.getType() + "|" + request.getFeedbackId();
+        };
+    }
+
+    private void prepareDirectory() {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory,
+                    "*{" + FILE_SUFFIX + "," + PART_SUFFIX + "}")) {
+                for (Path leftover : leftovers) {
+                    deleteQuietly(leftover);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare report directory " + directory, e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete report file {}", path, e);
+        }
+    }
+
+    private static final class ReportThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "report-job-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -3,24 +3,34 @@ package com.phantask.attendance.controller;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -31,10 +41,16 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phantask.attendance.dto.AttendanceCalendarResponse;
+import com.phantask.attendance.dto.AttendanceEntryResponse;
+import com.phantask.attendance.dto.AttendanceMarkResult;
+import com.phantask.attendance.dto.AttendancePageResponse;
 import com.phantask.attendance.dto.AttendancePercentageResponse;
 import com.phantask.attendance.dto.AttendanceReportRequest;
+import com.phantask.attendance.dto.AttendanceResponse;
 import com.phantask.attendance.entity.Attendance;
 import com.phantask.attendance.enums.AttendanceStatus;
 import com.phantask.attendance.service.IAttendanceService;
@@ -42,6 +58,7 @@ import com.phantask.authentication.entity.User;
 import com.phantask.authentication.security.JwtFilter;
 import com.phantask.authentication.security.JwtUtil;
 import com.phantask.config.TestSecurityConfig;
+import com.phantask.exception.AttendanceAlreadyMarkedException;
 import io.jsonwebtoken.ExpiredJwtException;
 
 /**
@@ -273,6 +290,75 @@ class AttendanceControllerTest {
                 .andExpect(jsonPath("$.error").value("Failed to mark attendance: Database error"));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void markAttendance_WithConcurrentScan_ShouldReturn409() throws Exception {
+        // Arrange
+        String jsonRequest = "{\"token\":\"valid-token\"}";
+        when(attendanceService.markAttendance("valid-token"))
+                .thenThrow(new AttendanceAlreadyMarkedException("Attendance was marked by another scan at the same time, please retry"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/attendance/mark")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(jsonRequest))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    // ==================== POST /api/attendance/mark/bulk Tests ====================
+
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    void markAttendanceBulk_WithValidTokens_ShouldReturnPerTokenResults() throws Exception {
+        // Arrange
+        String jsonRequest = "{\"tokens\":[\"token-1\",\"token-2\"]}";
+        when(attendanceService.markAttendanceBulk(List.of("token-1", "token-2")))
+                .thenReturn(List.of(
+                    AttendanceMarkResult.marked("token-1", "testuser", new AttendanceResponse(testAttendance)),
+                    AttendanceMarkResult.failed("token-2", "Invalid or used QR token")));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/attendance/mark/bulk")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(jsonRequest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.marked").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].success").value(true))
+                .andExpect(jsonPath("$.results[0].username").value("testuser"))
+                .andExpect(jsonPath("$.results[1].error").value("Invalid or used QR token"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void markAttendanceBulk_WithNoTokens_ShouldReturn400() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/attendance/mark/bulk")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"tokens\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("At least one QR token is required"));
+
+        verify(attendanceService, never()).markAttendanceBulk(any());
+    }
+
+    @Test
+    @WithMockUser(authorities = "USER")
+    void markAttendanceBulk_WithUserRole_ShouldReturn403() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/attendance/mark/bulk")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"tokens\":[\"token-1\"]}"))
+                .andExpect(status().isForbidden());
+
+        verify(attendanceService, never()).markAttendanceBulk(any());
+    }
+
     // ==================== GET /api/attendance/my Tests ====================
 
     @Test
@@ -313,6 +399,108 @@ class AttendanceControllerTest {
                 .andExpect(jsonPath("$.length()").value(0));
     }
 
+    // ==================== GET /api/attendance/my/page Tests ====================
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void getMyAttendancePage_WithDefaults_ShouldRequestLastYear() throws Exception {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        when(attendanceService.getMyAttendancePage(today.minusYears(1), today, null, 31))
+                .thenReturn(new AttendancePageResponse(List.of(new AttendanceEntryResponse(
+                        today, AttendanceStatus.CHECKED_IN, today.atTime(9, 0), null)), null, false));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/attendance/my/page"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("CHECKED_IN"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void getMyAttendancePage_WithCursor_ShouldPassItThrough() throws Exception {
+        // Arrange
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 12, 31);
+        LocalDate before = LocalDate.of(2025, 6, 1);
+        when(attendanceService.getMyAttendancePage(from, to, before, 10))
+                .thenReturn(new AttendancePageResponse(List.of(), null, false));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/attendance/my/page")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-12-31")
+                        .param("before", "2025-06-01")
+                        .param("size", "10"))
+                .andExpect(status().isOk());
+
+        verify(attendanceService).getMyAttendancePage(from, to, before, 10);
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void getMyAttendancePage_WithInvalidRangeOrSize_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/attendance/my/page")
+                        .param("from", "2025-02-01")
+                        .param("to", "2025-01-01"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/attendance/my/page").param("size", "0"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/attendance/my/page").param("size", "367"))
+                .andExpect(status().isBadRequest());
+
+        verify(attendanceService, never()).getMyAttendancePage(any(), any(), any(), anyInt());
+    }
+
+    // ==================== GET /api/attendance/calendar/my Tests ====================
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void getMyAttendanceCalendar_WithoutYear_ShouldReturnCurrentYear() throws Exception {
+        // Arrange
+        int year = LocalDate.now().getYear();
+        when(attendanceService.getMyAttendanceCalendar(year)).thenReturn(new AttendanceCalendarResponse(
+                1L, year, 3, List.of("NONE", "CHECKED_IN"), "AQID"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/attendance/calendar/my"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Cache-Control"))
+                .andExpect(jsonPath("$.year").value(year))
+                .andExpect(jsonPath("$.bitsPerDay").value(3))
+                .andExpect(jsonPath("$.days").value("AQID"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void getMyAttendanceCalendar_ForPastYear_ShouldBeCacheable() throws Exception {
+        // Arrange
+        int year = LocalDate.now().getYear() - 1;
+        when(attendanceService.getMyAttendanceCalendar(year)).thenReturn(new AttendanceCalendarResponse(
+                1L, year, 3, List.of("NONE"), ""));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/attendance/calendar/my").param("year", String.valueOf(year)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=3600, private"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void getMyAttendanceCalendar_WithFutureYear_ShouldReturn400() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/attendance/calendar/my")
+                        .param("year", String.valueOf(LocalDate.now().getYear() + 1)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verify(attendanceService, never()).getMyAttendanceCalendar(anyInt());
+    }
+
     // ==================== GET /api/attendance/percentage/my Tests ====================
 
     @Test
@@ -354,29 +542,30 @@ class AttendanceControllerTest {
         request.setStartDate(LocalDate.now().minusDays(7));
         request.setEndDate(LocalDate.now());
         
-        List<AttendancePercentageResponse> data = Arrays.asList(
-            new AttendancePercentageResponse(1L, "user1", 7, 6, 1, 0, 85.71)
-        );
-        
-        when(attendanceService.getAttendancePercentage(any(), any(), any()))
-                .thenReturn(data);
+        stubReportRows(new AttendancePercentageResponse(1L, "user1", 7, 6, 1, 0, 85.71));
 
         // Act & Assert
-        mockMvc.perform(post("/api/attendance/percentage/download")
+        MvcResult result = mockMvc.perform(post("/api/attendance/percentage/download")
                 .with(csrf())
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Disposition", 
                     "attachment; filename=attendance_percentage.csv"))
                 .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().doesNotExist("Content-Encoding"))
                 .andExpect(content().string(org.hamcrest.Matchers.containsString("User ID")))
                 .andExpect(content().string(org.hamcrest.Matchers.containsString("Username")));
 
-        verify(attendanceService).getAttendancePercentage(
-            request.getStartDate(), 
-            request.getEndDate(), 
-            null
+        verify(attendanceService).forEachAttendancePercentage(
+            eq(request.getStartDate()), 
+            eq(request.getEndDate()), 
+            isNull(),
+            any()
         );
     }
 
@@ -389,15 +578,22 @@ class AttendanceControllerTest {
         request.setEndDate(LocalDate.now());
         request.setUserId(1L);
         
-        when(attendanceService.getAttendancePercentage(any(), any(), eq(1L)))
-                .thenReturn(Collections.emptyList());
+        stubReportRows();
 
         // Act & Assert
-        mockMvc.perform(post("/api/attendance/percentage/download")
+        MvcResult result = mockMvc.perform(post("/api/attendance/percentage/download")
                 .with(csrf())
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
-                .andExpect(status().isOk());
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(
+                    "User ID,Username,Total Days,Present Days,Absent Days,Leave Days,Attendance Percentage\n"));
+
+        verify(attendanceService).forEachAttendancePercentage(any(), any(), eq(1L), any());
     }
 
     @Test
@@ -415,7 +611,7 @@ class AttendanceControllerTest {
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isForbidden());
 
-        verify(attendanceService, never()).getAttendancePercentage(any(), any(), any());
+        verify(attendanceService, never()).forEachAttendancePercentage(any(), any(), any(), any());
     }
 
     @Test
@@ -426,18 +622,17 @@ class AttendanceControllerTest {
         request.setStartDate(LocalDate.now().minusDays(7));
         request.setEndDate(LocalDate.now());
         
-        List<AttendancePercentageResponse> data = Arrays.asList(
-            new AttendancePercentageResponse(1L, "user1", 7, 6, 1, 0, 85.71)
-        );
-        
-        when(attendanceService.getAttendancePercentage(any(), any(), any()))
-                .thenReturn(data);
+        stubReportRows(new AttendancePercentageResponse(1L, "user1", 7, 6, 1, 0, 85.71));
 
         // Act & Assert
-        mockMvc.perform(post("/api/attendance/percentage/download")
+        MvcResult result = mockMvc.perform(post("/api/attendance/percentage/download")
                 .with(csrf())
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().string(org.hamcrest.Matchers.containsString("Total Days")))
                 .andExpect(content().string(org.hamcrest.Matchers.containsString("Present Days")))
@@ -446,4 +641,51 @@ class AttendanceControllerTest {
                 .andExpect(content().string(org.hamcrest.Matchers.containsString("Attendance Percentage")))
                 .andExpect(content().string(org.hamcrest.Matchers.containsString("1,user1,7,6,1,0,85.71")));
     }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void downloadAttendancePercentage_WithGzipAccepted_ShouldReturnGzipEncodedCsv() throws Exception {
+        // Arrange
+        AttendanceReportRequest request = new AttendanceReportRequest();
+        request.setStartDate(LocalDate.now().minusDays(7));
+        request.setEndDate(LocalDate.now());
+        
+        stubReportRows(
+            new AttendancePercentageResponse(1L, "user1", 7, 6, 1, 0, 85.71),
+            new AttendancePercentageResponse(2L, "user2", 7, 7, 0, 0, 100.0)
+        );
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/api/attendance/percentage/download")
+                .with(csrf())
+                .header("Accept-Encoding", "gzip, deflate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            String csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(csv.startsWith("User ID,Username"));
+            assertTrue(csv.contains("1,user1,7,6,1,0,85.71\n"));
+            assertTrue(csv.contains("2,user2,7,7,0,0,100.0\n"));
+        }
+    }
+
+    private void stubReportRows(AttendancePercentageResponse... rows) {
+        doAnswer(invocation -> {
+            Consumer<AttendancePercentageResponse> consumer = invocation.getArgument(3);
+            for (AttendancePercentageResponse row : rows) {
+                consumer.accept(row);
+            }
+            return null;
+        }).when(attendanceService).forEachAttendancePercentage(any(), any(), any(), any());
+    }
 }
@@ -0,0 +1,112 @@
+package com.phantask.attendance.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.phantask.attendance.dto.AttendanceRollupResponse;
+import com.phantask.attendance.entity.AttendanceDailyRollup;
+import com.phantask.attendance.service.impl.AttendanceRollupService;
+import com.phantask.authentication.security.JwtFilter;
+import com.phantask.authentication.security.JwtUtil;
+
+/**
+ * Web layer tests for AttendanceRollupController
+ */
+@WebMvcTest(AttendanceRollupController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class AttendanceRollupControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AttendanceRollupService rollupService;
+
+    @MockBean
+    private JwtFilter jwtFilter;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @Test
+    @WithMockUser(authorities = "HR")
+    void getRollups_ShouldReturnCountsPerDayAndDepartment() throws Exception {
+        // Arrange
+        LocalDate date = LocalDate.of(2025, 3, 3);
+        AttendanceDailyRollup rollup = new AttendanceDailyRollup();
+        rollup.setRollupDate(date);
+        rollup.setDepartment("CSE");
+        rollup.setTotalCount(10);
+        rollup.setPresentCount(7);
+        rollup.setMaterializedAt(LocalDateTime.now());
+        when(rollupService.find(date, date, "CSE")).thenReturn(List.of(new AttendanceRollupResponse(rollup)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/attendance/rollups")
+                        .param("from", "2025-03-03")
+                        .param("to", "2025-03-03")
+                        .param("department", "CSE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].department").value("CSE"))
+                .andExpect(jsonPath("$[0].presentCount").value(7));
+    }
+
+    @Test
+    @WithMockUser(authorities = "HR")
+    void getRollups_WithTooLongRange_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/attendance/rollups")
+                        .param("from", "2024-01-01")
+                        .param("to", "2025-12-31"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verify(rollupService, never()).find(any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void materialize_ShouldRewriteRange() throws Exception {
+        // Arrange
+        when(rollupService.materialize(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 3))).thenReturn(9);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/attendance/rollups/materialize")
+                        .with(csrf())
+                        .param("from", "2025-03-01")
+                        .param("to", "2025-03-03"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.days").value(3))
+                .andExpect(jsonPath("$.rows").value(9));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void materialize_WithReversedRange_ShouldReturn400() throws Exception {
+        mockMvc.perform(post("/api/attendance/rollups/materialize")
+                        .with(csrf())
+                        .param("from", "2025-03-03")
+                        .param("to", "2025-03-01"))
+                .andExpect(status().isBadRequest());
+
+        verify(rollupService, never()).materialize(any(LocalDate.class), any(LocalDate.class));
+    }
+}
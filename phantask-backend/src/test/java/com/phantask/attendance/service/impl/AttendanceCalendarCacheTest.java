@@ -0,0 +1,119 @@
+package com.phantask.attendance.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.phantask.attendance.enums.AttendanceStatus;
+import com.phantask.attendance.repository.AttendanceDay;
+import com.phantask.attendance.repository.AttendanceRepository;
+
+/**
+ * Unit tests for AttendanceCalendarCache
+ */
+@ExtendWith(MockitoExtension.class)
+class AttendanceCalendarCacheTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+    private static final LocalDate DEC_31 = LocalDate.of(2024, 12, 31);
+
+    @Mock
+    private AttendanceRepository attendanceRepo;
+
+    private AttendanceCalendarCache calendarCache;
+
+    @BeforeEach
+    void setUp() {
+        calendarCache = new AttendanceCalendarCache(attendanceRepo, true, 100, 300);
+    }
+
+    @Test
+    void encode_ShouldRoundTripEveryStatusOnEveryDayOfLeapYear() {
+        // Arrange
+        AttendanceStatus[] statuses = AttendanceStatus.values();
+        List<AttendanceDay> days = new ArrayList<>();
+        for (LocalDate date = JAN_1; !date.isAfter(DEC_31); date = date.plusDays(2)) {
+            days.add(day(date, statuses[date.getDayOfYear() % statuses.length]));
+        }
+
+        // Act
+        byte[] calendar = AttendanceCalendarCache.encode(2024, days);
+
+        // Assert
+        assertEquals(138, calendar.length);
+        for (LocalDate date = JAN_1; !date.isAfter(DEC_31); date = date.plusDays(1)) {
+            AttendanceStatus expected = date.getDayOfYear() % 2 == 1
+                    ? statuses[date.getDayOfYear() % statuses.length]
+                    : null;
+            assertEquals(expected, AttendanceCalendarCache.statusOn(calendar, date.getDayOfYear()), date.toString());
+        }
+    }
+
+    @Test
+    void encode_ShouldIgnoreDaysOfOtherYears() {
+        byte[] calendar = AttendanceCalendarCache.encode(2024, List.of(
+                day(LocalDate.of(2023, 12, 31), AttendanceStatus.ABSENT)));
+
+        for (int dayOfYear = 1; dayOfYear <= 366; dayOfYear++) {
+            assertNull(AttendanceCalendarCache.statusOn(calendar, dayOfYear));
+        }
+    }
+
+    @Test
+    void get_ShouldLoadOnceUntilEvicted() {
+        // Arrange
+        when(attendanceRepo.findDaysForUserBetween(1L, JAN_1, DEC_31))
+                .thenReturn(List.of(day(LocalDate.of(2024, 3, 1), AttendanceStatus.WFH)));
+
+        // Act
+        byte[] first = calendarCache.get(1L, 2024);
+        byte[] second = calendarCache.get(1L, 2024);
+        calendarCache.evict(1L, 2024);
+        calendarCache.get(1L, 2024);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(AttendanceStatus.WFH, AttendanceCalendarCache.statusOn(first, 61));
+        verify(attendanceRepo, times(2)).findDaysForUserBetween(1L, JAN_1, DEC_31);
+    }
+
+    @Test
+    void evictYear_ShouldOnlyEvictCalendarsOfThatYear() {
+        // Arrange
+        LocalDate jan1Of2023 = LocalDate.of(2023, 1, 1);
+        LocalDate dec31Of2023 = LocalDate.of(2023, 12, 31);
+        when(attendanceRepo.findDaysForUserBetween(1L, JAN_1, DEC_31)).thenReturn(List.of());
+        when(attendanceRepo.findDaysForUserBetween(1L, jan1Of2023, dec31Of2023)).thenReturn(List.of());
+        calendarCache.get(1L, 2024);
+        calendarCache.get(1L, 2023);
+
+        // Act
+        calendarCache.evictYear(2024);
+        calendarCache.get(1L, 2024);
+        calendarCache.get(1L, 2023);
+
+        // Assert
+        verify(attendanceRepo, times(2)).findDaysForUserBetween(1L, JAN_1, DEC_31);
+        verify(attendanceRepo, times(1)).findDaysForUserBetween(1L, jan1Of2023, dec31Of2023);
+    }
+
+    private static AttendanceDay day(LocalDate date, AttendanceStatus status) {
+        return new AttendanceDay() {
+            @Override public LocalDate getAttendanceDate() { return date; }
+            @Override public AttendanceStatus getStatus() { return status; }
+        };
+    }
+}
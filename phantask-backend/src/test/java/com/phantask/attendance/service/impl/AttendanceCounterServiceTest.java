@@ -0,0 +1,122 @@
+package com.phantask.attendance.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.phantask.attendance.enums.AttendanceStatus;
+import com.phantask.attendance.repository.AttendanceCounterRepository;
+import com.phantask.attendance.repository.AttendanceRepository;
+
+/**
+ * Unit tests for AttendanceCounterService
+ */
+@ExtendWith(MockitoExtension.class)
+class AttendanceCounterServiceTest {
+
+    @Mock
+    private AttendanceCounterRepository counterRepo;
+
+    @Mock
+    private AttendanceRepository attendanceRepo;
+
+    @InjectMocks
+    private AttendanceCounterService counterService;
+
+    @Test
+    void recordDay_ShouldCountStatusInItsBucket() {
+        counterService.recordDay(1L, AttendanceStatus.CHECKED_IN);
+        counterService.recordDay(1L, AttendanceStatus.WFH);
+        counterService.recordDay(1L, AttendanceStatus.ABSENT);
+        counterService.recordDay(1L, AttendanceStatus.LEAVE);
+
+        InOrder order = inOrder(counterRepo);
+        // CHECKED_IN and WFH both count as present
+        order.verify(counterRepo, times(2)).addDay(1L, 1, 0, 0);
+        order.verify(counterRepo).addDay(1L, 0, 1, 0);
+        order.verify(counterRepo).addDay(1L, 0, 0, 1);
+    }
+
+    @Test
+    void insertCheckIns_ShouldCountInsertedRows() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        when(attendanceRepo.insertCheckIns(today, now, List.of(1L, 2L))).thenReturn(2);
+
+        // Act
+        int inserted = counterService.insertCheckIns(today, now, List.of(1L, 2L));
+
+        // Assert
+        assertEquals(2, inserted);
+        verify(counterRepo).addCheckIns(today, now, List.of(1L, 2L));
+    }
+
+    @Test
+    void insertCheckIns_WhenNothingInserted_ShouldNotTouchCounters() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        when(attendanceRepo.insertCheckIns(today, now, List.of(1L))).thenReturn(0);
+
+        assertEquals(0, counterService.insertCheckIns(today, now, List.of(1L)));
+        verify(counterRepo, never()).addCheckIns(any(), any(), any());
+    }
+
+    @Test
+    void insertAbsent_ShouldCountOnlyRowsAboveWatermark() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        when(attendanceRepo.findMaxId()).thenReturn(41L);
+        when(attendanceRepo.insertAbsentForUnmarkedUsers(today, 0L, 100L)).thenReturn(3);
+
+        // Act
+        int inserted = counterService.insertAbsent(today, 0L, 100L);
+
+        // Assert
+        assertEquals(3, inserted);
+        InOrder order = inOrder(attendanceRepo, counterRepo);
+        order.verify(attendanceRepo).findMaxId();
+        order.verify(attendanceRepo).insertAbsentForUnmarkedUsers(today, 0L, 100L);
+        order.verify(counterRepo).addAbsences(41L, today, 0L, 100L);
+    }
+
+    @Test
+    void insertAbsent_WhenNothingInserted_ShouldNotTouchCounters() {
+        LocalDate today = LocalDate.now();
+        when(attendanceRepo.findMaxId()).thenReturn(41L);
+        when(attendanceRepo.insertAbsentForUnmarkedUsers(today, 0L, 100L)).thenReturn(0);
+
+        assertEquals(0, counterService.insertAbsent(today, 0L, 100L));
+        verify(counterRepo, never()).addAbsences(anyLong(), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void initializeIfEmpty_ShouldRebuildOnlyEmptyTable() {
+        when(counterRepo.count()).thenReturn(0L);
+        counterService.initializeIfEmpty();
+        verify(counterRepo).rebuildAll();
+    }
+
+    @Test
+    void initializeIfEmpty_WhenCountersExist_ShouldKeepThem() {
+        when(counterRepo.count()).thenReturn(5L);
+        counterService.initializeIfEmpty();
+        verify(counterRepo, never()).rebuildAll();
+    }
+}
@@ -0,0 +1,150 @@
+package com.phantask.attendance.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.phantask.attendance.dto.AttendanceRollupResponse;
+import com.phantask.attendance.entity.AttendanceDailyRollup;
+import com.phantask.attendance.repository.AttendanceDailyRollupRepository;
+
+/**
+ * Unit tests for AttendanceRollupService
+ */
+@ExtendWith(MockitoExtension.class)
+class AttendanceRollupServiceTest {
+
+    @Mock
+    private AttendanceDailyRollupRepository rollupRepo;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private AttendanceRollupService rollupService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rollupService, "lookbackHours", 48L);
+        ReflectionTestUtils.setField(rollupService, "maxDaysPerRun", 2);
+        ReflectionTestUtils.setField(rollupService, "commitMarginSeconds", 60L);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void materialize_ShouldRewriteDayInOneTransaction() {
+        // Arrange
+        LocalDate date = LocalDate.of(2025, 3, 3);
+        when(rollupRepo.insertForDate(date, 60L)).thenReturn(4);
+
+        // Act
+        int rows = rollupService.materialize(date);
+
+        // Assert
+        assertEquals(4, rows);
+        InOrder order = inOrder(transactionTemplate, rollupRepo);
+        order.verify(transactionTemplate).execute(any());
+        order.verify(rollupRepo).deleteByDate(date);
+        order.verify(rollupRepo).insertForDate(date, 60L);
+    }
+
+    @Test
+    void materializeRange_ShouldMaterializeEveryDay() {
+        when(rollupRepo.insertForDate(any(), anyLong())).thenReturn(2);
+
+        int rows = rollupService.materialize(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 3));
+
+        assertEquals(6, rows);
+        verify(rollupRepo).insertForDate(LocalDate.of(2025, 3, 1), 60L);
+        verify(rollupRepo).insertForDate(LocalDate.of(2025, 3, 2), 60L);
+        verify(rollupRepo).insertForDate(LocalDate.of(2025, 3, 3), 60L);
+    }
+
+    @Test
+    void refreshStaleDays_ShouldMaterializeChangedPastDaysOnly() {
+        // Arrange
+        LocalDate changed = LocalDate.now().minusDays(3);
+        when(rollupRepo.findStaleDays(any(LocalDateTime.class), eq(LocalDate.now()), eq(PageRequest.of(0, 2))))
+                .thenReturn(List.of(changed));
+
+        // Act
+        int days = rollupService.refreshStaleDays();
+
+        // Assert
+        assertEquals(1, days);
+        verify(rollupRepo).deleteByDate(changed);
+        verify(rollupRepo).insertForDate(changed, 60L);
+    }
+
+    @Test
+    void refreshStaleDays_WithNothingChanged_ShouldNotWrite() {
+        when(rollupRepo.findStaleDays(any(), any(), any())).thenReturn(List.of());
+
+        assertEquals(0, rollupService.refreshStaleDays());
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    void find_WithoutDepartment_ShouldReturnAllDepartments() {
+        // Arrange
+        LocalDate date = LocalDate.of(2025, 3, 3);
+        when(rollupRepo.findByRollupDateBetweenOrderByRollupDateAscDepartmentAsc(date, date))
+                .thenReturn(List.of(rollup(date, ""), rollup(date, "CSE")));
+
+        // Act
+        List<AttendanceRollupResponse> result = rollupService.find(date, date, null);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertNull(result.get(0).getDepartment());
+        assertEquals("CSE", result.get(1).getDepartment());
+        assertEquals(7, result.get(1).getPresentCount());
+    }
+
+    @Test
+    void find_WithDepartment_ShouldFilterInDatabase() {
+        LocalDate date = LocalDate.of(2025, 3, 3);
+        when(rollupRepo.findByRollupDateBetweenAndDepartmentOrderByRollupDateAsc(date, date, "CSE"))
+                .thenReturn(List.of(rollup(date, "CSE")));
+
+        assertEquals(1, rollupService.find(date, date, "CSE").size());
+        verify(rollupRepo, never()).findByRollupDateBetweenOrderByRollupDateAscDepartmentAsc(any(), any());
+    }
+
+    private static AttendanceDailyRollup rollup(LocalDate date, String department) {
+        AttendanceDailyRollup rollup = new AttendanceDailyRollup();
+        rollup.setRollupDate(date);
+        rollup.setDepartment(department);
+        rollup.setTotalCount(10);
+        rollup.setPresentCount(7);
+        rollup.setWfhCount(1);
+        rollup.setAbsentCount(2);
+        rollup.setLeaveCount(1);
+        rollup.setMaterializedAt(LocalDateTime.now());
+        return rollup;
+    }
+}
@@ -0,0 +1,107 @@
+package com.phantask.attendance.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.phantask.exception.AttendanceAlreadyMarkedException;
+
+/**
+ * Unit tests for AttendanceScanLocks
+ */
+class AttendanceScanLocksTest {
+
+    @Test
+    void withUserLock_ShouldSerialiseScansOfSameUser() throws Exception {
+        // Arrange
+        AttendanceScanLocks locks = new AttendanceScanLocks(16, 5000);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+
+        // Act
+        try {
+            Future<?>[] scans = new Future<?>[8];
+            for (int i = 0; i < scans.length; i++) {
+                scans[i] = pool.submit(() -> locks.withUserLock(1L, () -> {
+                    maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                    sleep(5);
+                    return inside.decrementAndGet();
+                }));
+            }
+            for (Future<?> scan : scans) {
+                scan.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Assert
+        assertEquals(1, maxInside.get());
+    }
+
+    @Test
+    void withUserLock_WhenStripeBusyPastTimeout_ShouldRejectScan() throws Exception {
+        // Arrange
+        AttendanceScanLocks locks = new AttendanceScanLocks(16, 50);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> locks.withUserLock(1L, () -> {
+            held.countDown();
+            await(release);
+            return null;
+        }));
+        holder.start();
+        assertTrue(held.await(5, TimeUnit.SECONDS));
+
+        // Act & Assert
+        try {
+            assertThrows(AttendanceAlreadyMarkedException.class,
+                    () -> locks.withUserLock(1L, () -> "second scan"));
+        } finally {
+            release.countDown();
+            holder.join(5000);
+        }
+        assertEquals("third scan", locks.withUserLock(1L, () -> "third scan"));
+    }
+
+    @Test
+    void lockFor_ShouldUseFixedNumberOfStripes() {
+        AttendanceScanLocks locks = new AttendanceScanLocks(10, 1000);
+
+        // rounded up to 16 stripes: more users than stripes share locks
+        assertSame(locks.lockFor(42L), locks.lockFor(42L));
+        long distinct = LongStream.range(0, 1000)
+                .mapToObj(locks::lockFor)
+                .distinct()
+                .count();
+        assertEquals(16, distinct);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package com.phantask.attendance.service.impl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -16,27 +20,50 @@ import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.phantask.attendance.dto.AttendanceCalendarResponse;
+import com.phantask.attendance.dto.AttendanceEntryResponse;
+import com.phantask.attendance.dto.AttendanceMarkResult;
+import com.phantask.attendance.dto.AttendancePageResponse;
 import com.phantask.attendance.dto.AttendancePercentageResponse;
+import com.phantask.attendance.dto.EarlyCheckoutEvent;
 import com.phantask.attendance.entity.Attendance;
-import com.phantask.attendance.entity.AttendanceToken;
+import com.phantask.attendance.entity.AttendanceCounter;
 import com.phantask.attendance.enums.AttendanceStatus;
+import com.phantask.attendance.enums.AttendanceUiState;
+import com.phantask.attendance.repository.AttendanceCounts;
 import com.phantask.attendance.repository.AttendanceRepository;
-import com.phantask.attendance.repository.AttendanceTokenRepository;
+import com.phantask.attendance.repository.AttendanceScanState;
+import com.phantask.attendance.service.AttendanceTokenStore;
+import com.phantask.attendance.service.LiveAttendanceToken;
 import com.phantask.authentication.entity.User;
 import com.phantask.authentication.repository.UserRepository;
 import com.phantask.exception.AttendanceAlreadyMarkedException;
@@ -58,11 +85,29 @@ class AttendanceServiceImplTest {
     private AttendanceRepository attendanceRepo;
 
     @Mock
-    private AttendanceTokenRepository tokenRepo;
+    private AttendanceTokenStore tokenStore;
 
     @Mock
     private UserRepository userRepo;
 
+    @Mock
+    private AttendanceCounterService counterService;
+
+    @Mock
+    private AttendanceCalendarCache calendarCache;
+
+    @Mock
+    private ParallelAttendanceSummarizer reportSummarizer;
+
+    @Spy
+    private AttendanceScanLocks scanLocks = new AttendanceScanLocks(16, 1000);
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -74,7 +119,7 @@ class AttendanceServiceImplTest {
 
     private User testUser;
     private Attendance testAttendance;
-    private AttendanceToken testToken;
+    private LiveAttendanceToken testToken;
 
     @BeforeEach
     void setUp() {
@@ -94,22 +139,21 @@ class AttendanceServiceImplTest {
         testAttendance.setStatus(AttendanceStatus.CHECKED_IN);
 
         // Setup test token
-        testToken = new AttendanceToken();
-        testToken.setId(1L);
-        testToken.setToken("valid-jwt-token");
-        testToken.setUser(testUser);
-        testToken.setDate(LocalDate.now());
-        testToken.setExpiresAt(LocalDateTime.now().plusMinutes(5));
-        testToken.setUsed(false);
+        testToken = new LiveAttendanceToken(
+                1L, LocalDate.now(), LocalDateTime.now().plusMinutes(5));
 
         // Mock security context
         SecurityContextHolder.setContext(securityContext);
+
+        // Run transaction callbacks inline
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 
     // ==================== registerQrToken() Tests ====================
 
     @Test
-    void registerQrToken_WithValidUser_ShouldSaveToken() {
+    void registerQrToken_WithValidUser_ShouldRegisterToken() {
         // Arrange
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getName()).thenReturn("testuser");
@@ -121,8 +165,8 @@ class AttendanceServiceImplTest {
         attendanceService.registerQrToken("new-token");
 
         // Assert
-        verify(tokenRepo).invalidateActiveTokens(testUser, LocalDate.now());
-        verify(tokenRepo).save(any(AttendanceToken.class));
+        verify(tokenStore).register(eq("new-token"), eq(testUser), eq(LocalDate.now()),
+                argThat(expiresAt -> expiresAt.isAfter(LocalDateTime.now().plusMinutes(4))));
     }
 
     @Test
@@ -139,7 +183,7 @@ class AttendanceServiceImplTest {
         assertThrows(AttendanceAlreadyMarkedException.class, 
                 () -> attendanceService.registerQrToken("new-token"));
         
-        verify(tokenRepo, never()).save(any(AttendanceToken.class));
+        verify(tokenStore, never()).register(any(), any(), any(), any());
     }
 
     @Test
@@ -170,7 +214,7 @@ class AttendanceServiceImplTest {
         attendanceService.registerQrToken("new-token");
 
         // Assert - Should allow token generation for checkout
-        verify(tokenRepo).save(any(AttendanceToken.class));
+        verify(tokenStore).register(eq("new-token"), eq(testUser), any(), any());
     }
 
     // ==================== markAttendance() Tests ====================
@@ -178,8 +222,8 @@ class AttendanceServiceImplTest {
     @Test
     void markAttendance_WithValidToken_ShouldCheckInUser() {
         // Arrange
-        when(tokenRepo.findByTokenAndUsedFalse("valid-token"))
-                .thenReturn(Optional.of(testToken));
+        when(tokenStore.consume("valid-token")).thenReturn(Optional.of(testToken));
+        when(userRepo.findById(1L)).thenReturn(Optional.of(testUser));
         when(attendanceRepo.findByUserAndAttendanceDate(testUser, LocalDate.now()))
                 .thenReturn(Optional.empty());
         when(attendanceRepo.save(any(Attendance.class))).thenAnswer(i -> i.getArgument(0));
@@ -194,8 +238,9 @@ class AttendanceServiceImplTest {
         assertEquals(AttendanceStatus.CHECKED_IN, result.getStatus());
         assertEquals(testUser, result.getUser());
         
-        verify(tokenRepo).save(argThat(token -> token.isUsed()));
         verify(attendanceRepo).save(any(Attendance.class));
+        verify(counterService).recordDay(1L, AttendanceStatus.CHECKED_IN);
+        verify(calendarCache).evict(1L, LocalDate.now().getYear());
     }
 
     @Test
@@ -204,8 +249,8 @@ class AttendanceServiceImplTest {
         testAttendance.setCheckInTime(LocalDateTime.now().minusHours(8));
         testAttendance.setCheckOutTime(null);
         
-        when(tokenRepo.findByTokenAndUsedFalse("valid-token"))
-                .thenReturn(Optional.of(testToken));
+        when(tokenStore.consume("valid-token")).thenReturn(Optional.of(testToken));
+        when(userRepo.findById(1L)).thenReturn(Optional.of(testUser));
         when(attendanceRepo.findByUserAndAttendanceDate(testUser, LocalDate.now()))
                 .thenReturn(Optional.of(testAttendance));
         when(attendanceRepo.save(any(Attendance.class))).thenAnswer(i -> i.getArgument(0));
@@ -217,16 +262,40 @@ class AttendanceServiceImplTest {
         assertNotNull(result.getCheckInTime());
         assertNotNull(result.getCheckOutTime());
         assertEquals(AttendanceStatus.CHECKED_OUT, result.getStatus());
+        // a check-out keeps the day present, the counters are unchanged
+        verify(counterService, never()).recordDay(any(), any());
+    }
+
+    @Test
+    void markAttendance_WithEarlyCheckout_ShouldPublishEventInsteadOfSendingMail() {
+        // Arrange
+        testAttendance.setCheckInTime(LocalDateTime.now().minusHours(3));
+        testAttendance.setCheckOutTime(null);
         
-        verify(tokenRepo).save(argThat(token -> token.isUsed()));
+        when(tokenStore.consume("valid-token")).thenReturn(Optional.of(testToken));
+        when(userRepo.findById(1L)).thenReturn(Optional.of(testUser));
+        when(attendanceRepo.findByUserAndAttendanceDate(testUser, LocalDate.now()))
+                .thenReturn(Optional.of(testAttendance));
+        when(attendanceRepo.save(any(Attendance.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        Attendance result = attendanceService.markAttendance("valid-token");
+
+        // Assert
+        assertNotNull(result.getCheckOutTime());
+        assertEquals(AttendanceStatus.CHECKED_IN, result.getStatus());
+        verify(eventPublisher).publishEvent(argThat((Object event) -> 
+            event instanceof EarlyCheckoutEvent e 
+                && e.getEmployeeName().equals("testuser") 
+                && e.getWorkedMinutes() < 8 * 60));
     }
 
     @Test
     void markAttendance_WithExpiredToken_ShouldThrowException() {
         // Arrange
-        testToken.setExpiresAt(LocalDateTime.now().minusMinutes(1)); // Expired
-        when(tokenRepo.findByTokenAndUsedFalse("expired-token"))
-                .thenReturn(Optional.of(testToken));
+        LiveAttendanceToken expired = new LiveAttendanceToken(
+                1L, LocalDate.now(), LocalDateTime.now().minusMinutes(1));
+        when(tokenStore.consume("expired-token")).thenReturn(Optional.of(expired));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, 
@@ -239,8 +308,7 @@ class AttendanceServiceImplTest {
     @Test
     void markAttendance_WithInvalidToken_ShouldThrowException() {
         // Arrange
-        when(tokenRepo.findByTokenAndUsedFalse("invalid-token"))
-                .thenReturn(Optional.empty());
+        when(tokenStore.consume("invalid-token")).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(RuntimeException.class, 
@@ -253,8 +321,8 @@ class AttendanceServiceImplTest {
         testAttendance.setCheckInTime(LocalDateTime.now().minusHours(8));
         testAttendance.setCheckOutTime(LocalDateTime.now());
         
-        when(tokenRepo.findByTokenAndUsedFalse("valid-token"))
-                .thenReturn(Optional.of(testToken));
+        when(tokenStore.consume("valid-token")).thenReturn(Optional.of(testToken));
+        when(userRepo.findById(1L)).thenReturn(Optional.of(testUser));
         when(attendanceRepo.findByUserAndAttendanceDate(testUser, LocalDate.now()))
                 .thenReturn(Optional.of(testAttendance));
 
@@ -266,10 +334,10 @@ class AttendanceServiceImplTest {
     }
 
     @Test
-    void markAttendance_ShouldMarkTokenAsUsed() {
+    void markAttendance_ShouldConsumeToken() {
         // Arrange
-        when(tokenRepo.findByTokenAndUsedFalse("valid-token"))
-                .thenReturn(Optional.of(testToken));
+        when(tokenStore.consume("valid-token")).thenReturn(Optional.of(testToken));
+        when(userRepo.findById(1L)).thenReturn(Optional.of(testUser));
         when(attendanceRepo.findByUserAndAttendanceDate(any(), any()))
                 .thenReturn(Optional.empty());
         when(attendanceRepo.save(any())).thenAnswer(i -> i.getArgument(0));
@@ -278,9 +346,345 @@ class AttendanceServiceImplTest {
         attendanceService.markAttendance("valid-token");
 
         // Assert
-        verify(tokenRepo).save(argThat(token -> 
-            token.isUsed() == true && token.getToken().equals("valid-jwt-token")
-        ));
+        verify(tokenStore).consume("valid-token");
+        verify(tokenStore, never()).restore(any(), any());
+    }
+
+    @Test
+    void markAttendance_ShouldWriteInTransactionWhileHoldingUserLock() {
+        // Arrange
+        when(tokenStore.consume("valid-token")).thenReturn(Optional.of(testToken));
+        when(userRepo.findById(1L)).thenReturn(Optional.of(testUser));
+        when(attendanceRepo.findByUserAndAttendanceDate(testUser, LocalDate.now()))
+                .thenReturn(Optional.empty());
+        AtomicBoolean lockedDuringSave = new AtomicBoolean();
+        when(attendanceRepo.save(any(Attendance.class))).thenAnswer(i -> {
+            lockedDuringSave.set(scanLocks.lockFor(1L).isHeldByCurrentThread());
+            return i.getArgument(0);
+        });
+
+        // Act
+        attendanceService.markAttendance("valid-token");
+
+        // Assert
+        assertTrue(lockedDuringSave.get());
+        assertFalse(scanLocks.lockFor(1L).isLocked());
+        verify(transactionTemplate).execute(any());
+    }
+
+    @Test
+    void markAttendance_WhenConcurrentScanOnAnotherNodeInserted_ShouldThrowConflict() {
+        // Arrange
+        when(tokenStore.consume("valid-token")).thenReturn(Optional.of(testToken));
+        when(userRepo.findById(1L)).thenReturn(Optional.of(testUser));
+        when(attendanceRepo.findByUserAndAttendanceDate(testUser, LocalDate.now()))
+                .thenReturn(Optional.empty());
+        when(attendanceRepo.save(any(Attendance.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        // Act & Assert
+        assertThrows(AttendanceAlreadyMarkedException.class,
+                () -> attendanceService.markAttendance("valid-token"));
+        verify(calendarCache, never()).evict(any(), anyInt());
+        verify(tokenStore).restore("valid-token", testToken);
+    }
+
+    @Test
+    void markAttendance_WhenCheckOutLosesVersionCheck_ShouldThrowConflict() {
+        // Arrange
+        when(tokenStore.consume("valid-token")).thenReturn(Optional.of(testToken));
+        doThrow(new ObjectOptimisticLockingFailureException(Attendance.class, 1L))
+                .when(transactionTemplate).execute(any());
+
+        // Act & Assert
+        assertThrows(AttendanceAlreadyMarkedException.class,
+                () -> attendanceService.markAttendance("valid-token"));
+        verify(tokenStore).restore("valid-token", testToken);
+    }
+
+    @Test
+    void markAttendance_WhenRestoringTokenFails_ShouldStillThrowConflict() {
+        // Arrange
+        when(tokenStore.consume("valid-token")).thenReturn(Optional.of(testToken));
+        doThrow(new ObjectOptimisticLockingFailureException(Attendance.class, 1L))
+                .when(transactionTemplate).execute(any());
+        doThrow(new RuntimeException("Database down"))
+                .when(tokenStore).restore("valid-token", testToken);
+
+        // Act & Assert
+        assertThrows(AttendanceAlreadyMarkedException.class,
+                () -> attendanceService.markAttendance("valid-token"));
+    }
+
+    @Test
+    void markAttendance_WhenMarkedAbsent_ShouldRejectScan() {
+        // Arrange
+        testAttendance.setStatus(AttendanceStatus.ABSENT);
+        testAttendance.setCheckInTime(null);
+        when(tokenStore.consume("valid-token")).thenReturn(Optional.of(testToken));
+        when(userRepo.findById(1L)).thenReturn(Optional.of(testUser));
+        when(attendanceRepo.findByUserAndAttendanceDate(testUser, LocalDate.now()))
+                .thenReturn(Optional.of(testAttendance));
+
+        // Act & Assert
+        AttendanceAlreadyMarkedException exception = assertThrows(AttendanceAlreadyMarkedException.class,
+                () -> attendanceService.markAttendance("valid-token"));
+        assertEquals("Attendance already recorded as ABSENT", exception.getMessage());
+        verify(attendanceRepo, never()).save(any(Attendance.class));
+    }
+
+    // ==================== markAttendanceBulk() Tests ====================
+
+    @Test
+    void markAttendanceBulk_ShouldReturnResultPerTokenInRequestOrder() {
+        // Arrange
+        User checkedIn = user(2L, "user2");
+        User completed = user(3L, "user3");
+        Attendance open = attendanceOf(checkedIn, LocalDateTime.now().minusHours(9), null);
+        Attendance done = attendanceOf(completed, LocalDateTime.now().minusHours(9), LocalDateTime.now());
+
+        when(tokenStore.consumeAll(List.of("t-in", "t-out", "unknown", "t-done")))
+                .thenReturn(Map.of(
+                    "t-in", liveToken(1L),
+                    "t-out", liveToken(2L),
+                    "t-done", liveToken(3L)));
+        when(userRepo.findAllById(any())).thenReturn(List.of(testUser, checkedIn, completed));
+        when(attendanceRepo.findByUserUidInAndAttendanceDate(any(), eq(LocalDate.now())))
+                .thenReturn(List.of(open, done));
+        when(counterService.insertCheckIns(eq(LocalDate.now()), any(), any())).thenReturn(1);
+        when(attendanceRepo.checkOutAll(eq(LocalDate.now()), any(), any(), any())).thenReturn(1);
+
+        // Act
+        List<AttendanceMarkResult> results = attendanceService.markAttendanceBulk(
+                Arrays.asList("t-in", "t-out", "unknown", "", "t-done"));
+
+        // Assert
+        assertEquals(5, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("testuser", results.get(0).getUsername());
+        assertEquals(AttendanceUiState.CHECKED_IN, results.get(0).getAttendance().getState());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals(AttendanceUiState.COMPLETED, results.get(1).getAttendance().getState());
+        assertEquals("Invalid or used QR token", results.get(2).getError());
+        assertEquals("QR token is required", results.get(3).getError());
+        assertEquals("Attendance already completed", results.get(4).getError());
+
+        verify(counterService).insertCheckIns(eq(LocalDate.now()), any(), 
+                argThat(ids -> ids.size() == 1 && ids.contains(1L)));
+        verify(attendanceRepo).checkOutAll(eq(LocalDate.now()), any(), any(), 
+                argThat(ids -> ids.size() == 1 && ids.contains(2L)));
+        verify(attendanceRepo, never()).save(any(Attendance.class));
+        verify(eventPublisher, never()).publishEvent(any(EarlyCheckoutEvent.class));
+    }
+
+    @Test
+    void markAttendanceBulk_WhenAttendanceAlreadyCompleted_ShouldRestoreOnlyItsToken() {
+        // Arrange
+        User completed = user(3L, "user3");
+        LiveAttendanceToken doneToken = liveToken(3L);
+        when(tokenStore.consumeAll(List.of("t-in", "t-done")))
+                .thenReturn(Map.of("t-in", liveToken(1L), "t-done", doneToken));
+        when(userRepo.findAllById(any())).thenReturn(List.of(testUser, completed));
+        when(attendanceRepo.findByUserUidInAndAttendanceDate(any(), any())).thenReturn(List.of(
+                attendanceOf(completed, LocalDateTime.now().minusHours(9), LocalDateTime.now())));
+        when(counterService.insertCheckIns(any(), any(), any())).thenReturn(1);
+
+        // Act
+        List<AttendanceMarkResult> results = attendanceService.markAttendanceBulk(List.of("t-in", "t-done"));
+
+        // Assert
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("Attendance already completed", results.get(1).getError());
+        verify(tokenStore).restore("t-done", doneToken);
+        verify(tokenStore, never()).restore(eq("t-in"), any());
+    }
+
+    @Test
+    void markAttendanceBulk_WhenCheckInStatementFails_ShouldKeepCheckOuts() {
+        // Arrange
+        User checkedIn = user(2L, "user2");
+        Attendance open = attendanceOf(checkedIn, LocalDateTime.now().minusHours(2), null);
+
+        when(tokenStore.consumeAll(List.of("t-in", "t-out")))
+                .thenReturn(Map.of("t-in", liveToken(1L), "t-out", liveToken(2L)));
+        when(userRepo.findAllById(any())).thenReturn(List.of(testUser, checkedIn));
+        when(attendanceRepo.findByUserUidInAndAttendanceDate(any(), any())).thenReturn(List.of(open));
+        when(counterService.insertCheckIns(any(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(attendanceRepo.checkOutAll(any(), any(), any(), any())).thenReturn(1);
+
+        // Act
+        List<AttendanceMarkResult> results = attendanceService.markAttendanceBulk(List.of("t-in", "t-out"));
+
+        // Assert
+        assertEquals(false, results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        // checked out after 2 hours: early checkout alert, like a single scan
+        verify(eventPublisher).publishEvent(argThat((Object event) -> 
+            event instanceof EarlyCheckoutEvent e && e.getEmployeeName().equals("user2")));
+        // the failed check-in recorded nothing: its token can be scanned again
+        verify(tokenStore).restore(eq("t-in"), any());
+        verify(tokenStore, never()).restore(eq("t-out"), any());
+    }
+
+    @Test
+    void markAttendanceBulk_WhenLookupFails_ShouldRestoreEveryTokenAndRethrow() {
+        // Arrange
+        when(tokenStore.consumeAll(List.of("a", "b")))
+                .thenReturn(Map.of("a", liveToken(1L), "b", liveToken(2L)));
+        when(userRepo.findAllById(any())).thenThrow(new DataAccessResourceFailureException("Database down"));
+
+        // Act & Assert
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> attendanceService.markAttendanceBulk(List.of("a", "b")));
+        verify(tokenStore).restore(eq("a"), any());
+        verify(tokenStore).restore(eq("b"), any());
+    }
+
+    @Test
+    void markAttendanceBulk_WhenWrittenRowsCannotBeConfirmed_ShouldKeepTokensConsumed() {
+        // Arrange: one of two check-ins is skipped and the re-read fails
+        when(tokenStore.consumeAll(List.of("a", "b")))
+                .thenReturn(Map.of("a", liveToken(1L), "b", liveToken(4L)));
+        when(userRepo.findAllById(any())).thenReturn(List.of(testUser, user(4L, "user4")));
+        when(attendanceRepo.findByUserUidInAndAttendanceDate(any(), any())).thenReturn(List.of());
+        when(counterService.insertCheckIns(any(), any(), any())).thenReturn(1);
+        when(attendanceRepo.findScanStates(any(), any()))
+                .thenThrow(new DataAccessResourceFailureException("Database down"));
+
+        // Act
+        List<AttendanceMarkResult> results = attendanceService.markAttendanceBulk(List.of("a", "b"));
+
+        // Assert: either user may have been checked in, a rescan must not check them out
+        assertFalse(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        verify(tokenStore, never()).restore(any(), any());
+    }
+
+    @Test
+    void markAttendanceBulk_WithExpiredAndDuplicateTokens_ShouldRejectThem() {
+        // Arrange
+        LiveAttendanceToken expired = new LiveAttendanceToken(
+                2L, LocalDate.now(), LocalDateTime.now().minusMinutes(1));
+        when(tokenStore.consumeAll(List.of("a", "b", "c")))
+                .thenReturn(Map.of("a", liveToken(1L), "b", liveToken(1L), "c", expired));
+        when(userRepo.findAllById(any())).thenReturn(List.of(testUser));
+        when(attendanceRepo.findByUserUidInAndAttendanceDate(any(), any())).thenReturn(List.of());
+        when(counterService.insertCheckIns(any(), any(), any())).thenReturn(1);
+
+        // Act
+        List<AttendanceMarkResult> results = attendanceService.markAttendanceBulk(List.of("a", "b", "c"));
+
+        // Assert
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("Duplicate scan in batch", results.get(1).getError());
+        assertEquals("QR token expired", results.get(2).getError());
+        verify(tokenStore).restore(eq("b"), any());
+        verify(tokenStore, never()).restore(eq("a"), any());
+        verify(tokenStore, never()).restore(eq("c"), any());
+    }
+
+    @Test
+    void markAttendanceBulk_WhenUserCheckedInConcurrently_ShouldReportOnlyInsertedRows() {
+        // Arrange: user4 is checked in by another scan between lookup and INSERT
+        User other = user(4L, "user4");
+        AtomicReference<LocalDateTime> batchTime = new AtomicReference<>();
+        when(tokenStore.consumeAll(List.of("a", "b")))
+                .thenReturn(Map.of("a", liveToken(1L), "b", liveToken(4L)));
+        when(userRepo.findAllById(any())).thenReturn(List.of(testUser, other));
+        when(attendanceRepo.findByUserUidInAndAttendanceDate(any(), any())).thenReturn(List.of());
+        when(counterService.insertCheckIns(any(), any(), any())).thenAnswer(inv -> {
+            batchTime.set(inv.getArgument(1));
+            return 1;
+        });
+        when(attendanceRepo.findScanStates(any(), eq(LocalDate.now()))).thenAnswer(inv -> List.of(
+                scanState(1L, batchTime.get(), null),
+                scanState(4L, batchTime.get().minusSeconds(1), null)));
+
+        // Act
+        List<AttendanceMarkResult> results = attendanceService.markAttendanceBulk(List.of("a", "b"));
+
+        // Assert
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Attendance already marked", results.get(1).getError());
+    }
+
+    @Test
+    void markAttendanceBulk_WhenUserCheckedOutConcurrently_ShouldNotReportOrAlertIt() {
+        // Arrange: both checked in 2 hours ago, user3 checks out elsewhere before the UPDATE
+        User first = user(2L, "user2");
+        User second = user(3L, "user3");
+        AtomicReference<LocalDateTime> batchTime = new AtomicReference<>();
+        when(tokenStore.consumeAll(List.of("a", "b")))
+                .thenReturn(Map.of("a", liveToken(2L), "b", liveToken(3L)));
+        when(userRepo.findAllById(any())).thenReturn(List.of(first, second));
+        when(attendanceRepo.findByUserUidInAndAttendanceDate(any(), any())).thenReturn(List.of(
+                attendanceOf(first, LocalDateTime.now().minusHours(2), null),
+                attendanceOf(second, LocalDateTime.now().minusHours(2), null)));
+        when(attendanceRepo.checkOutAll(any(), any(), any(), any())).thenAnswer(inv -> {
+            batchTime.set(inv.getArgument(1));
+            return 1;
+        });
+        when(attendanceRepo.findScanStates(any(), eq(LocalDate.now()))).thenAnswer(inv -> List.of(
+                scanState(2L, LocalDateTime.now().minusHours(2), batchTime.get()),
+                scanState(3L, LocalDateTime.now().minusHours(2), batchTime.get().minusSeconds(5))));
+
+        // Act
+        List<AttendanceMarkResult> results = attendanceService.markAttendanceBulk(List.of("a", "b"));
+
+        // Assert
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("Attendance already completed", results.get(1).getError());
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+            event instanceof EarlyCheckoutEvent e && e.getEmployeeName().equals("user2")));
+        verify(eventPublisher, never()).publishEvent(argThat((Object event) ->
+            event instanceof EarlyCheckoutEvent e && e.getEmployeeName().equals("user3")));
+    }
+
+    private static AttendanceScanState scanState(Long userId, LocalDateTime checkIn, LocalDateTime checkOut) {
+        return new AttendanceScanState() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public LocalDateTime getCheckInTime() {
+                return checkIn;
+            }
+
+            @Override
+            public LocalDateTime getCheckOutTime() {
+                return checkOut;
+            }
+
+            @Override
+            public AttendanceStatus getStatus() {
+                return AttendanceStatus.CHECKED_IN;
+            }
+        };
+    }
+
+    private static User user(Long uid, String username) {
+        User user = new User();
+        user.setUid(uid);
+        user.setUsername(username);
+        return user;
+    }
+
+    private static Attendance attendanceOf(User user, LocalDateTime checkIn, LocalDateTime checkOut) {
+        Attendance attendance = new Attendance();
+        attendance.setUser(user);
+        attendance.setAttendanceDate(LocalDate.now());
+        attendance.setCheckInTime(checkIn);
+        attendance.setCheckOutTime(checkOut);
+        attendance.setStatus(checkOut == null ? AttendanceStatus.CHECKED_IN : AttendanceStatus.CHECKED_OUT);
+        return attendance;
+    }
+
+    private static LiveAttendanceToken liveToken(Long userId) {
+        return new LiveAttendanceToken(userId, LocalDate.now(), LocalDateTime.now().plusMinutes(5));
     }
 
     // ==================== getMyAttendance() Tests ====================
@@ -316,6 +720,76 @@ class AttendanceServiceImplTest {
         assertThrows(RuntimeException.class, () -> attendanceService.getMyAttendance());
     }
 
+    // ==================== getMyAttendancePage() Tests ====================
+
+    @Test
+    void getMyAttendancePage_WithMoreRows_ShouldReturnPageAndCursor() {
+        // Arrange
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 1, 31);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(userRepo.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(attendanceRepo.findPageForUser(1L, from, LocalDate.of(2025, 2, 1), PageRequest.of(0, 3)))
+                .thenReturn(List.of(
+                        entry(LocalDate.of(2025, 1, 31)),
+                        entry(LocalDate.of(2025, 1, 30)),
+                        entry(LocalDate.of(2025, 1, 29))));
+
+        // Act
+        AttendancePageResponse page = attendanceService.getMyAttendancePage(from, to, null, 2);
+
+        // Assert
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(LocalDate.of(2025, 1, 30), page.getNextCursor());
+        verify(attendanceRepo, never()).findByUser(any());
+    }
+
+    @Test
+    void getMyAttendancePage_WithCursor_ShouldContinueBelowIt() {
+        // Arrange
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 1, 31);
+        LocalDate before = LocalDate.of(2025, 1, 30);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(userRepo.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(attendanceRepo.findPageForUser(1L, from, before, PageRequest.of(0, 3)))
+                .thenReturn(List.of(entry(LocalDate.of(2025, 1, 29))));
+
+        // Act
+        AttendancePageResponse page = attendanceService.getMyAttendancePage(from, to, before, 2);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    // ==================== getMyAttendanceCalendar() Tests ====================
+
+    @Test
+    void getMyAttendanceCalendar_ShouldReturnPackedCalendarFromCache() {
+        // Arrange
+        byte[] calendar = new byte[] { 1, 2, 3 };
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(userRepo.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(calendarCache.get(1L, 2025)).thenReturn(calendar);
+
+        // Act
+        AttendanceCalendarResponse result = attendanceService.getMyAttendanceCalendar(2025);
+
+        // Assert
+        assertEquals(1L, result.getUserId());
+        assertEquals(2025, result.getYear());
+        assertEquals(AttendanceCalendarCache.BITS_PER_DAY, result.getBitsPerDay());
+        assertEquals("NONE", result.getCodes().get(0));
+        assertEquals(Base64.getEncoder().encodeToString(calendar), result.getDays());
+        verify(attendanceRepo, never()).findByUser(any());
+    }
+
     // ==================== getMyAttendancePercentage() Tests ====================
 
     @Test
@@ -324,8 +798,7 @@ class AttendanceServiceImplTest {
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getName()).thenReturn("testuser");
         when(userRepo.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(attendanceRepo.findByUserUidAndAttendanceDateBetween(anyLong(), any(), any()))
-                .thenReturn(Collections.emptyList());
+        when(counterService.find(1L)).thenReturn(Optional.empty());
 
         // Act
         AttendancePercentageResponse result = attendanceService.getMyAttendancePercentage();
@@ -340,13 +813,10 @@ class AttendanceServiceImplTest {
     @Test
     void getMyAttendancePercentage_WithMixedAttendance_ShouldCalculateCorrectly() {
         // Arrange
-        List<Attendance> attendances = createMixedAttendanceList();
-        
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getName()).thenReturn("testuser");
         when(userRepo.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(attendanceRepo.findByUserUidAndAttendanceDateBetween(anyLong(), any(), any()))
-                .thenReturn(attendances);
+        when(counterService.find(1L)).thenReturn(Optional.of(counter(1L, 10, 7, 2, 1)));
 
         // Act
         AttendancePercentageResponse result = attendanceService.getMyAttendancePercentage();
@@ -358,23 +828,18 @@ class AttendanceServiceImplTest {
         assertEquals(2, result.getAbsentDays());
         assertEquals(1, result.getLeaveDays());
         // Percentage = (7 / (10-1)) * 100 = 77.78%
-        assertTrue(result.getAttendancePercentage() >= 77.0 && 
-                   result.getAttendancePercentage() <= 78.0);
+        assertEquals(77.78, result.getAttendancePercentage());
+        verify(attendanceRepo, never()).findByUserUidAndAttendanceDateBetween(anyLong(), any(), any());
+        verify(attendanceRepo, never()).summarizeForUserBetween(anyLong(), any(), any());
     }
 
     @Test
     void getMyAttendancePercentage_WithOnlyLeaveDays_ShouldReturnZeroPercentage() {
         // Arrange
-        List<Attendance> attendances = Arrays.asList(
-            createAttendance(LocalDate.now().minusDays(1), AttendanceStatus.LEAVE),
-            createAttendance(LocalDate.now().minusDays(2), AttendanceStatus.LEAVE)
-        );
-        
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getName()).thenReturn("testuser");
         when(userRepo.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(attendanceRepo.findByUserUidAndAttendanceDateBetween(anyLong(), any(), any()))
-                .thenReturn(attendances);
+        when(counterService.find(1L)).thenReturn(Optional.of(counter(1L, 2, 0, 0, 2)));
 
         // Act
         AttendancePercentageResponse result = attendanceService.getMyAttendancePercentage();
@@ -391,17 +856,10 @@ class AttendanceServiceImplTest {
     @Test
     void getAttendancePercentage_ForAllUsers_ShouldReturnMultipleResponses() {
         // Arrange
-        User user2 = new User();
-        user2.setUid(2L);
-        user2.setUsername("user2");
-        
-        List<Attendance> attendances = Arrays.asList(
-            createAttendanceForUser(testUser, LocalDate.now(), AttendanceStatus.CHECKED_OUT),
-            createAttendanceForUser(user2, LocalDate.now(), AttendanceStatus.CHECKED_OUT)
-        );
-        
-        when(attendanceRepo.findByAttendanceDateBetween(any(), any()))
-                .thenReturn(attendances);
+        when(reportSummarizer.summarizeBetween(any(), any()))
+                .thenReturn(List.of(
+                    counts(1L, "testuser", 1, 1, 0, 0),
+                    counts(2L, "user2", 1, 1, 0, 0)));
 
         // Act
         List<AttendancePercentageResponse> result = 
@@ -414,18 +872,16 @@ class AttendanceServiceImplTest {
         // Assert
         assertNotNull(result);
         assertEquals(2, result.size());
+        assertEquals("user2", result.get(1).getUsername());
+        assertEquals(100.0, result.get(1).getAttendancePercentage());
+        verify(attendanceRepo, never()).findByAttendanceDateBetween(any(), any());
     }
 
     @Test
     void getAttendancePercentage_ForSpecificUser_ShouldReturnSingleResponse() {
         // Arrange
-        List<Attendance> attendances = Arrays.asList(
-            createAttendance(LocalDate.now(), AttendanceStatus.CHECKED_OUT),
-            createAttendance(LocalDate.now().minusDays(1), AttendanceStatus.CHECKED_OUT)
-        );
-        
-        when(attendanceRepo.findByUserUidAndAttendanceDateBetween(eq(1L), any(), any()))
-                .thenReturn(attendances);
+        when(attendanceRepo.summarizeForUserBetween(eq(1L), any(), any()))
+                .thenReturn(Optional.of(counts(1L, "testuser", 2, 2, 0, 0)));
 
         // Act
         List<AttendancePercentageResponse> result = 
@@ -441,95 +897,166 @@ class AttendanceServiceImplTest {
         assertEquals(1L, result.get(0).getUserId());
     }
 
-    // ==================== markAbsentUsers() Tests ====================
+    @Test
+    void getAttendancePercentage_ForUserWithoutRecords_ShouldReturnEmptyList() {
+        // Arrange
+        when(attendanceRepo.summarizeForUserBetween(eq(1L), any(), any()))
+                .thenReturn(Optional.empty());
+
+        // Act
+        List<AttendancePercentageResponse> result = 
+            attendanceService.getAttendancePercentage(
+                LocalDate.now().minusDays(7), 
+                LocalDate.now(), 
+                1L
+            );
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
 
     @Test
-    void markAbsentUsers_ShouldMarkMissingUsersAsAbsent() {
+    void forEachAttendancePercentage_ForAllUsers_ShouldStreamRowsAndCloseCursor() {
         // Arrange
-        User user2 = new User();
-        user2.setUid(2L);
-        user2.setUsername("user2");
-        user2.setEnabled(true);
-        
-        List<User> allUsers = Arrays.asList(testUser, user2);
-        
-        when(userRepo.findAllByEnabledTrue()).thenReturn(allUsers);
-        when(attendanceRepo.existsByUserAndAttendanceDate(testUser, LocalDate.now()))
-                .thenReturn(true); // testUser already marked
-        when(attendanceRepo.existsByUserAndAttendanceDate(user2, LocalDate.now()))
-                .thenReturn(false); // user2 not marked
+        AtomicBoolean closed = new AtomicBoolean();
+        when(attendanceRepo.streamSummaryBetween(any(), any()))
+                .thenReturn(Stream.of(
+                    counts(1L, "testuser", 2, 1, 1, 0),
+                    counts(2L, "user2", 1, 1, 0, 0))
+                    .onClose(() -> closed.set(true)));
+        List<AttendancePercentageResponse> rows = new ArrayList<>();
 
         // Act
-        attendanceService.markAbsentUsers();
+        attendanceService.forEachAttendancePercentage(
+                LocalDate.now().minusDays(7), 
+                LocalDate.now(), 
+                null,
+                rows::add
+            );
 
         // Assert
-        verify(attendanceRepo).save(argThat(attendance ->
-            attendance.getUser().equals(user2) &&
-            attendance.getStatus() == AttendanceStatus.ABSENT &&
-            attendance.getAttendanceDate().equals(LocalDate.now())
-        ));
-        verify(attendanceRepo, times(1)).save(any(Attendance.class));
+        assertEquals(2, rows.size());
+        assertEquals(50.0, rows.get(0).getAttendancePercentage());
+        assertEquals("user2", rows.get(1).getUsername());
+        assertTrue(closed.get());
+        verify(attendanceRepo, never()).summarizeBetween(any(), any());
+        verify(reportSummarizer, never()).summarizeBetween(any(), any());
     }
 
     @Test
-    void markAbsentUsers_WhenAllUsersMarked_ShouldNotSaveAny() {
+    void forEachAttendancePercentage_ForSpecificUser_ShouldEmitSingleRow() {
         // Arrange
-        List<User> allUsers = Arrays.asList(testUser);
-        
-        when(userRepo.findAllByEnabledTrue()).thenReturn(allUsers);
-        when(attendanceRepo.existsByUserAndAttendanceDate(any(), any()))
-                .thenReturn(true);
+        when(attendanceRepo.summarizeForUserBetween(eq(1L), any(), any()))
+                .thenReturn(Optional.of(counts(1L, "testuser", 2, 2, 0, 0)));
+        List<AttendancePercentageResponse> rows = new ArrayList<>();
 
         // Act
-        attendanceService.markAbsentUsers();
+        attendanceService.forEachAttendancePercentage(
+                LocalDate.now().minusDays(7), 
+                LocalDate.now(), 
+                1L,
+                rows::add
+            );
+
+        // Assert
+        assertEquals(1, rows.size());
+        assertEquals(100.0, rows.get(0).getAttendancePercentage());
+        verify(attendanceRepo, never()).streamSummaryBetween(any(), any());
+    }
+
+    // ==================== markAbsentUsers() Tests ====================
+
+    @Test
+    void markAbsentUsers_ShouldMarkMissingUsersWithOneStatementPerRange() {
+        // Arrange
+        ReflectionTestUtils.setField(attendanceService, "absentBatchSize", 1000);
+        LocalDate today = LocalDate.now();
+        when(userRepo.findMaxUid()).thenReturn(2500L);
+        when(counterService.insertAbsent(today, 0L, 1000L)).thenReturn(3);
+        when(counterService.insertAbsent(today, 1000L, 2000L)).thenReturn(0);
+        when(counterService.insertAbsent(today, 2000L, 2500L)).thenReturn(2);
+
+        // Act
+        int marked = attendanceService.markAbsentUsers(today);
 
         // Assert
+        assertEquals(5, marked);
+        verify(counterService, times(3)).insertAbsent(eq(today), anyLong(), anyLong());
+        verify(attendanceRepo, never()).existsByUserAndAttendanceDate(any(), any());
         verify(attendanceRepo, never()).save(any(Attendance.class));
     }
 
     @Test
-    void markAbsentUsers_WithNoEnabledUsers_ShouldNotProcess() {
+    void markAbsentUsers_WhenRerunForSameDate_ShouldMarkNobody() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        when(userRepo.findMaxUid()).thenReturn(10L);
+        when(counterService.insertAbsent(today, 0L, 10L)).thenReturn(0);
+
+        // Act
+        int marked = attendanceService.markAbsentUsers(today);
+
+        // Assert
+        assertEquals(0, marked);
+    }
+
+    @Test
+    void markAbsentUsers_WhenConcurrentCheckIn_ShouldRetryRange() {
         // Arrange
-        when(userRepo.findAllByEnabledTrue()).thenReturn(Collections.emptyList());
+        LocalDate today = LocalDate.now();
+        when(userRepo.findMaxUid()).thenReturn(10L);
+        when(counterService.insertAbsent(today, 0L, 10L))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"))
+                .thenReturn(4);
+
+        // Act
+        int marked = attendanceService.markAbsentUsers(today);
+
+        // Assert
+        assertEquals(4, marked);
+        verify(counterService, times(2)).insertAbsent(today, 0L, 10L);
+    }
+
+    @Test
+    void markAbsentUsers_WithNoUsers_ShouldNotProcess() {
+        // Arrange
+        when(userRepo.findMaxUid()).thenReturn(0L);
 
         // Act
         attendanceService.markAbsentUsers();
 
         // Assert
-        verify(attendanceRepo, never()).existsByUserAndAttendanceDate(any(), any());
+        verify(counterService, never()).insertAbsent(any(), anyLong(), anyLong());
         verify(attendanceRepo, never()).save(any(Attendance.class));
     }
 
     // ==================== Helper Methods ====================
 
-    private List<Attendance> createMixedAttendanceList() {
-        return Arrays.asList(
-            createAttendance(LocalDate.now(), AttendanceStatus.CHECKED_OUT),
-            createAttendance(LocalDate.now().minusDays(1), AttendanceStatus.CHECKED_OUT),
-            createAttendance(LocalDate.now().minusDays(2), AttendanceStatus.CHECKED_OUT),
-            createAttendance(LocalDate.now().minusDays(3), AttendanceStatus.CHECKED_OUT),
-            createAttendance(LocalDate.now().minusDays(4), AttendanceStatus.WFH),
-            createAttendance(LocalDate.now().minusDays(5), AttendanceStatus.WFH),
-            createAttendance(LocalDate.now().minusDays(6), AttendanceStatus.WFH),
-            createAttendance(LocalDate.now().minusDays(7), AttendanceStatus.ABSENT),
-            createAttendance(LocalDate.now().minusDays(8), AttendanceStatus.ABSENT),
-            createAttendance(LocalDate.now().minusDays(9), AttendanceStatus.LEAVE)
-        );
+    private AttendanceEntryResponse entry(LocalDate date) {
+        return new AttendanceEntryResponse(date, AttendanceStatus.CHECKED_OUT,
+                date.atTime(9, 0), date.atTime(17, 0));
     }
 
-    private Attendance createAttendance(LocalDate date, AttendanceStatus status) {
-        return createAttendanceForUser(testUser, date, status);
+    private AttendanceCounter counter(Long userId,
+            long total, long present, long absent, long leave) {
+        AttendanceCounter counter = new AttendanceCounter();
+        counter.setUserId(userId);
+        counter.setTotalDays(total);
+        counter.setPresentDays(present);
+        counter.setAbsentDays(absent);
+        counter.setLeaveDays(leave);
+        return counter;
     }
 
-    private Attendance createAttendanceForUser(User user, LocalDate date, AttendanceStatus status) {
-        Attendance attendance = new Attendance();
-        attendance.setUser(user);
-        attendance.setAttendanceDate(date);
-        attendance.setStatus(status);
-        if (status == AttendanceStatus.CHECKED_OUT || status == AttendanceStatus.WFH) {
-            attendance.setCheckInTime(date.atTime(9, 0));
-            attendance.setCheckOutTime(date.atTime(18, 0));
-        }
-        return attendance;
+    private AttendanceCounts counts(Long userId, String username,
+            long total, long present, long absent, long leave) {
+        return new AttendanceCounts() {
+            @Override public Long getUserId() { return userId; }
+            @Override public String getUsername() { return username; }
+            @Override public long getTotalDays() { return total; }
+            @Override public long getPresentDays() { return present; }
+            @Override public long getAbsentDays() { return absent; }
+            @Override public long getLeaveDays() { return leave; }
+        };
     }
 }
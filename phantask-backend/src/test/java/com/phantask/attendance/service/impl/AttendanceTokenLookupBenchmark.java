@@ -0,0 +1,153 @@
+package com.phantask.attendance.service.impl;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.phantask.attendance.entity.AttendanceToken;
+
+/**
+ * JMH benchmark of the token lookup done by {@code markAttendance} as the
+ * {@code attendance_tokens} table grows.
+ *
+ * <ul>
+ *   <li>{@code lookupByToken}: the old query, filtering on the {@code LONGTEXT}
+ *       column (not indexable, a full table scan)</li>
+ *   <li>{@code lookupByDigest}: the current query, hashing the scanned token and
+ *       filtering on the unique {@code CHAR(64)} digest column</li>
+ * </ul>
+ *
+ * Needs a MySQL database it may create a scratch table in
+ * ({@code bench_attendance_tokens}, dropped afterwards). Connection settings are
+ * read from the {@code bench.jdbc.url}, {@code bench.jdbc.user} and
+ * {@code bench.jdbc.password} system properties.
+ *
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.phantask.attendance.service.impl.AttendanceTokenLookupBenchmark
+ * -Dbench.jdbc.url=jdbc:mysql://localhost:3306/phantask_bench}
+ * or directly from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttendanceTokenLookupBenchmark {
+
+	private static final String TABLE = "bench_attendance_tokens";
+
+	@Param({ "10000", "100000", "1000000" })
+	private int rows;
+
+	private Connection connection;
+	private PreparedStatement byToken;
+	private PreparedStatement byDigest;
+	private String probe;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		connection = DriverManager.getConnection(
+				System.getProperty("bench.jdbc.url", "jdbc:mysql://localhost:3306/phantask_bench"),
+				System.getProperty("bench.jdbc.user", "root"),
+				System.getProperty("bench.jdbc.password", ""));
+
+		try (Statement ddl = connection.createStatement()) {
+			ddl.execute("DROP TABLE IF EXISTS " + TABLE);
+			ddl.execute("CREATE TABLE " + TABLE + " ("
+					+ "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+					+ "token LONGTEXT NOT NULL, "
+					+ "token_hash CHAR(64), "
+					+ "used BIT NOT NULL, "
+					+ "UNIQUE KEY uk_attendance_token_hash (token_hash))");
+		}
+
+		connection.setAutoCommit(false);
+		try (PreparedStatement insert = connection.prepareStatement(
+				"INSERT INTO " + TABLE + " (token, token_hash, used) VALUES (?, ?, ?)")) {
+			for (int i = 0; i < rows; i++) {
+				String token = newToken();
+				insert.setString(1, token);
+				insert.setString(2, AttendanceToken.hash(token));
+				// all but the most recent tokens have been scanned already
+				insert.setBoolean(3, i < rows - 100);
+				insert.addBatch();
+				if (i % 1000 == 999) {
+					insert.executeBatch();
+				}
+				probe = token;
+			}
+			insert.executeBatch();
+		}
+		connection.commit();
+		connection.setAutoCommit(true);
+
+		byToken = connection.prepareStatement(
+				"SELECT id FROM " + TABLE + " WHERE token = ? AND used = false");
+		byDigest = connection.prepareStatement(
+				"SELECT id FROM " + TABLE + " WHERE token_hash = ? AND used = false");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		try (Statement ddl = connection.createStatement()) {
+			ddl.execute("DROP TABLE IF EXISTS " + TABLE);
+		}
+		connection.close();
+	}
+
+	@Benchmark
+	public long lookupByToken() throws SQLException {
+		byToken.setString(1, probe);
+		return firstId(byToken);
+	}
+
+	@Benchmark
+	public long lookupByDigest() throws SQLException {
+		byDigest.setString(1, AttendanceToken.hash(probe));
+		return firstId(byDigest);
+	}
+
+	private static long firstId(PreparedStatement query) throws SQLException {
+		try (ResultSet rs = query.executeQuery()) {
+			return rs.next() ? rs.getLong(1) : -1;
+		}
+	}
+
+	/** Roughly the size of the JWT-like strings the front end registers. */
+	private static String newToken() {
+		StringBuilder sb = new StringBuilder(180);
+		for (int i = 0; i < 5; i++) {
+			sb.append(UUID.randomUUID());
+		}
+		return sb.toString();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(AttendanceTokenLookupBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,65 @@
+package com.phantask.attendance.service.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.phantask.attendance.repository.AttendanceTokenRepository;
+
+/**
+ * Unit tests for AttendanceTokenPurgeJob
+ */
+@ExtendWith(MockitoExtension.class)
+class AttendanceTokenPurgeJobTest {
+
+    @Mock
+    private AttendanceTokenRepository tokenRepo;
+
+    @InjectMocks
+    private AttendanceTokenPurgeJob purgeJob;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(purgeJob, "batchSize", 100);
+        ReflectionTestUtils.setField(purgeJob, "maxBatches", 5);
+        ReflectionTestUtils.setField(purgeJob, "pauseMillis", 0L);
+    }
+
+    @Test
+    void purge_ShouldDeleteInChunksUntilShortBatch() {
+        // Arrange
+        when(tokenRepo.deleteExpiredBatch(any(), eq(100))).thenReturn(100, 100, 30);
+        when(tokenRepo.deleteUsedBatch(100)).thenReturn(0);
+
+        // Act
+        purgeJob.purge();
+
+        // Assert
+        verify(tokenRepo, times(3)).deleteExpiredBatch(any(), eq(100));
+        verify(tokenRepo).deleteUsedBatch(100);
+    }
+
+    @Test
+    void purge_ShouldStopAtMaxBatchesPerRun() {
+        // Arrange
+        when(tokenRepo.deleteExpiredBatch(any(), eq(100))).thenReturn(100);
+        when(tokenRepo.deleteUsedBatch(100)).thenReturn(100);
+
+        // Act
+        purgeJob.purge();
+
+        // Assert
+        verify(tokenRepo, times(5)).deleteExpiredBatch(any(), eq(100));
+        verify(tokenRepo, times(5)).deleteUsedBatch(100);
+    }
+}
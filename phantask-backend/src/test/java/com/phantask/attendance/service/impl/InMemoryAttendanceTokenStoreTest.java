@@ -0,0 +1,145 @@
+package com.phantask.attendance.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.phantask.attendance.service.LiveAttendanceToken;
+import com.phantask.authentication.entity.User;
+
+/**
+ * Unit tests for InMemoryAttendanceTokenStore
+ */
+class InMemoryAttendanceTokenStoreTest {
+
+    private InMemoryAttendanceTokenStore store;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryAttendanceTokenStore(1000);
+        user = userWithId(1L);
+    }
+
+    @Test
+    void consume_WithRegisteredToken_ShouldReturnItOnce() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(5).withNano(0);
+        store.register("token-1", user, LocalDate.now(), expiresAt);
+
+        LiveAttendanceToken live = store.consume("token-1").orElseThrow();
+
+        assertEquals(1L, live.getUserId());
+        assertEquals(expiresAt, live.getExpiresAt());
+        assertTrue(store.consume("token-1").isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void restore_AfterConsume_ShouldMakeTokenLiveAgain() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(5);
+        store.register("token-1", user, LocalDate.now(), expiresAt);
+        LiveAttendanceToken live = store.consume("token-1").orElseThrow();
+
+        store.restore("token-1", live);
+
+        assertEquals(1L, store.consume("token-1").orElseThrow().getUserId());
+
+        // a restored token still expires on time
+        store.restore("token-1", live);
+        assertEquals(1, store.expireDue(millis(expiresAt.plusSeconds(1))));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void restore_WhenNewerTokenRegistered_ShouldKeepNewerToken() {
+        store.register("token-1", user, LocalDate.now(), LocalDateTime.now().plusMinutes(5));
+        LiveAttendanceToken live = store.consume("token-1").orElseThrow();
+        store.register("token-2", user, LocalDate.now(), LocalDateTime.now().plusMinutes(5));
+
+        store.restore("token-1", live);
+
+        assertTrue(store.consume("token-1").isEmpty());
+        assertTrue(store.consume("token-2").isPresent());
+    }
+
+    @Test
+    void restore_WhenTokenExpired_ShouldDoNothing() {
+        store.register("token-1", user, LocalDate.now(), LocalDateTime.now().plusMinutes(5));
+        LiveAttendanceToken live = store.consume("token-1").orElseThrow();
+
+        store.restore("token-1", new LiveAttendanceToken(
+                live.getUserId(), live.getDate(), LocalDateTime.now().minusSeconds(1)));
+
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void register_ShouldKeepOnlyLatestTokenPerUser() {
+        store.register("token-1", user, LocalDate.now(), LocalDateTime.now().plusMinutes(5));
+        store.register("token-2", user, LocalDate.now(), LocalDateTime.now().plusMinutes(5));
+
+        assertTrue(store.consume("token-1").isEmpty());
+        assertTrue(store.consume("token-2").isPresent());
+    }
+
+    @Test
+    void register_WhenTokenLiveForAnotherUser_ShouldThrowException() {
+        store.register("token-1", user, LocalDate.now(), LocalDateTime.now().plusMinutes(5));
+
+        assertThrows(RuntimeException.class, () -> store.register(
+                "token-1", userWithId(2L), LocalDate.now(), LocalDateTime.now().plusMinutes(5)));
+        assertEquals(1L, store.consume("token-1").orElseThrow().getUserId());
+    }
+
+    @Test
+    void expireDue_ShouldDropOnlyExpiredTokens() {
+        LocalDateTime soon = LocalDateTime.now().plusMinutes(5);
+        store.register("token-1", user, LocalDate.now(), soon);
+        store.register("token-2", userWithId(2L), LocalDate.now(), soon.plusMinutes(10));
+
+        assertEquals(0, store.expireDue(System.currentTimeMillis()));
+        assertEquals(1, store.expireDue(millis(soon.plusSeconds(1))));
+
+        assertTrue(store.consume("token-1").isEmpty());
+        assertTrue(store.consume("token-2").isPresent());
+    }
+
+    @Test
+    void expireDue_ShouldKeepTokensExpiringAfterOneRevolution() {
+        // 512 one-second slots: a 20 minute token shares its slot with earlier ticks
+        LocalDateTime later = LocalDateTime.now().plusMinutes(20);
+        store.register("token-1", user, LocalDate.now(), later);
+
+        assertEquals(0, store.expireDue(millis(later.minusMinutes(10))));
+        assertEquals(1, store.size());
+        assertEquals(1, store.expireDue(millis(later.plusSeconds(1))));
+    }
+
+    @Test
+    void expireDue_ShouldNotDropConsumedAndReRegisteredUser() {
+        LocalDateTime soon = LocalDateTime.now().plusMinutes(5);
+        store.register("token-1", user, LocalDate.now(), soon);
+        store.consume("token-1");
+        store.register("token-2", user, LocalDate.now(), soon.plusMinutes(5));
+
+        assertEquals(0, store.expireDue(millis(soon.plusSeconds(1))));
+        assertTrue(store.consume("token-2").isPresent());
+    }
+
+    private static User userWithId(Long uid) {
+        User user = new User();
+        user.setUid(uid);
+        return user;
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
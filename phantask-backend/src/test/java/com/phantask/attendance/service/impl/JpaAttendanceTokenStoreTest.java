@@ -0,0 +1,146 @@
+package com.phantask.attendance.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.phantask.attendance.entity.AttendanceToken;
+import com.phantask.attendance.repository.AttendanceTokenRepository;
+import com.phantask.attendance.service.LiveAttendanceToken;
+import com.phantask.authentication.entity.User;
+
+/**
+ * Unit tests for JpaAttendanceTokenStore
+ */
+@ExtendWith(MockitoExtension.class)
+class JpaAttendanceTokenStoreTest {
+
+    @Mock
+    private AttendanceTokenRepository tokenRepo;
+
+    @InjectMocks
+    private JpaAttendanceTokenStore store;
+
+    private User testUser;
+    private AttendanceToken testToken;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setUid(1L);
+
+        testToken = new AttendanceToken();
+        testToken.setId(1L);
+        testToken.setToken("valid-token");
+        testToken.setUser(testUser);
+        testToken.setDate(LocalDate.now());
+        testToken.setExpiresAt(LocalDateTime.now().plusMinutes(5));
+        testToken.setUsed(false);
+    }
+
+    @Test
+    void register_ShouldInvalidatePreviousTokensAndStoreSha256Digest() {
+        store.register("abc", testUser, LocalDate.now(), LocalDateTime.now().plusMinutes(5));
+
+        verify(tokenRepo).invalidateActiveTokens(testUser, LocalDate.now());
+        // same lowercase hex as MySQL SHA2('abc', 256)
+        verify(tokenRepo).save(argThat(token -> 
+            "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad"
+                .equals(token.getTokenHash())
+            && !token.isUsed()));
+    }
+
+    @Test
+    void register_WhenTokenRegisteredByAnotherUser_ShouldThrowException() {
+        User otherUser = new User();
+        otherUser.setUid(2L);
+        when(tokenRepo.findByTokenHash(AttendanceToken.hash("valid-token")))
+                .thenReturn(Optional.of(testToken));
+
+        assertThrows(RuntimeException.class, () -> store.register(
+                "valid-token", otherUser, LocalDate.now(), LocalDateTime.now().plusMinutes(5)));
+        verify(tokenRepo, never()).save(any(AttendanceToken.class));
+    }
+
+    @Test
+    void consume_ShouldMarkTokenAsUsedWithConditionalUpdate() {
+        String hash = AttendanceToken.hash("valid-token");
+        when(tokenRepo.markUsed(hash)).thenReturn(1);
+        when(tokenRepo.findByTokenHash(hash)).thenReturn(Optional.of(testToken));
+
+        assertEquals(1L, store.consume("valid-token").orElseThrow().getUserId());
+        verify(tokenRepo, never()).save(any(AttendanceToken.class));
+    }
+
+    @Test
+    void consume_WhenUsedByAnotherNode_ShouldReturnEmpty() {
+        when(tokenRepo.markUsed(any())).thenReturn(0);
+
+        assertTrue(store.consume("valid-token").isEmpty());
+        verify(tokenRepo, never()).findByTokenHash(any());
+    }
+
+    @Test
+    void restore_ShouldMarkTokenUnused() {
+        String hash = AttendanceToken.hash("valid-token");
+        testToken.setUsed(true);
+        when(tokenRepo.findByTokenHash(hash)).thenReturn(Optional.of(testToken));
+        when(tokenRepo.existsByUserAndDateAndUsedFalse(testUser, LocalDate.now())).thenReturn(false);
+
+        store.restore("valid-token", new LiveAttendanceToken(1L, LocalDate.now(), testToken.getExpiresAt()));
+
+        verify(tokenRepo).markUnused(hash);
+    }
+
+    @Test
+    void restore_WhenNewerTokenRegistered_ShouldKeepTokenUsed() {
+        when(tokenRepo.findByTokenHash(any())).thenReturn(Optional.of(testToken));
+        when(tokenRepo.existsByUserAndDateAndUsedFalse(testUser, LocalDate.now())).thenReturn(true);
+
+        store.restore("valid-token", new LiveAttendanceToken(1L, LocalDate.now(), testToken.getExpiresAt()));
+
+        verify(tokenRepo, never()).markUnused(any());
+    }
+
+    @Test
+    void consumeAll_ShouldReturnOnlyTokensUnusedUnderTheLock() {
+        // Arrange: "used-elsewhere" is no longer unused when the rows are locked
+        when(tokenRepo.lockUnusedByTokenHashIn(argThat(hashes -> hashes.size() == 2)))
+                .thenReturn(List.of(testToken));
+        when(tokenRepo.markUsedByIdIn(List.of(1L))).thenReturn(1);
+
+        // Act
+        Map<String, LiveAttendanceToken> consumed = store.consumeAll(List.of("valid-token", "used-elsewhere"));
+
+        // Assert
+        assertEquals(Set.of("valid-token"), consumed.keySet());
+        assertEquals(1L, consumed.get("valid-token").getUserId());
+    }
+
+    @Test
+    void consumeAll_WhenNothingIsUnused_ShouldNotUpdate() {
+        when(tokenRepo.lockUnusedByTokenHashIn(any())).thenReturn(List.of());
+
+        assertTrue(store.consumeAll(List.of("used")).isEmpty());
+        verify(tokenRepo, never()).markUsedByIdIn(any());
+    }
+}
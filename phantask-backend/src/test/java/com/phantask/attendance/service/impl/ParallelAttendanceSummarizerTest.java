@@ -0,0 +1,129 @@
+package com.phantask.attendance.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.phantask.attendance.repository.AttendanceCounts;
+import com.phantask.attendance.repository.AttendanceRepository;
+
+/**
+ * Unit tests for ParallelAttendanceSummarizer
+ */
+@ExtendWith(MockitoExtension.class)
+class ParallelAttendanceSummarizerTest {
+
+    @Mock
+    private AttendanceRepository attendanceRepo;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ParallelAttendanceSummarizer summarizer;
+
+    @BeforeEach
+    void setUp() {
+        summarizer = new ParallelAttendanceSummarizer(attendanceRepo, transactionManager, 3, 64, 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        summarizer.shutdown();
+    }
+
+    @Test
+    void splitByMonth_ShouldCutAtMonthBoundaries() {
+        List<LocalDate[]> months = ParallelAttendanceSummarizer.splitByMonth(
+                LocalDate.of(2024, 1, 15), LocalDate.of(2024, 3, 10));
+
+        assertEquals(3, months.size());
+        assertArrayEquals(new LocalDate[] { LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 31) }, months.get(0));
+        assertArrayEquals(new LocalDate[] { LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29) }, months.get(1));
+        assertArrayEquals(new LocalDate[] { LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 10) }, months.get(2));
+    }
+
+    @Test
+    void summarizeBetween_WithLongRange_ShouldMergeMonthlyCountsPerUser() {
+        // Arrange
+        when(attendanceRepo.summarizeBetween(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)))
+                .thenReturn(List.of(counts(2L, "user2", 20, 18, 2, 0), counts(1L, "user1", 20, 20, 0, 0)));
+        when(attendanceRepo.summarizeBetween(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)))
+                .thenReturn(List.of(counts(1L, "user1", 19, 15, 2, 2)));
+        when(attendanceRepo.summarizeBetween(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31)))
+                .thenReturn(List.of(counts(3L, "user3", 5, 5, 0, 0), counts(2L, "user2", 21, 21, 0, 0)));
+
+        // Act
+        List<AttendanceCounts> result = summarizer.summarizeBetween(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
+
+        // Assert
+        assertEquals(3, result.size());
+        assertEquals(1L, result.get(0).getUserId());
+        assertEquals(39, result.get(0).getTotalDays());
+        assertEquals(35, result.get(0).getPresentDays());
+        assertEquals(2, result.get(0).getAbsentDays());
+        assertEquals(2, result.get(0).getLeaveDays());
+        assertEquals("user2", result.get(1).getUsername());
+        assertEquals(41, result.get(1).getTotalDays());
+        assertEquals(3L, result.get(2).getUserId());
+        verify(attendanceRepo, times(3)).summarizeBetween(any(), any());
+        verify(attendanceRepo, never()).summarizeBetween(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
+    }
+
+    @Test
+    void summarizeBetween_WithShortRange_ShouldRunSingleQuery() {
+        // Arrange
+        LocalDate start = LocalDate.of(2024, 1, 20);
+        LocalDate end = LocalDate.of(2024, 2, 10);
+        when(attendanceRepo.summarizeBetween(start, end))
+                .thenReturn(List.of(counts(2L, "user2", 1, 1, 0, 0), counts(1L, "user1", 1, 0, 1, 0)));
+
+        // Act
+        List<AttendanceCounts> result = summarizer.summarizeBetween(start, end);
+
+        // Assert
+        assertEquals(1L, result.get(0).getUserId());
+        verify(attendanceRepo, times(1)).summarizeBetween(any(), any());
+    }
+
+    @Test
+    void summarizeBetween_WhenMonthFails_ShouldPropagateError() {
+        // Arrange
+        when(attendanceRepo.summarizeBetween(any(), any())).thenReturn(List.of());
+        when(attendanceRepo.summarizeBetween(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        // Act & Assert
+        assertThrows(QueryTimeoutException.class, () -> summarizer.summarizeBetween(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31)));
+    }
+
+    private static AttendanceCounts counts(Long userId, String username,
+            long total, long present, long absent, long leave) {
+        return new AttendanceCounts() {
+            @Override public Long getUserId() { return userId; }
+            @Override public String getUsername() { return username; }
+            @Override public long getTotalDays() { return total; }
+            @Override public long getPresentDays() { return present; }
+            @Override public long getAbsentDays() { return absent; }
+            @Override public long getLeaveDays() { return leave; }
+        };
+    }
+}
@@ -2,12 +2,16 @@ package com.phantask.authentication.controller;
 
 import org.springframework.context.annotation.Import;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -29,8 +33,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.phantask.authentication.dto.LoginRequest;
 import com.phantask.authentication.service.api.IAuthService;
 import com.phantask.exception.AccountDeactivatedException;
+import com.phantask.exception.TooManyLoginAttemptsException;
 import com.phantask.authentication.security.JwtFilter;
 import com.phantask.authentication.security.JwtUtil;
+import com.phantask.authentication.security.ratelimit.LoginRateLimiter;
 import com.phantask.config.TestSecurityConfig;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -64,6 +70,9 @@ class AuthControllerTest {
     @MockBean
     private JwtUtil jwtUtil;
 
+    @MockBean
+    private LoginRateLimiter loginRateLimiter;
+
     @BeforeEach
     void setUp() {
         //reset(authService);
@@ -118,6 +127,24 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.error").value("Invalid username or password"));
 
         verify(authService).login(any(LoginRequest.class));
+        verify(loginRateLimiter).recordLoginFailure(eq("testuser"), anyString());
+    }
+
+    @Test
+    void login_WhenRateLimited_ShouldReturn429WithoutAuthenticating() throws Exception {
+        // Arrange
+        doThrow(new TooManyLoginAttemptsException("Too many login attempts, please try again later", 30))
+                .when(loginRateLimiter).checkLogin(eq("testuser"), anyString());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/auth/login")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "30"));
+
+        verify(authService, never()).login(any(LoginRequest.class));
     }
 
     @Test
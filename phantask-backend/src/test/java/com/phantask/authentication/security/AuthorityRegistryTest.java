@@ -0,0 +1,83 @@
+package com.phantask.authentication.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.phantask.authentication.entity.Role;
+import com.phantask.authentication.repository.RoleRepository;
+
+/**
+ * Unit tests for AuthorityRegistry
+ */
+@ExtendWith(MockitoExtension.class)
+class AuthorityRegistryTest {
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    private AuthorityRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new AuthorityRegistry(roleRepository, 2);
+    }
+
+    @Test
+    void forJwtRoles_ShouldReturnPlainAndPrefixedAuthorities() {
+        List<GrantedAuthority> authorities = registry.forJwtRoles(List.of("ADMIN", "ROLE_HR"));
+
+        assertEquals(List.of("ADMIN", "ROLE_ADMIN", "ROLE_HR"),
+                authorities.stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void forJwtRoles_SameCombination_ShouldShareCollection() {
+        List<GrantedAuthority> first = registry.forJwtRoles(List.of("ADMIN", "USER"));
+        List<GrantedAuthority> second = registry.forJwtRoles(List.of("ADMIN", "USER"));
+
+        assertSame(first, second);
+        // authority objects are interned across combinations too
+        assertSame(first.get(0), registry.forJwtRoles(List.of("ADMIN")).get(0));
+    }
+
+    @Test
+    void forRoleNames_ShouldReturnPrefixedAuthoritiesOnly() {
+        List<GrantedAuthority> authorities = registry.forRoleNames(List.of("USER"));
+
+        assertEquals(List.of("ROLE_USER"), authorities.stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void forJwtRoles_BeyondMaxCombinations_ShouldNotCache() {
+        registry.forJwtRoles(List.of("A"));
+        registry.forJwtRoles(List.of("B"));
+
+        List<GrantedAuthority> first = registry.forJwtRoles(List.of("C"));
+        List<GrantedAuthority> second = registry.forJwtRoles(List.of("C"));
+
+        assertNotSame(first, second);
+        assertEquals(first, second);
+    }
+
+    @Test
+    void refresh_ShouldRegisterRolesFromRepository() {
+        Role admin = new Role();
+        admin.setRoleName("ADMIN");
+        when(roleRepository.findAll()).thenReturn(List.of(admin));
+
+        registry.refresh();
+
+        assertEquals(1, registry.getStats().get("roles"));
+    }
+}
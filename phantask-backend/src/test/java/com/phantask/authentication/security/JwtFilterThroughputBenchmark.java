@@ -0,0 +1,133 @@
+package com.phantask.authentication.security;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+/**
+ * JMH throughput benchmark (requests per second) for {@link JwtFilter} on an
+ * authenticated request in stateless-principal mode.
+ *
+ * <ul>
+ *   <li>{@code legacyConsoleLogging}: the filter plus the two synchronous,
+ *       auto-flushed console lines per request it used to print (one
+ *       {@code write} system call each, serialised on the stream's lock)</li>
+ *   <li>{@code sampledAsyncLogging}: the filter as it is now - per-request
+ *       events go through SLF4J at DEBUG with sampling, so with the production
+ *       level they cost a level check</li>
+ * </ul>
+ *
+ * The legacy lines are written to a temporary file instead of the terminal, so
+ * the numbers are a lower bound for the real console cost. Run with several
+ * threads to see the contention on the shared stream.
+ *
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.phantask.authentication.security.JwtFilterThroughputBenchmark}
+ * or directly from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class JwtFilterThroughputBenchmark {
+
+	private static final String SECRET = "A7D9F2B3C4E5F6A7D8E9F0B1C2D3E4F599AA11223344556677889900AABBCCDD";
+
+	private static final FilterChain NO_OP_CHAIN = (req, res) -> { };
+
+	private JwtFilter filter;
+	private String authorization;
+	private File legacyLog;
+	private PrintStream legacyConsole;
+
+	@Setup
+	public void setUp() throws IOException {
+		JwtUtil jwtUtil = new JwtUtil(SECRET);
+		VerifiedTokenCache tokenCache = new VerifiedTokenCache(jwtUtil, true, 1000, 900);
+		filter = new JwtFilter(jwtUtil, tokenCache, new UserRevocationRegistry(null),
+				new AuthorityRegistry(null, 1024), null);
+		ReflectionTestUtils.setField(filter, "statelessPrincipal", true);
+		ReflectionTestUtils.setField(filter, "sampleRate", 1000);
+
+		authorization = "Bearer " + jwtUtil.generateAccessToken(new User("benchmark-user", "", List.of(
+				new SimpleGrantedAuthority("ADMIN"),
+				new SimpleGrantedAuthority("HR"))));
+
+		legacyLog = File.createTempFile("jwt-filter-legacy", ".log");
+		legacyConsole = new PrintStream(new FileOutputStream(legacyLog), true);
+	}
+
+	@TearDown
+	public void tearDown() {
+		legacyConsole.close();
+		legacyLog.delete();
+	}
+
+	@Benchmark
+	public int legacyConsoleLogging() throws IOException, ServletException {
+		MockHttpServletRequest request = newRequest();
+		legacyConsole.println("JWT FILTER: " + request.getMethod());
+		int status = doFilter(request);
+		legacyConsole.println("Authentication successful for: " + request.getServletPath());
+		return status;
+	}
+
+	@Benchmark
+	public int sampledAsyncLogging() throws IOException, ServletException {
+		return doFilter(newRequest());
+	}
+
+	private MockHttpServletRequest newRequest() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+		request.setServletPath("/api/tasks");
+		request.addHeader("Authorization", authorization);
+		return request;
+	}
+
+	private int doFilter(MockHttpServletRequest request) throws IOException, ServletException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		try {
+			filter.doFilter(request, response, NO_OP_CHAIN);
+			return response.getStatus();
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(JwtFilterThroughputBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,96 @@
+package com.phantask.authentication.security;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * JMH benchmark for the per-request token work done by {@link JwtFilter}.
+ *
+ * <ul>
+ *   <li>{@code legacyPath}: what the filter used to do - extractUsername,
+ *       extractRoles and isTokenValid (which parses twice more), each parse
+ *       rebuilding the signing key from the secret</li>
+ *   <li>{@code verifyOnce}: {@link JwtUtil#verify(String)} followed by the
+ *       claim-based validity check</li>
+ * </ul>
+ *
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.phantask.authentication.security.JwtVerificationBenchmark}
+ * or directly from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+	private static final String SECRET = "A7D9F2B3C4E5F6A7D8E9F0B1C2D3E4F599AA11223344556677889900AABBCCDD";
+
+	private JwtUtil jwtUtil;
+	private UserDetails userDetails;
+	private String token;
+
+	@Setup
+	public void setUp() {
+		jwtUtil = new JwtUtil(SECRET);
+		userDetails = new User("benchmark-user", "", List.of(
+				new SimpleGrantedAuthority("ADMIN"),
+				new SimpleGrantedAuthority("HR")));
+		token = jwtUtil.generateAccessToken(userDetails);
+	}
+
+	@Benchmark
+	public boolean legacyPath() {
+		String username = legacyClaims().getSubject();
+		Object roles = legacyClaims().get("roles");
+		boolean valid = legacyClaims().getSubject().equals(userDetails.getUsername())
+				&& !legacyClaims().getExpiration().before(new Date());
+		return valid && username != null && roles != null;
+	}
+
+	@Benchmark
+	public boolean verifyOnce() {
+		VerifiedToken verified = jwtUtil.verify(token);
+		return jwtUtil.isTokenValid(verified, userDetails) && !verified.getRoles().isEmpty();
+	}
+
+	private Claims legacyClaims() {
+		Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
+		return Jwts.parserBuilder()
+				.setSigningKey(key)
+				.build()
+				.parseClaimsJws(token)
+				.getBody();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(JwtVerificationBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,155 @@
+package com.phantask.authentication.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.phantask.authentication.entity.RefreshTokenFamily;
+import com.phantask.authentication.repository.RefreshTokenFamilyRepository;
+
+import io.jsonwebtoken.JwtException;
+
+/**
+ * Unit tests for RefreshTokenStore
+ */
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenStoreTest {
+
+    @Mock
+    private RefreshTokenFamilyRepository familyRepo;
+
+    private RefreshTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new RefreshTokenStore(familyRepo, 12);
+    }
+
+    @Test
+    void issue_ShouldPersistNewFamily() {
+        IssuedRefreshToken issued = store.issue("testuser", List.of("USER", "ADMIN"));
+
+        assertEquals("testuser", issued.getUsername());
+        assertEquals(List.of("USER", "ADMIN"), issued.getRoles());
+        verify(familyRepo).save(any(RefreshTokenFamily.class));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void rotate_WithCurrentToken_ShouldReturnNextTokenOfSameFamily() {
+        IssuedRefreshToken first = store.issue("testuser", List.of("USER"));
+        when(familyRepo.rotate(eq(first.getFamilyId()), eq(first.getJti()), anyString())).thenReturn(1);
+
+        IssuedRefreshToken next = store.rotate(first.getFamilyId(), first.getJti());
+
+        assertEquals(first.getFamilyId(), next.getFamilyId());
+        assertNotEquals(first.getJti(), next.getJti());
+        assertEquals(first.getExpiresAt(), next.getExpiresAt());
+    }
+
+    @Test
+    void rotate_WithAlreadyUsedToken_ShouldRevokeWholeFamily() {
+        IssuedRefreshToken first = store.issue("testuser", List.of("USER"));
+        when(familyRepo.rotate(eq(first.getFamilyId()), eq(first.getJti()), anyString())).thenReturn(1, 0);
+        IssuedRefreshToken second = store.rotate(first.getFamilyId(), first.getJti());
+        when(familyRepo.findById(first.getFamilyId()))
+                .thenReturn(Optional.of(entity(second, second.getJti(), false)));
+
+        // replaying the first token is treated as theft
+        assertThrows(JwtException.class, () -> store.rotate(first.getFamilyId(), first.getJti()));
+        verify(familyRepo).revokeFamily(first.getFamilyId());
+
+        // the legitimate client's latest token no longer works either
+        assertThrows(JwtException.class, () -> store.rotate(second.getFamilyId(), second.getJti()));
+    }
+
+    @Test
+    void rotate_WhenRotatedByAnotherNode_ShouldTreatAsReuse() {
+        IssuedRefreshToken first = store.issue("testuser", List.of("USER"));
+        when(familyRepo.rotate(eq(first.getFamilyId()), eq(first.getJti()), anyString())).thenReturn(0);
+        when(familyRepo.findById(first.getFamilyId()))
+                .thenReturn(Optional.of(entity(first, "rotated-elsewhere", false)));
+
+        assertThrows(JwtException.class, () -> store.rotate(first.getFamilyId(), first.getJti()));
+        verify(familyRepo).revokeFamily(first.getFamilyId());
+    }
+
+    @Test
+    void rotate_WithTokenIssuedByAnotherNode_ShouldAcceptIt() {
+        // Arrange: a second node loads the family and rotates it first
+        IssuedRefreshToken first = store.issue("testuser", List.of("USER"));
+        RefreshTokenStore otherNode = new RefreshTokenStore(familyRepo, 12);
+        when(familyRepo.findById(first.getFamilyId()))
+                .thenReturn(Optional.of(entity(first, first.getJti(), false)));
+        when(familyRepo.rotate(eq(first.getFamilyId()), anyString(), anyString())).thenReturn(1);
+        IssuedRefreshToken second = otherNode.rotate(first.getFamilyId(), first.getJti());
+
+        // Act: the next refresh reaches this node, whose copy still holds the first jti
+        IssuedRefreshToken third = store.rotate(second.getFamilyId(), second.getJti());
+
+        // Assert
+        assertEquals(first.getFamilyId(), third.getFamilyId());
+        verify(familyRepo).rotate(eq(first.getFamilyId()), eq(second.getJti()), anyString());
+        verify(familyRepo, never()).revokeFamily(any());
+    }
+
+    @Test
+    void rotate_WhenRevokedByAnotherNode_ShouldRejectWithoutReuseAlarm() {
+        IssuedRefreshToken first = store.issue("testuser", List.of("USER"));
+        when(familyRepo.rotate(eq(first.getFamilyId()), eq(first.getJti()), anyString())).thenReturn(0);
+        when(familyRepo.findById(first.getFamilyId()))
+                .thenReturn(Optional.of(entity(first, first.getJti(), true)));
+
+        assertThrows(JwtException.class, () -> store.rotate(first.getFamilyId(), first.getJti()));
+        verify(familyRepo, never()).revokeFamily(any());
+        assertEquals(0L, store.getStats().get("reuseDetected"));
+    }
+
+    @Test
+    void revokeUser_ShouldRejectAllSessionsOfUser() {
+        IssuedRefreshToken web = store.issue("testuser", List.of("USER"));
+        IssuedRefreshToken mobile = store.issue("testuser", List.of("USER"));
+
+        store.revokeUser("testuser");
+
+        assertThrows(JwtException.class, () -> store.rotate(web.getFamilyId(), web.getJti()));
+        assertThrows(JwtException.class, () -> store.rotate(mobile.getFamilyId(), mobile.getJti()));
+        verify(familyRepo).revokeAllByUsername("testuser");
+        verify(familyRepo, never()).rotate(any(), any(), any());
+    }
+
+    @Test
+    void rotate_WithUnknownFamily_ShouldThrowException() {
+        when(familyRepo.findById("missing")).thenReturn(Optional.empty());
+
+        assertThrows(JwtException.class, () -> store.rotate("missing", "jti"));
+    }
+
+    private static RefreshTokenFamily entity(IssuedRefreshToken token, String currentJti, boolean revoked) {
+        RefreshTokenFamily entity = new RefreshTokenFamily();
+        entity.setFamilyId(token.getFamilyId());
+        entity.setCurrentJti(currentJti);
+        entity.setUsername(token.getUsername());
+        entity.setRoles(String.join(",", token.getRoles()));
+        entity.setExpiresAt(LocalDateTime.ofInstant(token.getExpiresAt().toInstant(), ZoneId.systemDefault()));
+        entity.setRevoked(revoked);
+        return entity;
+    }
+}
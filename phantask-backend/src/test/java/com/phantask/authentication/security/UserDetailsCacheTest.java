@@ -0,0 +1,70 @@
+package com.phantask.authentication.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Unit tests for UserDetailsCache
+ */
+class UserDetailsCacheTest {
+
+    private UserDetailsCache cache;
+    private PasswordEncoder encoder;
+    private String passwordHash;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserDetailsCache(true, 100, 300);
+        encoder = new BCryptPasswordEncoder(4);
+        passwordHash = encoder.encode("secret");
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void login_SameUserTwice_ShouldSucceedBothTimes() {
+        // Arrange: the manager erases the principal's credentials after each login
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(username -> cache.get(username, name -> {
+            loads.incrementAndGet();
+            return new User(name, passwordHash, List.of(new SimpleGrantedAuthority("USER")));
+        }));
+        provider.setPasswordEncoder(encoder);
+        AuthenticationManager authManager = new ProviderManager(provider);
+
+        // Act
+        Authentication first = authManager.authenticate(
+                new UsernamePasswordAuthenticationToken("testuser", "secret"));
+        Authentication second = authManager.authenticate(
+                new UsernamePasswordAuthenticationToken("testuser", "secret"));
+
+        // Assert
+        assertTrue(first.isAuthenticated());
+        assertTrue(second.isAuthenticated());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_ShouldReturnCopyWithCachedPasswordHash() {
+        cache.get("testuser", name -> new User(name, passwordHash, List.of()));
+
+        User copy = (User) cache.get("testuser", name -> null);
+        copy.eraseCredentials();
+
+        assertEquals(passwordHash, cache.get("testuser", name -> null).getPassword());
+    }
+}
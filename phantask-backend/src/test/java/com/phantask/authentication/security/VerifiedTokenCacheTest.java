@@ -0,0 +1,84 @@
+package com.phantask.authentication.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import io.jsonwebtoken.JwtException;
+
+/**
+ * Unit tests for VerifiedTokenCache
+ */
+class VerifiedTokenCacheTest {
+
+    private static final String SECRET = "A7D9F2B3C4E5F6A7D8E9F0B1C2D3E4F599AA11223344556677889900AABBCCDD";
+
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache cache;
+    private UserDetails user;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(SECRET);
+        cache = new VerifiedTokenCache(jwtUtil, true, 100, 900);
+        user = new User("testuser", "", List.of(new SimpleGrantedAuthority("USER")));
+    }
+
+    @Test
+    void verify_SameTokenTwice_ShouldServeSecondCallFromCache() {
+        String token = jwtUtil.generateAccessToken(user);
+
+        VerifiedToken first = cache.verify(token);
+        VerifiedToken second = cache.verify(token);
+
+        assertSame(first, second);
+        assertEquals("testuser", second.getUsername());
+        assertEquals(List.of("USER"), second.getRoles());
+        assertEquals(1L, cache.getStats().get("hits"));
+        assertEquals(1L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    void verify_WithInvalidToken_ShouldThrowAndNotCache() {
+        String tampered = jwtUtil.generateAccessToken(user) + "x";
+
+        assertThrows(JwtException.class, () -> cache.verify(tampered));
+        assertThrows(JwtException.class, () -> cache.verify(tampered));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidateUser_ShouldForceReverification() {
+        String token = jwtUtil.generateAccessToken(user);
+        cache.verify(token);
+
+        cache.invalidateUser("testuser");
+        cache.verify(token);
+
+        assertEquals(0L, cache.getStats().get("hits"));
+        assertEquals(2L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    void verify_WhenFull_ShouldEvictLeastRecentlyUsed() {
+        VerifiedTokenCache small = new VerifiedTokenCache(jwtUtil, true, 16, 900);
+
+        for (int i = 0; i < 100; i++) {
+            UserDetails u = new User("user" + i, "", List.of(new SimpleGrantedAuthority("USER")));
+            small.verify(jwtUtil.generateAccessToken(u));
+        }
+
+        assertTrue(small.size() <= 16);
+        assertEquals(100L - small.size(), small.getStats().get("evictions"));
+    }
+}
@@ -0,0 +1,84 @@
+package com.phantask.authentication.security.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.phantask.exception.TooManyLoginAttemptsException;
+
+/**
+ * Unit tests for LoginRateLimiter backed by the local StripedRateLimitBackend
+ */
+class LoginRateLimiterTest {
+
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        // 10 attempts per IP, lockout after 3 failures per user / 5 per IP, slow refill
+        limiter = new LoginRateLimiter(new StripedRateLimitBackend(1024, 16), true,
+                10, 60_000, 3, 60_000, 5, 60_000, 2, 60_000);
+    }
+
+    @Test
+    void checkLogin_AfterTooManyFailures_ShouldLockOutUsername() {
+        for (int i = 0; i < 3; i++) {
+            limiter.checkLogin("testuser", "10.0.0.1");
+            limiter.recordLoginFailure("testuser", "10.0.0.1");
+        }
+
+        TooManyLoginAttemptsException ex = assertThrows(TooManyLoginAttemptsException.class,
+                () -> limiter.checkLogin("testuser", "10.0.0.2"));
+        assertTrue(ex.getRetryAfterSeconds() > 0);
+
+        // another user from the same IP is not affected by the username lockout
+        assertDoesNotThrow(() -> limiter.checkLogin("otheruser", "10.0.0.1"));
+    }
+
+    @Test
+    void recordLoginSuccess_ShouldClearUsernameFailures() {
+        limiter.recordLoginFailure("testuser", "10.0.0.1");
+        limiter.recordLoginFailure("testuser", "10.0.0.1");
+
+        limiter.recordLoginSuccess("testuser");
+        limiter.recordLoginFailure("testuser", "10.0.0.1");
+
+        assertDoesNotThrow(() -> limiter.checkLogin("testuser", "10.0.0.1"));
+    }
+
+    @Test
+    void recordLoginSuccess_ShouldNotClearFailuresOfCollidingUsername() {
+        // a single slot: every username shares one bucket
+        limiter = new LoginRateLimiter(new StripedRateLimitBackend(1, 1), true,
+                10, 60_000, 3, 60_000, 5, 60_000, 2, 60_000);
+        limiter.recordLoginFailure("attacker", "10.0.0.1");
+        limiter.recordLoginFailure("victim", "10.0.0.2");
+        limiter.recordLoginFailure("attacker", "10.0.0.1");
+
+        limiter.recordLoginSuccess("victim");
+
+        assertThrows(TooManyLoginAttemptsException.class,
+                () -> limiter.checkLogin("attacker", "10.0.0.3"));
+    }
+
+    @Test
+    void checkLogin_WhenIpExceedsAttemptRate_ShouldReject() {
+        for (int i = 0; i < 10; i++) {
+            limiter.checkLogin("user" + i, "10.0.0.9");
+        }
+
+        assertThrows(TooManyLoginAttemptsException.class,
+                () -> limiter.checkLogin("fresh", "10.0.0.9"));
+    }
+
+    @Test
+    void checkRefresh_WhenIpExceedsRate_ShouldReject() {
+        limiter.checkRefresh("10.0.0.3");
+        limiter.checkRefresh("10.0.0.3");
+
+        assertThrows(TooManyLoginAttemptsException.class, () -> limiter.checkRefresh("10.0.0.3"));
+    }
+}
@@ -6,11 +6,14 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +25,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -32,11 +36,20 @@ import com.phantask.authentication.dto.LoginRequest;
 import com.phantask.authentication.entity.Role;
 import com.phantask.authentication.entity.User;
 import com.phantask.authentication.repository.UserRepository;
+import com.phantask.authentication.security.BoundedLoginExecutor;
+import com.phantask.authentication.security.IssuedRefreshToken;
 import com.phantask.authentication.security.JwtUtil;
+import com.phantask.authentication.security.RefreshTokenStore;
+import com.phantask.authentication.security.UserRevocationRegistry;
+import com.phantask.authentication.security.VerifiedToken;
+import com.phantask.authentication.security.VerifiedTokenCache;
 import com.phantask.exception.AccountDeactivatedException;
 
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
 
 /**
  * Unit tests for AuthService
@@ -44,6 +57,8 @@ import io.jsonwebtoken.JwtException;
 @ExtendWith(MockitoExtension.class)
 class AuthServiceTest {
 
+    private static final String SECRET = "A7D9F2B3C4E5F6A7D8E9F0B1C2D3E4F599AA11223344556677889900AABBCCDD";
+
     @Mock
     private UserRepository userRepo;
 
@@ -53,12 +68,28 @@ class AuthServiceTest {
     @Mock
     private AuthenticationManager authManager;
 
+    @Spy
+    private BoundedLoginExecutor loginExecutor = new BoundedLoginExecutor(1, 4, 5000, 2);
+
+    @Spy
+    private VerifiedTokenCache tokenCache = new VerifiedTokenCache(new JwtUtil(SECRET), true, 100, 900);
+
+    @Mock
+    private UserRevocationRegistry revocationRegistry;
+
+    @Mock
+    private RefreshTokenStore refreshTokenStore;
+
+    // Real token generation for the claims-based /me tests; the JwtUtil above is a mock
+    private final JwtUtil realJwtUtil = new JwtUtil(SECRET);
+
     @InjectMocks
     private AuthService authService;
 
     private User testUser;
     private LoginRequest loginRequest;
     private Authentication authentication;
+    private IssuedRefreshToken issuedRefreshToken;
 
     @BeforeEach
     void setUp() {
@@ -81,6 +112,9 @@ class AuthServiceTest {
         roles.add(userRole);
         testUser.setRoles(roles);
 
+        issuedRefreshToken = new IssuedRefreshToken("jti-1", "family-1", "testuser", List.of("USER"),
+                new Date(System.currentTimeMillis() + 60_000));
+
         // Setup login request
         loginRequest = new LoginRequest();
         loginRequest.setUsername("testuser");
@@ -105,7 +139,9 @@ class AuthServiceTest {
                 .thenReturn(authentication);
         when(jwtUtil.generateAccessToken(testUser))
                 .thenReturn("access-token-123");
-        when(jwtUtil.generateRefreshToken(testUser))
+        when(refreshTokenStore.issue(eq("testuser"), anyList()))
+                .thenReturn(issuedRefreshToken);
+        when(jwtUtil.generateRefreshToken(issuedRefreshToken))
                 .thenReturn("refresh-token-456");
 
         // Act
@@ -128,7 +164,8 @@ class AuthServiceTest {
         verify(userRepo).findByUsername("testuser");
         verify(authManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(jwtUtil).generateAccessToken(testUser);
-        verify(jwtUtil).generateRefreshToken(testUser);
+        verify(refreshTokenStore).issue(eq("testuser"), anyList());
+        verify(jwtUtil).generateRefreshToken(issuedRefreshToken);
     }
 
     @Test
@@ -207,6 +244,7 @@ class AuthServiceTest {
 
         verify(jwtUtil, never()).generateAccessToken(any());
         verify(jwtUtil, never()).generateRefreshToken(any());
+        verify(refreshTokenStore, never()).issue(any(), any());
     }
 
     @Test
@@ -223,7 +261,9 @@ class AuthServiceTest {
                 .thenReturn(authentication);
         when(jwtUtil.generateAccessToken(testUser))
                 .thenReturn("access-token-123");
-        when(jwtUtil.generateRefreshToken(testUser))
+        when(refreshTokenStore.issue(eq("testuser"), anyList()))
+                .thenReturn(issuedRefreshToken);
+        when(jwtUtil.generateRefreshToken(issuedRefreshToken))
                 .thenReturn("refresh-token-456");
 
         // Act
@@ -246,7 +286,9 @@ class AuthServiceTest {
                 .thenReturn(authentication);
         when(jwtUtil.generateAccessToken(testUser))
                 .thenReturn("access-token-123");
-        when(jwtUtil.generateRefreshToken(testUser))
+        when(refreshTokenStore.issue(eq("testuser"), anyList()))
+                .thenReturn(issuedRefreshToken);
+        when(jwtUtil.generateRefreshToken(issuedRefreshToken))
                 .thenReturn("refresh-token-456");
 
         // Act
@@ -259,29 +301,26 @@ class AuthServiceTest {
     // ==================== refreshToken() Tests ====================
 
     @Test
-    void refreshToken_WithValidToken_ShouldReturnNewAccessToken() {
+    void refreshToken_WithValidToken_ShouldRotateAndReturnNewTokens() {
         // Arrange
-        String refreshToken = "valid-refresh-token";
-        String username = "testuser";
-        
-        when(jwtUtil.extractUsername(refreshToken)).thenReturn(username);
-        when(jwtUtil.isRefreshToken(refreshToken)).thenReturn(true);
-        when(userRepo.findByUsername(username)).thenReturn(Optional.of(testUser));
-        when(jwtUtil.isTokenValid(refreshToken, testUser)).thenReturn(true);
-        when(jwtUtil.generateAccessToken(testUser)).thenReturn("new-access-token-789");
+        String refreshToken = realJwtUtil.generateRefreshToken(issuedRefreshToken);
+        IssuedRefreshToken next = new IssuedRefreshToken("jti-2", "family-1", "testuser",
+                List.of("USER"), issuedRefreshToken.getExpiresAt());
+
+        when(jwtUtil.verify(refreshToken)).thenReturn(realJwtUtil.verify(refreshToken));
+        when(refreshTokenStore.rotate("family-1", "jti-1")).thenReturn(next);
+        when(jwtUtil.generateAccessToken("testuser", List.of("USER"))).thenReturn("new-access-token-789");
+        when(jwtUtil.generateRefreshToken(next)).thenReturn("new-refresh-token-012");
 
         // Act
-        String newAccessToken = authService.refreshToken(refreshToken);
+        Map<String, String> tokens = authService.refreshToken(refreshToken);
 
         // Assert
-        assertNotNull(newAccessToken);
-        assertEquals("new-access-token-789", newAccessToken);
-        
-        verify(jwtUtil).extractUsername(refreshToken);
-        verify(jwtUtil).isRefreshToken(refreshToken);
-        verify(userRepo).findByUsername(username);
-        verify(jwtUtil).isTokenValid(refreshToken, testUser);
-        verify(jwtUtil).generateAccessToken(testUser);
+        assertEquals("new-access-token-789", tokens.get("token"));
+        assertEquals("new-refresh-token-012", tokens.get("refreshToken"));
+
+        verify(refreshTokenStore).rotate("family-1", "jti-1");
+        verify(userRepo, never()).findByUsername(any());
     }
 
     @Test
@@ -289,23 +328,22 @@ class AuthServiceTest {
         // Arrange
         String expiredToken = "expired-refresh-token";
         
-        when(jwtUtil.extractUsername(expiredToken))
+        when(jwtUtil.verify(expiredToken))
                 .thenThrow(new ExpiredJwtException(null, null, "Token expired"));
 
         // Act & Assert
         assertThrows(ExpiredJwtException.class, () -> authService.refreshToken(expiredToken));
         
-        verify(jwtUtil).extractUsername(expiredToken);
-        verify(jwtUtil, never()).generateAccessToken(any());
+        verify(refreshTokenStore, never()).rotate(any(), any());
+        verify(jwtUtil, never()).generateAccessToken(any(), any());
     }
 
     @Test
     void refreshToken_WithAccessTokenInsteadOfRefreshToken_ShouldThrowException() {
         // Arrange
-        String accessToken = "access-token-not-refresh";
+        String accessToken = realJwtUtil.generateAccessToken(testUser);
         
-        when(jwtUtil.extractUsername(accessToken)).thenReturn("testuser");
-        when(jwtUtil.isRefreshToken(accessToken)).thenReturn(false);
+        when(jwtUtil.verify(accessToken)).thenReturn(realJwtUtil.verify(accessToken));
 
         // Act & Assert
         RuntimeException exception = assertThrows(
@@ -314,8 +352,7 @@ class AuthServiceTest {
         );
 
         assertEquals("Invalid token type. Only refresh tokens are allowed.", exception.getMessage());
-        verify(jwtUtil).extractUsername(accessToken);
-        verify(jwtUtil).isRefreshToken(accessToken);
+        verify(refreshTokenStore, never()).rotate(any(), any());
     }
 
     @Test
@@ -323,24 +360,22 @@ class AuthServiceTest {
         // Arrange
         String invalidToken = "invalid-token";
         
-        when(jwtUtil.extractUsername(invalidToken))
+        when(jwtUtil.verify(invalidToken))
                 .thenThrow(new JwtException("Invalid token signature"));
 
         // Act & Assert
         assertThrows(JwtException.class, () -> authService.refreshToken(invalidToken));
         
-        verify(jwtUtil).extractUsername(invalidToken);
+        verify(jwtUtil).verify(invalidToken);
     }
 
     @Test
-    void refreshToken_WhenUserNotFound_ShouldThrowException() {
+    void refreshToken_WhenRevokedByPasswordChange_ShouldThrowException() {
         // Arrange
-        String refreshToken = "valid-refresh-token";
-        String username = "nonexistent";
+        String refreshToken = realJwtUtil.generateRefreshToken(issuedRefreshToken);
         
-        when(jwtUtil.extractUsername(refreshToken)).thenReturn(username);
-        when(jwtUtil.isRefreshToken(refreshToken)).thenReturn(true);
-        when(userRepo.findByUsername(username)).thenReturn(Optional.empty());
+        when(jwtUtil.verify(refreshToken)).thenReturn(realJwtUtil.verify(refreshToken));
+        when(revocationRegistry.isRevoked(any(VerifiedToken.class))).thenReturn(true);
 
         // Act & Assert
         RuntimeException exception = assertThrows(
@@ -348,40 +383,30 @@ class AuthServiceTest {
             () -> authService.refreshToken(refreshToken)
         );
 
-        assertEquals("User not found", exception.getMessage());
+        assertEquals("Refresh token revoked. Please login again.", exception.getMessage());
+        verify(refreshTokenStore, never()).rotate(any(), any());
     }
 
     @Test
-    void refreshToken_WhenTokenValidationFails_ShouldThrowException() {
+    void refreshToken_WhenTokenAlreadyUsed_ShouldThrowException() {
         // Arrange
-        String refreshToken = "invalid-refresh-token";
-        String username = "testuser";
+        String refreshToken = realJwtUtil.generateRefreshToken(issuedRefreshToken);
         
-        when(jwtUtil.extractUsername(refreshToken)).thenReturn(username);
-        when(jwtUtil.isRefreshToken(refreshToken)).thenReturn(true);
-        when(userRepo.findByUsername(username)).thenReturn(Optional.of(testUser));
-        when(jwtUtil.isTokenValid(refreshToken, testUser)).thenReturn(false);
+        when(jwtUtil.verify(refreshToken)).thenReturn(realJwtUtil.verify(refreshToken));
+        when(refreshTokenStore.rotate("family-1", "jti-1"))
+                .thenThrow(new JwtException("Refresh token reuse detected. Please login again."));
 
         // Act & Assert
-        RuntimeException exception = assertThrows(
-            RuntimeException.class,
-            () -> authService.refreshToken(refreshToken)
-        );
-
-        assertEquals("Refresh token expired. Please login again.", exception.getMessage());
-        verify(jwtUtil, never()).generateAccessToken(any());
+        assertThrows(JwtException.class, () -> authService.refreshToken(refreshToken));
+        verify(jwtUtil, never()).generateAccessToken(any(), any());
     }
 
     // ==================== getCurrentUserProfile() Tests ====================
 
     @Test
-    void getCurrentUserProfile_WithValidToken_ShouldReturnUserProfile() {
+    void getCurrentUserProfile_WithValidToken_ShouldReturnProfileFromClaims() {
         // Arrange
-        String token = "valid-access-token";
-        String username = "testuser";
-        
-        when(jwtUtil.extractUsername(token)).thenReturn(username);
-        when(userRepo.findByUsername(username)).thenReturn(Optional.of(testUser));
+        String token = realJwtUtil.generateAccessToken(testUser);
 
         // Act
         Map profile = authService.getCurrentUserProfile(token);
@@ -391,71 +416,70 @@ class AuthServiceTest {
         assertEquals("testuser", profile.get("username"));
         assertEquals(true, profile.get("enabled"));
         assertEquals(false, profile.get("firstLogin"));
-        assertNotNull(profile.get("roles"));
+        assertEquals(List.of("USER"), profile.get("roles"));
 
-        verify(jwtUtil).extractUsername(token);
-        verify(userRepo).findByUsername(username);
+        verify(userRepo, never()).findByUsername(any());
     }
 
     @Test
     void getCurrentUserProfile_WithExpiredToken_ShouldThrowException() {
         // Arrange
-        String expiredToken = "expired-token";
-        
-        when(jwtUtil.extractUsername(expiredToken))
-                .thenThrow(new ExpiredJwtException(null, null, "Token expired"));
+        long past = System.currentTimeMillis() - 60_000;
+        String expiredToken = Jwts.builder()
+                .setSubject("testuser")
+                .claim("type", "ACCESS")
+                .setIssuedAt(new Date(past - 60_000))
+                .setExpiration(new Date(past))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
 
         // Act & Assert
         assertThrows(ExpiredJwtException.class, 
             () -> authService.getCurrentUserProfile(expiredToken));
 
-        verify(jwtUtil).extractUsername(expiredToken);
         verify(userRepo, never()).findByUsername(any());
     }
 
     @Test
     void getCurrentUserProfile_WithInvalidToken_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(JwtException.class, 
+            () -> authService.getCurrentUserProfile("invalid-token"));
+    }
+
+    @Test
+    void getCurrentUserProfile_WithRefreshToken_ShouldThrowException() {
         // Arrange
-        String invalidToken = "invalid-token";
-        
-        when(jwtUtil.extractUsername(invalidToken))
-                .thenThrow(new JwtException("Invalid token"));
+        String refreshToken = realJwtUtil.generateRefreshToken(issuedRefreshToken);
 
         // Act & Assert
         assertThrows(JwtException.class, 
-            () -> authService.getCurrentUserProfile(invalidToken));
+            () -> authService.getCurrentUserProfile(refreshToken));
     }
 
     @Test
-    void getCurrentUserProfile_WhenUserNotFound_ShouldThrowException() {
+    void getCurrentUserProfile_WhenTokenRevoked_ShouldThrowException() {
         // Arrange
-        String token = "valid-token";
-        String username = "nonexistent";
-        
-        when(jwtUtil.extractUsername(token)).thenReturn(username);
-        when(userRepo.findByUsername(username)).thenReturn(Optional.empty());
+        String token = realJwtUtil.generateAccessToken(testUser);
+        when(revocationRegistry.isRevoked(any(VerifiedToken.class))).thenReturn(true);
 
         // Act & Assert
-        RuntimeException exception = assertThrows(
-            RuntimeException.class,
+        JwtException exception = assertThrows(
+            JwtException.class,
             () -> authService.getCurrentUserProfile(token)
         );
 
-        assertEquals("User not found", exception.getMessage());
+        assertEquals("Token revoked", exception.getMessage());
+        verify(userRepo, never()).findByUsername(any());
     }
 
     @Test
     void getCurrentUserProfile_ShouldIncludeAllRoles() {
         // Arrange
-        String token = "valid-token";
-        String username = "testuser";
-        
         Role adminRole = new Role();
         adminRole.setRoleName("ADMIN");
         testUser.getRoles().add(adminRole);
-        
-        when(jwtUtil.extractUsername(token)).thenReturn(username);
-        when(userRepo.findByUsername(username)).thenReturn(Optional.of(testUser));
+        String token = realJwtUtil.generateAccessToken(testUser);
 
         // Act
         Map profile = authService.getCurrentUserProfile(token);
@@ -22,6 +22,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.phantask.authentication.entity.Role;
 import com.phantask.authentication.repository.RoleRepository;
+import com.phantask.authentication.security.AuthorityRegistry;
 
 /**
  * Unit tests for RoleService
@@ -38,6 +39,9 @@ class RoleServiceTest {
     @Mock
     private RoleRepository roleRepository;
 
+    @Mock
+    private AuthorityRegistry authorityRegistry;
+
     @InjectMocks
     private RoleService roleService;
 
@@ -78,6 +82,7 @@ class RoleServiceTest {
         verify(roleRepository).save(argThat(role -> 
             role.getRoleName().equals("EDITOR")
         ));
+        verify(authorityRegistry).register("EDITOR");
     }
 
     @Test
@@ -146,6 +151,7 @@ class RoleServiceTest {
         assertEquals("Role 'ADMIN' already exists", exception.getMessage());
         verify(roleRepository).existsByRoleName("ADMIN");
         verify(roleRepository, never()).save(any(Role.class));
+        verify(authorityRegistry, never()).register(any());
     }
 
     @Test
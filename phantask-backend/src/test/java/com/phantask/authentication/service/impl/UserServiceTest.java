@@ -11,6 +11,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.junit.jupiter.api.Disabled;
@@ -29,6 +30,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -46,6 +48,11 @@ import com.phantask.authentication.entity.UserProfile;
 import com.phantask.authentication.repository.RoleRepository;
 import com.phantask.authentication.repository.UserProfileRepository;
 import com.phantask.authentication.repository.UserRepository;
+import com.phantask.authentication.security.AuthorityRegistry;
+import com.phantask.authentication.security.RefreshTokenStore;
+import com.phantask.authentication.security.UserDetailsCache;
+import com.phantask.authentication.security.UserRevocationRegistry;
+import com.phantask.authentication.security.VerifiedTokenCache;
 import com.phantask.notification.email.EmailService;
 
 /**
@@ -69,6 +76,21 @@ class UserServiceTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private VerifiedTokenCache tokenCache;
+
+    @Mock
+    private UserRevocationRegistry revocationRegistry;
+
+    @Mock
+    private RefreshTokenStore refreshTokenStore;
+
+    @Spy
+    private AuthorityRegistry authorityRegistry = new AuthorityRegistry(null, 100);
+
+    @Spy
+    private UserDetailsCache userDetailsCache = new UserDetailsCache(true, 100, 300);
+
     @InjectMocks
     private UserService userService;
 
@@ -164,6 +186,35 @@ class UserServiceTest {
             .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")));
     }
 
+    @Test
+    void loadUserByUsername_CalledTwice_ShouldQueryRepositoryOnce() {
+        // Arrange
+        when(userRepo.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        // Act
+        userService.loadUserByUsername("testuser");
+        userService.loadUserByUsername("testuser");
+
+        // Assert
+        verify(userRepo, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    void loadUserByUsername_AfterDeactivation_ShouldReloadFromRepository() {
+        // Arrange
+        when(userRepo.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(userRepo.findByUidAndEnabledTrue(1L)).thenReturn(Optional.of(testUser));
+        userService.loadUserByUsername("testuser");
+
+        // Act
+        userService.deactivateUser(1L);
+        userService.loadUserByUsername("testuser");
+
+        // Assert
+        verify(userDetailsCache).evict("testuser");
+        verify(userRepo, times(2)).findByUsername("testuser");
+    }
+
     // ==================== createAccount() Tests ====================
 
     @Test
@@ -489,6 +540,9 @@ class UserServiceTest {
         assertNotNull(testUser.getDeactivatedAt());
         verify(userRepo).findByUidAndEnabledTrue(1L);
         verify(userRepo).save(testUser);
+        verify(revocationRegistry).revokeTokensIssuedBefore("testuser", testUser.getDeactivatedAt());
+        verify(tokenCache).invalidateUser("testuser");
+        verify(refreshTokenStore).revokeUser("testuser");
     }
 
     @Test
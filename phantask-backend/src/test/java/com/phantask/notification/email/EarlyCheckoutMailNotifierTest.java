@@ -0,0 +1,66 @@
+package com.phantask.notification.email;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+
+import com.phantask.attendance.dto.EarlyCheckoutEvent;
+
+/**
+ * Unit tests for EarlyCheckoutMailNotifier
+ */
+@ExtendWith(MockitoExtension.class)
+class EarlyCheckoutMailNotifierTest {
+
+    @Mock
+    private EmailService emailService;
+
+    private EarlyCheckoutMailNotifier notifier;
+
+    private EarlyCheckoutEvent event;
+
+    @BeforeEach
+    void setUp() {
+        notifier = new EarlyCheckoutMailNotifier(emailService, 1, 10);
+        LocalDateTime checkOut = LocalDateTime.now();
+        event = new EarlyCheckoutEvent("manager@phantask.in", "testuser",
+                checkOut.minusHours(3), checkOut, 180);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        notifier.shutdown();
+    }
+
+    @Test
+    void onEarlyCheckout_ShouldSendMailOnMailThread() {
+        notifier.onEarlyCheckout(event);
+
+        verify(emailService, timeout(2000)).sendEarlyCheckoutAlert(
+                eq("manager@phantask.in"), eq("testuser"), any(), any(), eq(180L));
+    }
+
+    @Test
+    void send_WhenSmtpFails_ShouldNotThrow() {
+        doThrow(new MailSendException("SMTP down"))
+                .when(emailService).sendEarlyCheckoutAlert(any(), any(), any(), any(), anyLong());
+
+        notifier.send(event);
+
+        assertEquals(1L, notifier.getStats().get("failed"));
+    }
+}
@@ -0,0 +1,200 @@
+package com.phantask.report.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.phantask.authentication.security.JwtFilter;
+import com.phantask.authentication.security.JwtUtil;
+import com.phantask.report.enums.ReportJobStatus;
+import com.phantask.report.enums.ReportType;
+import com.phantask.report.service.ReportJob;
+import com.phantask.report.service.ReportJobService;
+
+/**
+ * Web layer tests for ReportJobController
+ */
+@WebMvcTest(ReportJobController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ReportJobControllerTest {
+
+    private static final String CSV = "User ID,Username\n1,user1\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReportJobService reportJobService;
+
+    @MockBean
+    private JwtFilter jwtFilter;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @WithMockUser(authorities = "HR")
+    void submit_ShouldReturn202WithJobLocation() throws Exception {
+        // Arrange
+        ReportJob job = job("job-1", ReportType.ATTENDANCE_PERCENTAGE, ReportJobStatus.QUEUED);
+        when(reportJobService.submit(any())).thenReturn(job);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/reports/jobs")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"ATTENDANCE_PERCENTAGE\",\"startDate\":\"2025-01-01\",\"endDate\":\"2025-12-31\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/reports/jobs/job-1"))
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    @WithMockUser(authorities = "HR")
+    void submit_WithStartAfterEnd_ShouldReturn400() throws Exception {
+        mockMvc.perform(post("/api/reports/jobs")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"ATTENDANCE_PERCENTAGE\",\"startDate\":\"2025-12-31\",\"endDate\":\"2025-01-01\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verify(reportJobService, never()).submit(any());
+    }
+
+    @Test
+    @WithMockUser(authorities = "HR")
+    void submit_FeedbackReportAsHr_ShouldReturn403() throws Exception {
+        mockMvc.perform(post("/api/reports/jobs")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"FEEDBACK\",\"feedbackId\":42}"))
+                .andExpect(status().isForbidden());
+
+        verify(reportJobService, never()).submit(any());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void getJob_WhenUnknownOrExpired_ShouldReturn404() throws Exception {
+        when(reportJobService.find("missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/reports/jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void download_WhenJobIsRunning_ShouldReturn409() throws Exception {
+        ReportJob job = job("job-1", ReportType.ATTENDANCE_PERCENTAGE, ReportJobStatus.RUNNING);
+        when(reportJobService.find("job-1")).thenReturn(Optional.of(job));
+
+        mockMvc.perform(get("/api/reports/jobs/job-1/download"))
+                .andExpect(status().isConflict())
+                .andExpect(status().reason("Report job is RUNNING"));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void download_WhenUnknownOrExpired_ShouldReturn404() throws Exception {
+        when(reportJobService.find("missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/reports/jobs/missing/download"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void download_WithoutGzipSupport_ShouldReturnDecompressedCsv() throws Exception {
+        // Arrange
+        ReportJob job = completedJob();
+        when(reportJobService.find("job-1")).thenReturn(Optional.of(job));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/reports/jobs/job-1/download"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=attendance_percentage.csv"))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string(CSV));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void download_WithGzipSupport_ShouldReturnStoredFile() throws Exception {
+        // Arrange
+        ReportJob job = completedJob();
+        when(reportJobService.find("job-1")).thenReturn(Optional.of(job));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/reports/jobs/job-1/download")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(content().bytes(Files.readAllBytes(job.getFile())));
+    }
+
+    private ReportJob completedJob() throws IOException {
+        Path file = directory.resolve("job-1.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(CSV.getBytes(StandardCharsets.UTF_8));
+        }
+        ReportJob job = job("job-1", ReportType.ATTENDANCE_PERCENTAGE, ReportJobStatus.COMPLETED);
+        when(job.getFile()).thenReturn(file);
+        when(job.getSize()).thenReturn(Files.size(file));
+        when(job.getFileName()).thenReturn("attendance_percentage.csv");
+        return job;
+    }
+
+    private static ReportJob job(String id, ReportType type, ReportJobStatus status) {
+        ReportJob job = mock(ReportJob.class);
+        when(job.getId()).thenReturn(id);
+        when(job.getType()).thenReturn(type);
+        when(job.getStatus()).thenReturn(status);
+        return job;
+    }
+}
@@ -0,0 +1,211 @@
+package com.phantask.report.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.phantask.exception.ReportCapacityExceededException;
+import com.phantask.report.dto.ReportJobRequest;
+import com.phantask.report.enums.ReportJobStatus;
+import com.phantask.report.enums.ReportType;
+
+/**
+ * Unit tests for ReportJobService
+ */
+@ExtendWith(MockitoExtension.class)
+class ReportJobServiceTest {
+
+    private static final String CSV = "User ID,Username\n1,user1\n";
+
+    @Mock
+    private ReportGenerator generator;
+
+    @TempDir
+    Path directory;
+
+    private ReportJobService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void submit_ShouldWriteGzippedReportAndCompleteJob() throws Exception {
+        // Arrange
+        service = newService(2, 8, 30);
+        doAnswer(inv -> writeCsv(inv.getArgument(1))).when(generator).write(any(), any());
+
+        // Act
+        ReportJob job = await(service.submit(attendance(null)));
+
+        // Assert
+        assertEquals(ReportJobStatus.COMPLETED, job.getStatus());
+        assertEquals(CSV, readGzip(job.getFile()));
+        assertEquals(Files.size(job.getFile()), job.getSize());
+        assertTrue(job.getExpiresAt().isAfter(job.getFinishedAt()));
+        assertSame(job, service.find(job.getId()).orElseThrow());
+    }
+
+    @Test
+    void submit_WithIdenticalRequest_ShouldReuseJob() throws Exception {
+        // Arrange
+        service = newService(2, 8, 30);
+        doAnswer(inv -> writeCsv(inv.getArgument(1))).when(generator).write(any(), any());
+        ReportJob first = await(service.submit(attendance(null)));
+
+        // Act
+        ReportJob second = service.submit(attendance(null));
+        ReportJob otherUser = await(service.submit(attendance(7L)));
+
+        // Assert
+        assertSame(first, second);
+        assertNotEquals(first.getId(), otherUser.getId());
+        verify(generator, times(2)).write(any(), any());
+    }
+
+    @Test
+    void submit_AfterFailedJob_ShouldStartNewJob() throws Exception {
+        // Arrange
+        service = newService(2, 8, 30);
+        doThrow(new RuntimeException("Feedback not found"))
+                .doAnswer(inv -> writeCsv(inv.getArgument(1)))
+                .when(generator).write(any(), any());
+
+        // Act
+        ReportJob failed = await(service.submit(feedback(42L)));
+        ReportJob retried = await(service.submit(feedback(42L)));
+
+        // Assert
+        assertEquals(ReportJobStatus.FAILED, failed.getStatus());
+        assertEquals("Feedback not found", failed.getError());
+        assertNotEquals(failed.getId(), retried.getId());
+        assertEquals(ReportJobStatus.COMPLETED, retried.getStatus());
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count()); // no partial file left behind
+        }
+    }
+
+    @Test
+    void purgeExpired_ShouldDeleteFileAndForgetJob() throws Exception {
+        // Arrange: results expire as soon as they are written
+        service = newService(2, 8, 0);
+        doAnswer(inv -> writeCsv(inv.getArgument(1))).when(generator).write(any(), any());
+        ReportJob job = await(service.submit(attendance(null)));
+        assertTrue(Files.exists(job.getFile()));
+
+        // Act
+        service.purgeExpired();
+
+        // Assert
+        assertFalse(Files.exists(job.getFile()));
+        assertTrue(service.find(job.getId()).isEmpty());
+        assertNotEquals(job.getId(), service.submit(attendance(null)).getId());
+    }
+
+    @Test
+    void submit_WhenQueueIsFull_ShouldThrowCapacityExceeded() throws Exception {
+        // Arrange: one worker blocked on the first job, one slot in the queue
+        service = newService(1, 1, 30);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            started.countDown();
+            release.await();
+            return null;
+        }).when(generator).write(any(), any());
+
+        try {
+            service.submit(attendance(1L));
+            assertTrue(started.await(5, TimeUnit.SECONDS), "worker did not pick up the first job");
+            service.submit(attendance(2L));
+
+            // Act & Assert
+            assertThrows(ReportCapacityExceededException.class, () -> service.submit(attendance(3L)));
+            assertEquals(1L, service.getStats().get("rejected"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void constructor_ShouldDeleteFilesOfPreviousRun() throws Exception {
+        // Arrange
+        Path leftover = Files.createFile(directory.resolve("old.csv.gz"));
+        Path partial = Files.createFile(directory.resolve("old.part"));
+
+        // Act
+        service = newService(1, 1, 30);
+
+        // Assert
+        assertFalse(Files.exists(leftover));
+        assertFalse(Files.exists(partial));
+    }
+
+    private ReportJobService newService(int threads, int queueCapacity, long ttlMinutes) {
+        return new ReportJobService(generator, directory.toString(), threads, queueCapacity, ttlMinutes, 30);
+    }
+
+    private static ReportJobRequest attendance(Long userId) {
+        ReportJobRequest request = new ReportJobRequest();
+        request.setType(ReportType.ATTENDANCE_PERCENTAGE);
+        request.setStartDate(LocalDate.of(2025, 1, 1));
+        request.setEndDate(LocalDate.of(2025, 12, 31));
+        request.setUserId(userId);
+        return request;
+    }
+
+    private static ReportJobRequest feedback(Long feedbackId) {
+        ReportJobRequest request = new ReportJobRequest();
+        request.setType(ReportType.FEEDBACK);
+        request.setFeedbackId(feedbackId);
+        return request;
+    }
+
+    private static Object writeCsv(OutputStream out) throws IOException {
+        out.write(CSV.getBytes(StandardCharsets.UTF_8));
+        return null;
+    }
+
+    private static String readGzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static ReportJob await(ReportJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.getStatus().isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return job;
+    }
+}